@@ -1,77 +1,99 @@
-package com.test.client;
-
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
-import javax.net.ssl.*;
-import java.security.cert.X509Certificate;
-import java.util.Collections;
-import java.util.Map;
-
-@Component
-public class FinnhubClient {
-
-    @Value("${finnhub.api.url}")
-    private String apiUrl;
-
-    @Value("${finnhub.api.key}")
-    private String apiKey;
-
-    private final RestTemplate restTemplate;
-
-    public FinnhubClient() {
-        // 1. Disable SSL Verification (Fixes PKIX path building failed)
-        disableSslVerification();
-        this.restTemplate = new RestTemplate();
-    }
-
-    // --- SSL BYPASS LOGIC ---
-    private static void disableSslVerification() {
-        try {
-            // Create a trust manager that does not validate certificate chains
-            TrustManager[] trustAllCerts = new TrustManager[] {
-                new X509TrustManager() {
-                    public X509Certificate[] getAcceptedIssuers() { return null; }
-                    public void checkClientTrusted(X509Certificate[] certs, String authType) { }
-                    public void checkServerTrusted(X509Certificate[] certs, String authType) { }
-                }
-            };
-
-            // Install the all-trusting trust manager
-            SSLContext sc = SSLContext.getInstance("SSL");
-            sc.init(null, trustAllCerts, new java.security.SecureRandom());
-            HttpsURLConnection.setDefaultSSLSocketFactory(sc.getSocketFactory());
-
-            // Create all-trusting host name verifier
-            HostnameVerifier allHostsValid = (hostname, session) -> true;
-            HttpsURLConnection.setDefaultHostnameVerifier(allHostsValid);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-    // ------------------------
-
-    // 1. Get Current Price
-    public Map<String, Object> getQuote(String symbol, String token) {
-        // Use apiKey from properties, ignore the token param passed in
-        String url = String.format("%s/quote?symbol=%s&token=%s", apiUrl, symbol, apiKey);
-        try {
-            return restTemplate.getForObject(url, Map.class);
-        } catch (Exception e) {
-            System.err.println("Finnhub Quote Error: " + e.getMessage());
-            return Collections.emptyMap();
-        }
-    }
-
-    // 2. Get Candles (History)
-    public Map<String, Object> getCandles(String symbol, String resolution, String from, String to, String token) {
-        String url = String.format("%s/stock/candle?symbol=%s&resolution=%s&from=%s&to=%s&token=%s", 
-                apiUrl, symbol, resolution, from, to, apiKey);
-        try {
-            return restTemplate.getForObject(url, Map.class);
-        } catch (Exception e) {
-            System.err.println("Finnhub Candle Error: " + e.getMessage());
-            return Collections.emptyMap();
-        }
-    }
+package com.test.client;
+
+import com.test.metrics.MetricsRegistry;
+import com.test.metrics.TracingInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import javax.net.ssl.*;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class FinnhubClient {
+    private static final Logger logger = LoggerFactory.getLogger(FinnhubClient.class);
+
+    @Value("${finnhub.api.url}")
+    private String apiUrl;
+
+    @Value("${finnhub.api.key}")
+    private String apiKey;
+
+    @Autowired private MetricsRegistry metrics;
+
+    private final RestTemplate restTemplate;
+
+    public FinnhubClient() {
+        // 1. Disable SSL Verification (Fixes PKIX path building failed)
+        disableSslVerification();
+        this.restTemplate = new RestTemplate();
+        this.restTemplate.getInterceptors().add(new TracingInterceptor());
+    }
+
+    // --- SSL BYPASS LOGIC ---
+    private static void disableSslVerification() {
+        try {
+            // Create a trust manager that does not validate certificate chains
+            TrustManager[] trustAllCerts = new TrustManager[] {
+                new X509TrustManager() {
+                    public X509Certificate[] getAcceptedIssuers() { return null; }
+                    public void checkClientTrusted(X509Certificate[] certs, String authType) { }
+                    public void checkServerTrusted(X509Certificate[] certs, String authType) { }
+                }
+            };
+
+            // Install the all-trusting trust manager
+            SSLContext sc = SSLContext.getInstance("SSL");
+            sc.init(null, trustAllCerts, new java.security.SecureRandom());
+            HttpsURLConnection.setDefaultSSLSocketFactory(sc.getSocketFactory());
+
+            // Create all-trusting host name verifier
+            HostnameVerifier allHostsValid = (hostname, session) -> true;
+            HttpsURLConnection.setDefaultHostnameVerifier(allHostsValid);
+        } catch (Exception e) {
+            logger.error("Could not disable SSL verification: {}", e.getMessage(), e);
+        }
+    }
+    // ------------------------
+
+    // 1. Get Current Price
+    public Map<String, Object> getQuote(String symbol, String token) {
+        // Use apiKey from properties, ignore the token param passed in
+        String url = String.format("%s/quote?symbol=%s&token=%s", apiUrl, symbol, apiKey);
+        try {
+            return metrics.time("finnhub_request", () -> restTemplate.getForObject(url, Map.class), "operation", "quote");
+        } catch (Exception e) {
+            logger.warn("Finnhub Quote Error: {}", e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    // 2. Get Candles (History)
+    public Map<String, Object> getCandles(String symbol, String resolution, String from, String to, String token) {
+        String url = String.format("%s/stock/candle?symbol=%s&resolution=%s&from=%s&to=%s&token=%s", 
+                apiUrl, symbol, resolution, from, to, apiKey);
+        try {
+            return metrics.time("finnhub_request", () -> restTemplate.getForObject(url, Map.class), "operation", "candles");
+        } catch (Exception e) {
+            logger.warn("Finnhub Candle Error: {}", e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    // 3. Symbol list of an exchange (symbol, description, type, ...); large, fetch rarely
+    public List<Map<String, Object>> getSymbols(String exchange, String token) {
+        String url = String.format("%s/stock/symbol?exchange=%s&token=%s", apiUrl, exchange, apiKey);
+        try {
+            List<Map<String, Object>> symbols = metrics.time("finnhub_request", () -> restTemplate.getForObject(url, List.class), "operation", "symbols");
+            return symbols != null ? symbols : Collections.emptyList();
+        } catch (Exception e) {
+            logger.warn("Finnhub Symbol List Error: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+    }
 }
\ No newline at end of file
@@ -1,50 +1,64 @@
-package com.test.config;
-
-import com.amazonaws.auth.AWSCredentials;
-import com.amazonaws.auth.AWSCredentialsProvider;
-import com.amazonaws.auth.AWSStaticCredentialsProvider;
-import com.amazonaws.auth.BasicAWSCredentials;
-import com.amazonaws.regions.Regions;
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
-import org.socialsignin.spring.data.dynamodb.repository.config.EnableDynamoDBRepositories;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-
-@Configuration
-@EnableDynamoDBRepositories(basePackages = "com.test.repository") 
-public class DynamoDBConfig {
-
-    @Value("${amazon.aws.accesskey}")
-    private String amazonAWSAccessKey;
-
-    @Value("${amazon.aws.secretkey}")
-    private String amazonAWSSecretKey;
-
-    @Value("${amazon.aws.region}")
-    private String amazonAWSRegion;
-
-    @Value("${amazon.dynamodb.endpoint}")
-    private String amazonDynamoDBEndpoint;
-
-    @Bean
-    AmazonDynamoDB amazonDynamoDB() {
-        return AmazonDynamoDBClientBuilder.standard()
-            .withCredentials(amazonAWSCredentialsProvider())
-            .withRegion(Regions.fromName(amazonAWSRegion))
-            // If you are strictly using the real DynamoDB (not local), 
-            // the region above is enough. If using local, you'd use withEndpointConfiguration.
-            .build();
-    }
-
-    @Bean
-    AWSCredentialsProvider amazonAWSCredentialsProvider() {
-        return new AWSStaticCredentialsProvider(amazonAWSCredentials());
-    }
-
-    @Bean
-    public AWSCredentials amazonAWSCredentials() {
-        return new BasicAWSCredentials(amazonAWSAccessKey, amazonAWSSecretKey);
-    }
+package com.test.config;
+
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
+import com.amazonaws.regions.Regions;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import org.socialsignin.spring.data.dynamodb.repository.config.EnableDynamoDBRepositories;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableDynamoDBRepositories(basePackages = "com.test.repository", dynamoDBMapperRef = "dynamoDBMapper")
+public class DynamoDBConfig {
+
+    @Value("${amazon.aws.accesskey}")
+    private String amazonAWSAccessKey;
+
+    @Value("${amazon.aws.secretkey}")
+    private String amazonAWSSecretKey;
+
+    @Value("${amazon.aws.region}")
+    private String amazonAWSRegion;
+
+    // Leave empty for real DynamoDB
+    @Value("${amazon.dynamodb.endpoint:}")
+    private String amazonDynamoDBEndpoint;
+
+    @Bean
+    AmazonDynamoDB amazonDynamoDB() {
+        AmazonDynamoDBClientBuilder builder = AmazonDynamoDBClientBuilder.standard()
+            .withCredentials(amazonAWSCredentialsProvider());
+
+        if (amazonDynamoDBEndpoint != null && !amazonDynamoDBEndpoint.isBlank()) {
+            // DynamoDB Local (or any other explicit endpoint), e.g. http://localhost:8000
+            builder.withEndpointConfiguration(new EndpointConfiguration(amazonDynamoDBEndpoint, amazonAWSRegion));
+        } else {
+            // Real DynamoDB: the region is enough
+            builder.withRegion(Regions.fromName(amazonAWSRegion));
+        }
+        return builder.build();
+    }
+
+    // Shared with the repositories; also used directly for segmented scans and paged queries
+    @Bean
+    public DynamoDBMapper dynamoDBMapper(AmazonDynamoDB amazonDynamoDB) {
+        return new DynamoDBMapper(amazonDynamoDB);
+    }
+
+    @Bean
+    AWSCredentialsProvider amazonAWSCredentialsProvider() {
+        return new AWSStaticCredentialsProvider(amazonAWSCredentials());
+    }
+
+    @Bean
+    public AWSCredentials amazonAWSCredentials() {
+        return new BasicAWSCredentials(amazonAWSAccessKey, amazonAWSSecretKey);
+    }
 }
\ No newline at end of file
@@ -1,18 +1,21 @@
-package com.test.config;
- 
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
-import org.springframework.web.client.RestTemplate;
- 
-@Configuration
-public class HttpConfig {
- 
-    @Bean
-    public RestTemplate restTemplate() {
-        SimpleClientHttpRequestFactory f = new SimpleClientHttpRequestFactory();
-        f.setConnectTimeout(5000);
-        f.setReadTimeout(10000);
-        return new RestTemplate(f);
-    }
+package com.test.config;
+ 
+import com.test.metrics.TracingInterceptor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+ 
+@Configuration
+public class HttpConfig {
+ 
+    @Bean
+    public RestTemplate restTemplate() {
+        SimpleClientHttpRequestFactory f = new SimpleClientHttpRequestFactory();
+        f.setConnectTimeout(5000);
+        f.setReadTimeout(10000);
+        RestTemplate restTemplate = new RestTemplate(f);
+        restTemplate.getInterceptors().add(new TracingInterceptor());
+        return restTemplate;
+    }
 }
\ No newline at end of file
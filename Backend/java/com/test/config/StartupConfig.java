@@ -0,0 +1,48 @@
+package com.test.config;
+
+import com.test.client.FinnhubClient;
+import com.test.controller.AuthController;
+import com.test.controller.DashboardController;
+import com.test.controller.PortfolioController;
+import com.test.controller.PortfolioSummaryController;
+import com.test.marketdata.MarketDataProvider;
+import com.test.metrics.MetricsRegistry;
+import com.test.repository.StockRepository;
+import com.test.repository.UserRepository;
+import com.test.repository.embedded.EmbeddedLedgerStore;
+import com.test.service.ClusterLeaseService;
+import com.test.service.DashboardService;
+import com.test.service.HolderIndexService;
+import com.test.service.IdempotencyService;
+import com.test.service.LedgerArchiveService;
+import com.test.service.LedgerService;
+import com.test.service.PriceAlertService;
+import com.test.service.QuotePublisher;
+import com.test.service.QuoteService;
+import com.test.service.SymbolIndexService;
+import com.test.service.ValuationService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+* Fast startup mode: with spring.main.lazy-initialization=true every bean is created on first use,
+* except the ones listed here - the hot request path (so the first request doesn't build it),
+* beans with schedules / startup work, and the warm-up itself.
+* Admin, analytics, AI and reporting beans stay lazy.
+*/
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerHotPathBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                PortfolioController.class, PortfolioSummaryController.class, AuthController.class,
+                DashboardController.class, DashboardService.class, ValuationService.class,
+                LedgerService.class, HolderIndexService.class, QuoteService.class, IdempotencyService.class,
+                FinnhubClient.class, MarketDataProvider.class,
+                StockRepository.class, UserRepository.class, EmbeddedLedgerStore.class,
+                PriceAlertService.class, SymbolIndexService.class, MetricsRegistry.class, StartupWarmup.class,
+                ClusterLeaseService.class, QuotePublisher.class, LedgerArchiveService.class);
+    }
+}
@@ -0,0 +1,192 @@
+package com.test.config;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.metrics.MetricsRegistry;
+import com.test.model.Money;
+import com.test.model.Stock;
+import com.test.repository.UserRepository;
+import com.test.service.ClusterLeaseService;
+import com.test.service.HolderIndexService;
+import com.test.service.LedgerService;
+import com.test.service.QuoteService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.support.BasicAuthenticationInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+* Pre-warms the instance after a deploy, in the background but before readiness is reported:
+* opens the DynamoDB and Finnhub connections, prefetches quotes (configured + most-held symbols),
+* and runs synthetic work / requests through the hot paths so the JIT has compiled them.
+*
+* Starts on ApplicationStartedEvent (web server already up) and holds the ApplicationReadyEvent,
+* after which Spring Boot switches readiness to ACCEPTING_TRAFFIC, for at most startup.warmup.timeout-ms.
+*/
+@Component
+public class StartupWarmup {
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    @Autowired private AmazonDynamoDB amazonDynamoDB;
+    @Autowired private UserRepository userRepository;
+    @Autowired private QuoteService quoteService;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private MetricsRegistry metrics;
+    @Autowired private HolderIndexService holderIndexService;
+    @Autowired private ClusterLeaseService cluster;
+    @Autowired private Environment environment;
+
+    @Value("${startup.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${startup.warmup.timeout-ms:60000}")
+    private long timeoutMs;
+
+    // Always prefetched, e.g. AAPL,MSFT,NVDA
+    @Value("${startup.warmup.symbols:}")
+    private List<String> symbols;
+
+    // The most-held symbols from the SymbolHolders index (never a scan of the Stocks table)
+    @Value("${startup.warmup.held-symbols:true}")
+    private boolean heldSymbols;
+
+    // Cap on held symbols prefetched, so a deploy does not spend the provider quota on cold quotes
+    @Value("${startup.warmup.max-symbols:200}")
+    private int maxSymbols;
+
+    @Value("${startup.warmup.synthetic-iterations:2000}")
+    private int syntheticIterations;
+
+    // Optional account for authenticated synthetic requests against this instance
+    @Value("${startup.warmup.user:}")
+    private String warmupUser;
+
+    @Value("${startup.warmup.password:}")
+    private String warmupPassword;
+
+    private volatile CompletableFuture<Void> warmup;
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void start() {
+        if (!enabled) return;
+        long started = System.nanoTime();
+        warmup = CompletableFuture.runAsync(this::warmUp, runnable -> {
+            Thread t = new Thread(runnable, "startup-warmup");
+            t.setDaemon(true);
+            t.start();
+        }).whenComplete((ok, e) -> {
+            long nanos = System.nanoTime() - started;
+            metrics.recordNanos("startup_warmup_seconds", nanos);
+            logger.info("Warm-up finished in {} ms", TimeUnit.NANOSECONDS.toMillis(nanos));
+        });
+    }
+
+    // Readiness flips to ACCEPTING_TRAFFIC only after this listener returns
+    @EventListener(ApplicationReadyEvent.class)
+    public void awaitWarmup() {
+        if (warmup == null) return;
+        try {
+            warmup.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            logger.warn("Warm-up did not finish within {} ms, reporting ready anyway: {}", timeoutMs, e.toString());
+        }
+    }
+
+    private void warmUp() {
+        step("dynamodb", this::warmDynamoDB);
+        step("quotes", () -> quoteService.prefetch(symbols));
+        if (heldSymbols) {
+            step("held-symbols", this::prefetchHeldSymbols);
+        }
+        step("synthetic", this::runSyntheticWork);
+        step("requests", this::runSyntheticRequests);
+        logger.info("Warm-up: {} symbols in the quote cache", quoteService.getCachedSymbolCount());
+    }
+
+    private void step(String name, Runnable step) {
+        long start = System.nanoTime();
+        try {
+            step.run();
+        } catch (Exception e) {
+            logger.warn("Warm-up step {} failed: {}", name, e.getMessage());
+        }
+        logger.debug("Warm-up step {} took {} ms", name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    // A follower takes what the leader published to SharedPrices; only the leader or a single instance asks the provider
+    private void prefetchHeldSymbols() {
+        List<String> mostHeld = holderIndexService.getMostHeldSymbols(maxSymbols);
+        if (cluster.isFollower()) {
+            logger.info("Warm-up: {} of {} held symbols from SharedPrices", quoteService.prefetchShared(mostHeld), mostHeld.size());
+        } else {
+            quoteService.prefetch(mostHeld);
+        }
+    }
+
+    // Connection, TLS handshake and credentials for the client; table metadata for the mapper
+    private void warmDynamoDB() {
+        amazonDynamoDB.listTables(1);
+        userRepository.findByEmail("warmup@localhost");
+    }
+
+    // Ledger replay and JSON serialization on a synthetic ledger, enough iterations for C2
+    private void runSyntheticWork() {
+        SplittableRandom random = new SplittableRandom(7);
+        List<Stock> ledger = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Stock s = new Stock();
+            s.setStockId("warmup-" + i);
+            s.setSymbol("S" + (i % 10));
+            s.setType(i % 4 == 3 ? "SELL" : "BUY");
+            s.setQuantity(1 + random.nextInt(20));
+            s.setPurchasePriceMicros(Money.ofDouble(10 + random.nextDouble() * 200));
+            s.setTimestamp((long) i);
+            ledger.add(s);
+        }
+        try {
+            for (int i = 0; i < syntheticIterations; i++) {
+                LedgerService.Position position = new LedgerService.Position();
+                ledger.forEach(position::apply);
+                objectMapper.writeValueAsBytes(ledger);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Real requests through Tomcat, the security filter chain and the controllers
+    private void runSyntheticRequests() {
+        String port = environment.getProperty("local.server.port");
+        if (port == null) return;
+        String base = "http://localhost:" + port;
+
+        RestTemplate client = new RestTemplate();
+        boolean authenticated = !warmupUser.isBlank();
+        if (authenticated) {
+            client.getInterceptors().add(new BasicAuthenticationInterceptor(warmupUser, warmupPassword));
+        }
+        for (int i = 0; i < 20; i++) {
+            for (String path : List.of("/api/stocks", "/api/portfolio/summary", "/api/stocks/history")) {
+                try {
+                    client.getForEntity(base + path, String.class);
+                } catch (Exception e) {
+                    // 401 without a warm-up account still exercises the filter chain
+                    if (authenticated) throw e;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.test.controller;
+
+import com.test.metrics.MetricsRegistry;
+import com.test.model.CorporateAction;
+import com.test.service.ClusterLeaseService;
+import com.test.service.CorporateActionService;
+import com.test.service.ExposureReportService;
+import com.test.service.HolderIndexService;
+import com.test.service.LedgerArchiveService;
+import com.test.service.LedgerIndexMigrationService;
+import com.test.service.MoneyMigrationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+
+// Operations reports - SecurityConfig restricts /api/admin/** to ROLE_ADMIN
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired private ExposureReportService exposureReportService;
+    @Autowired private MoneyMigrationService moneyMigrationService;
+    @Autowired private LedgerIndexMigrationService ledgerIndexMigrationService;
+    @Autowired private LedgerArchiveService ledgerArchiveService;
+    @Autowired private CorporateActionService corporateActionService;
+    @Autowired private HolderIndexService holderIndexService;
+    @Autowired private ClusterLeaseService clusterLeaseService;
+    @Autowired private MetricsRegistry metrics;
+
+    // House-wide shares / cost basis / market value per symbol (cached, ?refresh=true forces a new scan)
+    @GetMapping("/exposure")
+    public Map<String, Object> getSymbolExposure(@RequestParam(defaultValue = "false") boolean refresh) {
+        return exposureReportService.getReport(refresh);
+    }
+
+    // Rewrites all trades with micro-unit money and replays every ledger (idempotent)
+    @PostMapping("/migrations/money")
+    public Map<String, Object> migrateMoney() {
+        return moneyMigrationService.migrate();
+    }
+
+    // Writes the userSymbol-index key of every trade (idempotent); run once after adding the GSI
+    @PostMapping("/migrations/user-symbol-index")
+    public Map<String, Object> migrateUserSymbolIndex() {
+        return ledgerIndexMigrationService.migrate();
+    }
+
+    // Runs the nightly hot/cold ledger archive now, for everyone or one user (?userId=)
+    @PostMapping("/ledger/archive")
+    public Map<String, Object> archiveLedgers(@RequestParam(required = false) String userId) {
+        if (userId == null) {
+            return ledgerArchiveService.archiveAll();
+        }
+        return Map.of("userId", userId, "tradesArchived", ledgerArchiveService.archive(userId));
+    }
+
+    // Splits / cash dividends, applied in the background - body: { "symbol": "NVDA", "type": "SPLIT", "exDate": "2024-06-10", "splitFrom": 1, "splitTo": 10 }
+    // or { "symbol": "AAPL", "type": "DIVIDEND", "exDate": "2024-08-12", "cashPerShare": 0.25 }
+    @PostMapping("/corporate-actions")
+    public ResponseEntity<?> submitCorporateAction(@RequestBody CorporateAction request) {
+        if (request.getSymbol() == null || request.getSymbol().isBlank()) {
+            return ResponseEntity.badRequest().body("Symbol is required");
+        }
+        if (request.getExDate() == null) {
+            return ResponseEntity.badRequest().body("exDate is required");
+        }
+        try {
+            LocalDate.parse(request.getExDate());
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("exDate must be yyyy-MM-dd");
+        }
+        if (CorporateActionService.SPLIT.equalsIgnoreCase(request.getType())) {
+            if (request.getSplitFrom() <= 0 || request.getSplitTo() <= 0 || request.getSplitFrom() == request.getSplitTo()) {
+                return ResponseEntity.badRequest().body("A split needs positive, different splitFrom and splitTo");
+            }
+        } else if (CorporateActionService.DIVIDEND.equalsIgnoreCase(request.getType())) {
+            if (request.getCashPerShareMicros() <= 0) {
+                return ResponseEntity.badRequest().body("A dividend needs a positive cashPerShare");
+            }
+        } else {
+            return ResponseEntity.badRequest().body("Type must be SPLIT or DIVIDEND");
+        }
+        return ResponseEntity.accepted().body(corporateActionService.submit(request));
+    }
+
+    @GetMapping("/corporate-actions")
+    public List<CorporateAction> getCorporateActions() {
+        return corporateActionService.list();
+    }
+
+    @GetMapping("/corporate-actions/{actionId}")
+    public ResponseEntity<CorporateAction> getCorporateAction(@PathVariable String actionId) {
+        return ResponseEntity.of(corporateActionService.get(actionId));
+    }
+
+    // Continues a FAILED or interrupted action from its last checkpoint
+    @PostMapping("/corporate-actions/{actionId}/resume")
+    public ResponseEntity<CorporateAction> resumeCorporateAction(@PathVariable String actionId) {
+        return corporateActionService.resume(actionId)
+                .map(action -> ResponseEntity.accepted().body(action))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Starts a DONE or FAILED action over from the first holder, recomputing every adjustment row
+    @PostMapping("/corporate-actions/{actionId}/rerun")
+    public ResponseEntity<?> rerunCorporateAction(@PathVariable String actionId) {
+        if (corporateActionService.isRunning(actionId)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Corporate action " + actionId + " is still running");
+        }
+        return corporateActionService.rerun(actionId)
+                .<ResponseEntity<?>>map(action -> ResponseEntity.accepted().body(action))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // One full scan to (re)build the symbol -> holders index; run once after upgrading
+    @PostMapping("/corporate-actions/holders/rebuild")
+    public Map<String, Object> rebuildHolderIndex() {
+        return holderIndexService.rebuild();
+    }
+
+    // This instance's node id and role, and who holds the quote lease until when
+    @GetMapping("/cluster")
+    public Map<String, Object> getClusterStatus() {
+        return clusterLeaseService.status();
+    }
+
+    // Prometheus scrape target (text exposition format 0.0.4)
+    @GetMapping("/metrics")
+    public ResponseEntity<String> getMetrics() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/plain; version=0.0.4; charset=utf-8"))
+                .body(metrics.scrape());
+    }
+}
@@ -0,0 +1,70 @@
+package com.test.controller;
+
+import com.test.model.PriceAlert;
+import com.test.model.User;
+import com.test.repository.UserRepository;
+import com.test.service.PriceAlertService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/alerts")
+@CrossOrigin(origins = "http://localhost:3000")
+public class AlertController {
+
+    @Autowired private PriceAlertService priceAlertService;
+    @Autowired private UserRepository userRepository;
+
+    private User getAuthenticatedUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    // 1. MY ALERTS (active and triggered)
+    @GetMapping
+    public List<PriceAlert> getMyAlerts() {
+        return priceAlertService.getAlerts(getAuthenticatedUser().getUserId());
+    }
+
+    // 2. CREATE ALERT - body: { "symbol": "AAPL", "direction": "ABOVE", "targetPrice": 200 }
+    @PostMapping
+    public ResponseEntity<?> createAlert(@RequestBody PriceAlert request) {
+        if (request.getSymbol() == null || request.getSymbol().isBlank()) {
+            return ResponseEntity.badRequest().body("Symbol is required");
+        }
+        if (request.getTargetPrice() <= 0) {
+            return ResponseEntity.badRequest().body("Target price must be positive");
+        }
+        if (request.getDirection() == null
+                || !(PriceAlertService.ABOVE.equalsIgnoreCase(request.getDirection())
+                     || PriceAlertService.BELOW.equalsIgnoreCase(request.getDirection()))) {
+            return ResponseEntity.badRequest().body("Direction must be ABOVE or BELOW");
+        }
+
+        User user = getAuthenticatedUser();
+        request.setAlertId(null);
+        request.setUserId(user.getUserId());
+        request.setEmail(user.getEmail());
+        return ResponseEntity.ok(priceAlertService.createAlert(request));
+    }
+
+    // 3. DELETE ALERT
+    @DeleteMapping("/{alertId}")
+    public ResponseEntity<Void> deleteAlert(@PathVariable String alertId) {
+        String userId = getAuthenticatedUser().getUserId();
+        return priceAlertService.getAlerts(userId).stream()
+                .filter(a -> a.getAlertId().equals(alertId))
+                .findFirst()
+                .map(alert -> {
+                    priceAlertService.deleteAlert(alert);
+                    return ResponseEntity.noContent().<Void>build();
+                })
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -1,92 +1,183 @@
-package com.test.controller;
-
-import com.test.client.FinnhubClient;
-import com.test.service.GeminiService;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.HttpClientErrorException;
-
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.*;
-import java.text.SimpleDateFormat;
-
-@RestController
-@RequestMapping("/api/analytics")
-@CrossOrigin(origins = "http://localhost:3000")
-public class AnalyticsController {
-
-    @Autowired private FinnhubClient finnhubClient;
-    @Autowired private GeminiService geminiService;
-
-    @Value("${finnhub.api.key}")
-    private String apiKey;
-
-    // 1. GET CHART DATA
-    @GetMapping("/chart/{symbol}")
-    public ResponseEntity<List<Map<String, Object>>> getStockChart(@PathVariable String symbol) {
-        try {
-            long to = Instant.now().getEpochSecond();
-            long from = Instant.now().minus(30, ChronoUnit.DAYS).getEpochSecond();
-
-            Map<String, Object> candles = finnhubClient.getCandles(symbol, "D", String.valueOf(from), String.valueOf(to), apiKey);
-            List<Map<String, Object>> chartData = new ArrayList<>();
-
-            if (candles != null && "ok".equals(candles.get("s"))) {
-                List<Double> closes = (List<Double>) candles.get("c");
-                List<?> timestamps = (List<?>) candles.get("t");
-
-                if (closes != null && timestamps != null) {
-                    for (int i = 0; i < closes.size(); i++) {
-                        Map<String, Object> point = new HashMap<>();
-                        Number timeNum = (Number) timestamps.get(i);
-                        long unixSeconds = timeNum.longValue();
-                        point.put("date", new SimpleDateFormat("MMM dd").format(new Date(unixSeconds * 1000)));
-                        point.put("price", closes.get(i));
-                        chartData.add(point);
-                    }
-                }
-                return ResponseEntity.ok(chartData);
-            }
-            
-            // If Finnhub returns "no_data" (common for free tier with obscure stocks), use mock
-            System.out.println("Finnhub returned no data. Using Mock Data.");
-            return ResponseEntity.ok(generateMockData(symbol));
-
-        } catch (Exception e) {
-            // CATCH 403/Errors AND RETURN MOCK DATA
-            System.err.println("API Error (" + e.getMessage() + "). Serving Mock Data for demo.");
-            return ResponseEntity.ok(generateMockData(symbol));
-        }
-    }
-
-    // --- Helper: Generate Realistic Mock Data ---
-    private List<Map<String, Object>> generateMockData(String symbol) {
-        List<Map<String, Object>> mockData = new ArrayList<>();
-        double basePrice = 150.0 + new Random().nextInt(100); // Random start price
-        
-        long now = System.currentTimeMillis();
-        for (int i = 29; i >= 0; i--) {
-            Map<String, Object> point = new HashMap<>();
-            long time = now - (i * 24L * 60 * 60 * 1000); // Go back i days
-            
-            // Random daily fluctuation +/- 2%
-            double change = (new Random().nextDouble() - 0.5) * 4; 
-            basePrice += change;
-
-            point.put("date", new SimpleDateFormat("MMM dd").format(new Date(time)));
-            point.put("price", Math.round(basePrice * 100.0) / 100.0);
-            mockData.add(point);
-        }
-        return mockData;
-    }
-
-    // 2. GET AI NEWS
-    @GetMapping("/news/{symbol}")
-    public ResponseEntity<String> getStockNews(@PathVariable String symbol) {
-        String analysis = geminiService.getStockAnalysis(symbol);
-        return ResponseEntity.ok(analysis);
-    }
+package com.test.controller;
+
+import com.test.marketdata.GbmSimulator;
+import com.test.marketdata.MarketDataProvider;
+import com.test.metrics.MetricsRegistry;
+import com.test.model.User;
+import com.test.ratelimit.EndpointClass;
+import com.test.ratelimit.RateLimited;
+import com.test.repository.UserRepository;
+import com.test.service.GeminiService;
+import com.test.service.RebalanceSimulationService;
+import com.test.service.RiskAnalyticsService;
+import com.test.service.SymbolIndexService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.text.SimpleDateFormat;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "http://localhost:3000")
+public class AnalyticsController {
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsController.class);
+
+    @Autowired private MarketDataProvider marketData;
+    @Autowired private GeminiService geminiService;
+    @Autowired private RiskAnalyticsService riskAnalyticsService;
+    @Autowired private RebalanceSimulationService rebalanceSimulationService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private SymbolIndexService symbolIndexService;
+    @Autowired private MetricsRegistry metrics;
+
+    @Value("${simulation.paths:20000}")
+    private int defaultPaths;
+
+    @Value("${simulation.max-paths:100000}")
+    private int maxPaths;
+
+    @Value("${simulation.max-horizon-days:1260}")
+    private int maxHorizonDays;
+
+    // Chart fallback: the same deterministic series for a symbol on every call
+    private final GbmSimulator fallbackPrices = new GbmSimulator(7, 0.07, 0.3, LocalDate.of(2015, 1, 1), GbmSimulator.DAY_MS);
+
+    // 1. GET CHART DATA
+    @RateLimited(EndpointClass.VALUATION)
+    @GetMapping("/chart/{symbol}")
+    public ResponseEntity<?> getStockChart(@PathVariable String symbol) {
+        // Unknown symbols would otherwise each get a simulated fallback series
+        if (!symbolIndexService.isKnown(symbol.trim())) {
+            return ResponseEntity.badRequest().body("Unknown symbol: " + symbol);
+        }
+        try {
+            long to = Instant.now().getEpochSecond();
+            long from = Instant.now().minus(30, ChronoUnit.DAYS).getEpochSecond();
+
+            Map<String, Object> candles = marketData.getCandles(symbol, "D", from, to);
+            List<Map<String, Object>> chartData = new ArrayList<>();
+
+            if (candles != null && "ok".equals(candles.get("s"))) {
+                List<Double> closes = (List<Double>) candles.get("c");
+                List<?> timestamps = (List<?>) candles.get("t");
+
+                if (closes != null && timestamps != null) {
+                    for (int i = 0; i < closes.size(); i++) {
+                        Map<String, Object> point = new HashMap<>();
+                        Number timeNum = (Number) timestamps.get(i);
+                        long unixSeconds = timeNum.longValue();
+                        point.put("date", new SimpleDateFormat("MMM dd").format(new Date(unixSeconds * 1000)));
+                        point.put("price", closes.get(i));
+                        chartData.add(point);
+                    }
+                }
+                return ResponseEntity.ok(chartData);
+            }
+            
+            // If the provider returns "no_data" (common on Finnhub's free tier with obscure stocks), use mock
+            logger.info("{} returned no data for {}. Using Mock Data.", marketData.name(), symbol);
+            metrics.increment("chart_mock_data_total", "reason", "no_data");
+            return ResponseEntity.ok(generateMockData(symbol));
+
+        } catch (Exception e) {
+            // CATCH 403/Errors AND RETURN MOCK DATA
+            logger.warn("API Error ({}). Serving Mock Data for demo.", e.getMessage());
+            metrics.increment("chart_mock_data_total", "reason", "error");
+            return ResponseEntity.ok(generateMockData(symbol));
+        }
+    }
+
+    // --- Helper: Generate Realistic Mock Data ---
+    // Seeded GBM closes for the last 30 days: stable across refreshes instead of new random noise each time
+    private List<Map<String, Object>> generateMockData(String symbol) {
+        List<Map<String, Object>> mockData = new ArrayList<>();
+        String key = symbol.toUpperCase();
+        long today = Math.floorDiv(System.currentTimeMillis(), GbmSimulator.DAY_MS);
+        SimpleDateFormat format = new SimpleDateFormat("MMM dd");
+
+        for (long day = today - 29; day <= today; day++) {
+            Map<String, Object> point = new HashMap<>();
+            point.put("date", format.format(new Date(day * GbmSimulator.DAY_MS)));
+            point.put("price", Math.round(fallbackPrices.closeOn(key, day) * 100.0) / 100.0);
+            mockData.add(point);
+        }
+        return mockData;
+    }
+
+    // 2. GET AI NEWS
+    @RateLimited(EndpointClass.AI)
+    @GetMapping("/news/{symbol}")
+    public ResponseEntity<String> getStockNews(@PathVariable String symbol) {
+        String analysis = geminiService.getStockAnalysis(symbol);
+        return ResponseEntity.ok(analysis);
+    }
+
+    // 2b. AI ANALYSIS OF EVERY HOLDING (one prompt per chunk of symbols, shares the per-symbol cache)
+    @RateLimited(EndpointClass.AI)
+    @GetMapping("/news")
+    public ResponseEntity<Map<String, Object>> getPortfolioNews() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        User user = userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return ResponseEntity.ok(geminiService.getPortfolioAnalysis(riskAnalyticsService.currentHoldings(user.getUserId()).keySet()));
+    }
+
+    // 3. PORTFOLIO RISK (volatility, beta, VaR/CVaR, drawdown, correlations; cached for the day)
+    @RateLimited(EndpointClass.VALUATION)
+    @GetMapping("/risk")
+    public ResponseEntity<Map<String, Object>> getPortfolioRisk() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        User user = userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return ResponseEntity.ok(riskAnalyticsService.getRisk(user));
+    }
+
+    // 4. REBALANCE WHAT-IF (Monte Carlo of current holdings vs a target allocation)
+    @RateLimited(EndpointClass.SIMULATION)
+    @PostMapping("/rebalance/simulate")
+    public ResponseEntity<?> simulateRebalance(@RequestBody RebalanceRequest request) {
+        if (request.target == null || request.target.isEmpty()) {
+            return ResponseEntity.badRequest().body("Target allocation is required");
+        }
+        if (request.target.values().stream().anyMatch(w -> w == null || w < 0 || !Double.isFinite(w))
+                || request.target.values().stream().mapToDouble(Double::doubleValue).sum() <= 0) {
+            return ResponseEntity.badRequest().body("Target weights must be non-negative and not all zero");
+        }
+        int horizonDays = request.horizonDays != null ? request.horizonDays : 252;
+        if (horizonDays < 1 || horizonDays > maxHorizonDays) {
+            return ResponseEntity.badRequest().body("horizonDays must be between 1 and " + maxHorizonDays);
+        }
+        int paths = request.paths != null ? request.paths : defaultPaths;
+        if (paths < 100 || paths > maxPaths) {
+            return ResponseEntity.badRequest().body("paths must be between 100 and " + maxPaths);
+        }
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        User user = userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        try {
+            return ResponseEntity.ok(rebalanceSimulationService.simulate(user, request.target, horizonDays, paths, request.seed));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Target weights per symbol (fractions or percentages); the rest is optional
+    static class RebalanceRequest {
+        public Map<String, Double> target;
+        public Integer horizonDays;
+        public Integer paths;
+        public Long seed;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.test.controller;
+
+import com.test.model.User;
+import com.test.ratelimit.EndpointClass;
+import com.test.ratelimit.RateLimited;
+import com.test.repository.UserRepository;
+import com.test.service.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@CrossOrigin(origins = "http://localhost:3000")
+public class DashboardController {
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private DashboardService dashboardService;
+
+    @Value("${dashboard.history.page-size:20}")
+    private int defaultHistoryLimit;
+
+    @Value("${dashboard.history.max-page-size:100}")
+    private int maxHistoryLimit;
+
+    // GET /api/dashboard?fields=summary,holdings,allocation,history&historyLimit=20 (fields default to all four)
+    // -> { "summary": {...}, "holdings": [...], "allocation": { "AAPL": 42.1, ... }, "history": { "trades": [...], "total": 130, "hasMore": true } }
+    @RateLimited(EndpointClass.VALUATION)
+    @GetMapping
+    public ResponseEntity<?> getDashboard(@RequestParam(required = false) List<String> fields,
+                                          @RequestParam(required = false) Integer historyLimit) {
+        Set<String> selected = new HashSet<>();
+        if (fields == null || fields.isEmpty()) {
+            selected.addAll(DashboardService.FIELDS);
+        } else {
+            for (String field : fields) {
+                String f = field.trim().toLowerCase();
+                if (f.isEmpty()) continue;
+                if (!DashboardService.FIELDS.contains(f)) {
+                    return ResponseEntity.badRequest().body("Unknown field: " + field.trim());
+                }
+                selected.add(f);
+            }
+            if (selected.isEmpty()) {
+                return ResponseEntity.badRequest().body("At least one field is required");
+            }
+        }
+        int limit = historyLimit != null ? historyLimit : defaultHistoryLimit;
+        if (limit < 1 || limit > maxHistoryLimit) {
+            return ResponseEntity.badRequest().body("historyLimit must be between 1 and " + maxHistoryLimit);
+        }
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        User user = userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return ResponseEntity.ok(dashboardService.build(user.getUserId(), selected, limit));
+    }
+}
@@ -1,323 +1,394 @@
-package com.test.controller;
-
-import java.time.LocalDate;
-import java.util.*;
-import java.util.stream.Collectors;
-
-import org.bouncycastle.asn1.x509.NoticeReference;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.web.bind.annotation.*;
-
-import com.test.client.FinnhubClient;
-import com.test.model.Stock;
-import com.test.model.User;
-import com.test.repository.StockRepository;
-import com.test.repository.UserRepository;
-import com.test.service.NotificationService;
-
-@CrossOrigin(origins = "http://localhost:3000", allowedHeaders = "*")
-@RestController
-@RequestMapping("/api/stocks")
-public class PortfolioController {
-
-    @Autowired private StockRepository stockRepository;
-    @Autowired private UserRepository userRepository;
-    @Autowired private FinnhubClient finnhubClient;
-    @Autowired private NotificationService notificationService;
-
-    @Value("${finnhub.api.key}")
-    private String apiKey;
-
-    private User getAuthenticatedUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        return userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
-
-    // ------------------------------------------------------------
-    // 1. GET HISTORY (List of every single transaction)
-    // ------------------------------------------------------------
-    @GetMapping("/history")
-    public List<Stock> getTradeHistory() {
-        User user = getAuthenticatedUser();
-        // Wrap in ArrayList to avoid sorting crash
-        List<Stock> allTransactions = new ArrayList<>(stockRepository.findByUserId(user.getUserId()));
-        
-        // Sort Newest First
-        allTransactions.sort((s1, s2) -> {
-            long t1 = s1.getTimestamp() != null ? s1.getTimestamp() : 0;
-            long t2 = s2.getTimestamp() != null ? s2.getTimestamp() : 0;
-            return Long.compare(t2, t1);
-        });
-        
-        return allTransactions;
-    }
-
-    // ------------------------------------------------------------
-    // 2. CURRENT HOLDINGS (Aggregation Logic)
-    // ------------------------------------------------------------
-    @GetMapping
-    public List<Stock> getMyStocks() {
-        User user = getAuthenticatedUser();
-        List<Stock> transactions = new ArrayList<>(stockRepository.findByUserId(user.getUserId()));
-
-        // Group by Symbol (e.g., combine all AAPL records)
-        Map<String, List<Stock>> grouped = transactions.stream()
-            .collect(Collectors.groupingBy(Stock::getSymbol));
-
-        List<Stock> currentHoldings = new ArrayList<>();
-
-        for (Map.Entry<String, List<Stock>> entry : grouped.entrySet()) {
-            String symbol = entry.getKey();
-            List<Stock> trades = entry.getValue();
-
-            int netQuantity = 0;
-            double totalCostBasis = 0;
-
-            // Sort Oldest -> Newest to calculate Average Cost properly
-            trades.sort(Comparator.comparingLong(s -> s.getTimestamp() != null ? s.getTimestamp() : 0));
-
-            for (Stock t : trades) {
-                if ("BUY".equalsIgnoreCase(t.getType())) {
-                    // BUY: Add to quantity
-                    netQuantity += t.getQuantity();
-                    totalCostBasis += (t.getQuantity() * t.getPurchasePrice());
-                } else if ("SELL".equalsIgnoreCase(t.getType())) {
-                    // SELL: Subtract from quantity
-                    if (netQuantity > 0) {
-                        double avgCost = totalCostBasis / netQuantity;
-                        
-                        // HERE IS THE LOGIC YOU ASKED FOR:
-                        netQuantity -= t.getQuantity(); 
-                        
-                        // Reduce the cost basis proportionally
-                        totalCostBasis -= (t.getQuantity() * avgCost);
-                    }
-                }
-            }
-
-            // Only add to the list if you still own shares (Quantity > 0)
-            if (netQuantity > 0) {
-                Stock holding = new Stock();
-                holding.setSymbol(symbol);
-                holding.setQuantity(netQuantity);
-                // Weighted Average Purchase Price
-                holding.setPurchasePrice(totalCostBasis / netQuantity); 
-                holding.setStockId(UUID.randomUUID().toString()); // Temp ID for frontend
-                
-                // Get Live Price
-                try {
-                    Map<String, Object> quote = finnhubClient.getQuote(symbol, apiKey);
-                    if (quote != null && quote.get("c") != null) {
-                        holding.setCurrentPrice(Double.parseDouble(quote.get("c").toString()));
-                    } else {
-                        holding.setCurrentPrice(trades.get(trades.size()-1).getPurchasePrice());
-                    }
-                } catch (Exception e) {
-                    holding.setCurrentPrice(holding.getPurchasePrice());
-                }
-
-                double totalValue = holding.getCurrentPrice() * netQuantity;
-                holding.setGainLoss(totalValue - totalCostBasis);
-                
-                currentHoldings.add(holding);
-            }
-        }
-        return currentHoldings;
-    }
-
-    // ------------------------------------------------------------
-    // 3. BUY STOCK
-    // ------------------------------------------------------------
-    @PostMapping
-    public Stock addStock(@RequestBody Stock stock) {
-        User user = getAuthenticatedUser();
-        stock.setUserId(user.getUserId());
-        stock.setType("BUY");
-        
-        // --- FIX: Force Symbol to Uppercase ---
-        if (stock.getSymbol() != null) {
-            stock.setSymbol(stock.getSymbol().toUpperCase());
-        }
-        
-        stock.setTimestamp(System.currentTimeMillis());
-
-        if (stock.getTradeDate() == null) {
-            stock.setTradeDate(LocalDate.now().toString());
-        }
-
-        // Fetch price if not provided
-        if (stock.getPurchasePrice() == 0 || stock.getCurrentPrice() == 0) {
-            try {
-                // Use the uppercase symbol for API call
-                Map<String, Object> quote = finnhubClient.getQuote(stock.getSymbol(), apiKey);
-                if (quote != null && quote.get("c") != null) {
-                    double price = Double.parseDouble(quote.get("c").toString());
-                    if (stock.getPurchasePrice() == 0) stock.setPurchasePrice(price);
-                    if (stock.getCurrentPrice() == 0) stock.setCurrentPrice(price);
-                }
-            } catch (Exception ignored) {}
-        }
-
-        stock.setGainLoss(0);
-        Stock saved = stockRepository.save(stock);
-        notificationService.notifyTrade(saved, user.getEmail());
-        return saved;
-    }
-    
-
-    // ------------------------------------------------------------
-    // 4. SELL STOCK
-    // ------------------------------------------------------------
-    static class SellRequest {
-        public String symbol;
-        public int quantity;
-        public double sellPrice;
-    }
-    
-    @PostMapping("/sell-by-symbol")
-    public ResponseEntity<?> sellStockBySymbol(@RequestBody SellRequest request) {
-        User user = getAuthenticatedUser();
-        
-        // --- FIX: Force Symbol to Uppercase ---
-        String upperSymbol = request.symbol.toUpperCase();
-        
-        List<Stock> transactions = new ArrayList<>(stockRepository.findByUserId(user.getUserId()));
-
-        // Calculate Net Owned using upperSymbol
-        int netOwned = transactions.stream()
-                .filter(s -> s.getSymbol().equalsIgnoreCase(upperSymbol))
-                .mapToInt(s -> "BUY".equalsIgnoreCase(s.getType()) ? s.getQuantity() : -s.getQuantity())
-                .sum();
-
-        if (netOwned < request.quantity) {
-            return ResponseEntity.badRequest().body("Insufficient shares. You own " + netOwned);
-        }
-
-        // Create SELL Record
-        Stock sellRecord = new Stock();
-        sellRecord.setUserId(user.getUserId());
-        sellRecord.setSymbol(upperSymbol); // Use Uppercase
-        sellRecord.setType("SELL");
-        sellRecord.setQuantity(request.quantity);
-        sellRecord.setPurchasePrice(request.sellPrice); 
-        sellRecord.setTimestamp(System.currentTimeMillis());
-        sellRecord.setTradeDate(LocalDate.now().toString());
-
-        double totalBuyCost = 0;
-        int totalBuyQty = 0;
-        for (Stock s : transactions) {
-            if (s.getSymbol().equalsIgnoreCase(upperSymbol) && "BUY".equalsIgnoreCase(s.getType())) {
-                totalBuyCost += (s.getQuantity() * s.getPurchasePrice());
-                totalBuyQty += s.getQuantity();
-            }
-        }
-        
-        double avgBuyPrice = (totalBuyQty > 0) ? totalBuyCost / totalBuyQty : 0;
-        double realizedPnL = (request.sellPrice - avgBuyPrice) * request.quantity;
-        
-        sellRecord.setGainLoss(realizedPnL);
-      
-        Stock saved = stockRepository.save(sellRecord);
-        notificationService.notifyTrade(saved, user.getEmail());
-        return ResponseEntity.ok("Sold " + request.quantity + " shares of " + request.symbol);
-    }
- 
-    // ------------------------------------------------------------
-    // 5. DELETE TRANSACTION
-    // ------------------------------------------------------------
-    @DeleteMapping("/{stockId}")
-    public ResponseEntity<Void> deleteStock(@PathVariable String stockId) {
-        if (stockRepository.existsById(stockId)) {
-            stockRepository.deleteById(stockId);
-            return ResponseEntity.noContent().build();
-        }
-        return ResponseEntity.notFound().build();
-    }
-    
-    // ------------------------------------------------------------
-    // 6. LIVE PRICE
-    // ------------------------------------------------------------
-    @GetMapping("/price/{symbol}")
-    public ResponseEntity<Double> getCurrentPrice(@PathVariable String symbol) {
-        try {
-            Map<String, Object> quote = finnhubClient.getQuote(symbol.toUpperCase(), apiKey);
-            if (quote != null && quote.get("c") != null) {
-                return ResponseEntity.ok(Double.parseDouble(quote.get("c").toString()));
-            }
-            return ResponseEntity.notFound().build();
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
-        }
-    }
-    
-    
- // ------------------------------------------------------------
-    // 5. UPDATE TRANSACTION
-    // ------------------------------------------------------------
- // ------------------------------------------------------------
-    // 5. UPDATE TRANSACTION
-    // ------------------------------------------------------------
-    @PutMapping("/{stockId}")
-    public ResponseEntity<Stock> updateStock(@PathVariable String stockId, @RequestBody Stock updated) {
-        return stockRepository.findById(stockId)
-                .map(existing -> {
-                    if (!existing.getUserId().equals(getAuthenticatedUser().getUserId())) {
-                        throw new RuntimeException("Unauthorized");
-                    }
-
-                    // 1. Update Basic Fields
-                    existing.setSymbol(updated.getSymbol());
-                    existing.setTradeDate(updated.getTradeDate());
-                    
-                    // 2. Logic depends on Transaction Type
-                    if ("BUY".equalsIgnoreCase(existing.getType())) {
-                        // --- UPDATING A BUY ---
-                        existing.setQuantity(updated.getQuantity());
-                        existing.setPurchasePrice(updated.getPurchasePrice());
-                        
-                        // Recalculate Unrealized PnL (Current Value - New Cost)
-                        double totalValue = existing.getCurrentPrice() * existing.getQuantity();
-                        double totalCost = existing.getPurchasePrice() * existing.getQuantity();
-                        existing.setGainLoss(totalValue - totalCost);
-                        
-                    } else {
-                        // --- UPDATING A SELL ---
-                        // We must fetch ALL transactions to calculate the Average Buy Price correctly
-                        // so we can determine the new Realized PnL.
-                        
-                        List<Stock> allStocks = stockRepository.findByUserId(existing.getUserId());
-                        
-                        double totalBuyCost = 0;
-                        int totalBuyQty = 0;
-                        
-                        for(Stock s : allStocks) {
-                            // Look for BUYs of the same symbol
-                            // IMPORTANT: Exclude the current record if it was somehow a BUY before (rare case)
-                            if(s.getSymbol().equalsIgnoreCase(existing.getSymbol()) 
-                               && "BUY".equalsIgnoreCase(s.getType())) {
-                                totalBuyCost += (s.getQuantity() * s.getPurchasePrice());
-                                totalBuyQty += s.getQuantity();
-                            }
-                        }
-                        
-                        double avgBuyPrice = (totalBuyQty > 0) ? totalBuyCost / totalBuyQty : 0;
-                        
-                        // Update the Sell Record
-                        existing.setQuantity(updated.getQuantity());
-                        existing.setPurchasePrice(updated.getPurchasePrice()); // New Sell Price
-                        
-                        // Recalculate Profit: (New Sell Price - Avg Buy Price) * New Qty
-                        double newRealizedPnL = (updated.getPurchasePrice() - avgBuyPrice) * updated.getQuantity();
-                        existing.setGainLoss(newRealizedPnL);
-                    }
-
-                    return ResponseEntity.ok(stockRepository.save(existing));
-                })
-                .orElseGet(() -> ResponseEntity.notFound().build());
-    }
+package com.test.controller;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.regex.Pattern;
+
+import org.bouncycastle.asn1.x509.NoticeReference;
+import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import com.test.metrics.MetricsRegistry;
+import com.test.model.Money;
+import com.test.model.Stock;
+import com.test.model.User;
+import com.test.ratelimit.EndpointClass;
+import com.test.ratelimit.RateLimited;
+import com.test.repository.StockRepository;
+import com.test.repository.UserRepository;
+import com.test.service.HolderIndexService;
+import com.test.service.IdempotencyService;
+import com.test.service.LedgerArchiveService;
+import com.test.service.LedgerExportService;
+import com.test.service.LedgerService;
+import com.test.service.NotificationService;
+import com.test.service.QuoteService;
+import com.test.service.SymbolIndexService;
+import com.test.service.ValuationService;
+
+@CrossOrigin(origins = "http://localhost:3000", allowedHeaders = "*")
+@RestController
+@RequestMapping("/api/stocks")
+public class PortfolioController {
+
+    @Autowired private StockRepository stockRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private NotificationService notificationService;
+    @Autowired private IdempotencyService idempotencyService;
+    @Autowired private LedgerService ledgerService;
+    @Autowired private HolderIndexService holderIndexService;
+    @Autowired private LedgerExportService ledgerExportService;
+    @Autowired private LedgerArchiveService ledgerArchiveService;
+    @Autowired private QuoteService quoteService;
+    @Autowired private SymbolIndexService symbolIndexService;
+    @Autowired private ValuationService valuationService;
+    @Autowired private MetricsRegistry metrics;
+
+    private static final Pattern SYMBOL_PATTERN = Pattern.compile("[A-Za-z0-9.:\\-]{1,20}");
+
+    @Value("${quotes.batch.max-symbols:100}")
+    private int maxBatchSymbols;
+
+    private User getAuthenticatedUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    // ------------------------------------------------------------
+    // 1. GET HISTORY (List of every single transaction, archived ones included)
+    // ------------------------------------------------------------
+    @GetMapping("/history")
+    public List<Stock> getTradeHistory() {
+        User user = getAuthenticatedUser();
+        // Hot rows minus CLOSED summaries, plus the raw trades those summaries replaced
+        LedgerArchiveService.Archived archived = ledgerArchiveService.read(user.getUserId());
+        List<Stock> allTransactions = new ArrayList<>();
+        for (Stock s : stockRepository.findByUserId(user.getUserId())) {
+            if (archived.isVisible(s)) allTransactions.add(s);
+        }
+        allTransactions.addAll(archived.trades());
+        metrics.observe("ledger_size_trades", allTransactions.size(), MetricsRegistry.SIZE_BUCKETS, "endpoint", "history");
+        
+        // Sort Newest First
+        allTransactions.sort((s1, s2) -> {
+            long t1 = s1.getTimestamp() != null ? s1.getTimestamp() : 0;
+            long t2 = s2.getTimestamp() != null ? s2.getTimestamp() : 0;
+            return Long.compare(t2, t1);
+        });
+        
+        return allTransactions;
+    }
+
+    // ------------------------------------------------------------
+    // 1b. EXPORT (whole ledger, streamed page by page; ?format=csv|columnar)
+    // ------------------------------------------------------------
+    @RateLimited(EndpointClass.EXPORT)
+    @GetMapping("/export")
+    public void exportTrades(@RequestParam(defaultValue = LedgerExportService.CSV) String format,
+                             HttpServletResponse response) throws IOException {
+        User user = getAuthenticatedUser();
+        String fileName = "trades-" + LocalDate.now();
+
+        if (LedgerExportService.CSV.equalsIgnoreCase(format)) {
+            response.setContentType("text/csv; charset=UTF-8");
+            response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + ".csv\"");
+            ledgerExportService.writeCsv(user.getUserId(), response.getOutputStream());
+        } else if (LedgerExportService.COLUMNAR.equalsIgnoreCase(format)) {
+            response.setContentType("application/octet-stream");
+            response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + ".col.gz\"");
+            ledgerExportService.writeColumnar(user.getUserId(), response.getOutputStream());
+        } else {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "format must be csv or columnar");
+        }
+    }
+
+    // ------------------------------------------------------------
+    // 2. CURRENT HOLDINGS (Aggregation Logic)
+    // ------------------------------------------------------------
+    @RateLimited(EndpointClass.VALUATION)
+    @GetMapping
+    public List<Stock> getMyStocks() {
+        User user = getAuthenticatedUser();
+        List<Stock> transactions = stockRepository.findByUserId(user.getUserId());
+        metrics.observe("ledger_size_trades", transactions.size(), MetricsRegistry.SIZE_BUCKETS, "endpoint", "holdings");
+
+        // Average-cost replay per symbol, priced with one batched quote lookup (same numbers as the summary)
+        return valuationService.valuate(transactions, "holdings").getHoldings();
+    }
+
+    // ------------------------------------------------------------
+    // 3. BUY STOCK
+    // ------------------------------------------------------------
+    @RateLimited(EndpointClass.TRADE_WRITE)
+    @PostMapping
+    public ResponseEntity<?> addStock(@RequestBody Stock stock,
+                                      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        User user = getAuthenticatedUser();
+        if (stock.getSymbol() == null || !symbolIndexService.isKnown(stock.getSymbol().trim())) {
+            return ResponseEntity.badRequest().body("Unknown symbol: " + stock.getSymbol());
+        }
+        stock.setSymbol(stock.getSymbol().trim());
+        // Retries with the same key get the original response back instead of a second BUY
+        return idempotencyService.execute(user.getUserId(), idempotencyKey, stock, () -> ResponseEntity.ok(buy(stock, user)));
+    }
+
+    private Stock buy(Stock stock, User user) {
+        stock.setUserId(user.getUserId());
+        stock.setType("BUY");
+        
+        // --- FIX: Force Symbol to Uppercase ---
+        if (stock.getSymbol() != null) {
+            stock.setSymbol(stock.getSymbol().toUpperCase());
+        }
+        
+        stock.setTimestamp(System.currentTimeMillis());
+
+        if (stock.getTradeDate() == null) {
+            stock.setTradeDate(LocalDate.now().toString());
+        }
+
+        // Fetch price if not provided
+        if (stock.getPurchasePriceMicros() == 0 || stock.getCurrentPriceMicros() == 0) {
+            try {
+                // Use the uppercase symbol for API call
+                Map<String, Object> quote = quoteService.getFreshQuote(stock.getSymbol());
+                if (quote != null && quote.get("c") != null) {
+                    long price = Money.ofDouble(Double.parseDouble(quote.get("c").toString()));
+                    if (stock.getPurchasePriceMicros() == 0) stock.setPurchasePriceMicros(price);
+                    if (stock.getCurrentPriceMicros() == 0) stock.setCurrentPriceMicros(price);
+                }
+            } catch (Exception e) {
+                metrics.increment("quote_fallback_total", "endpoint", "buy", "fallback", "none");
+            }
+        }
+
+        stock.setGainLossMicros(0);
+        Stock saved = stockRepository.save(stock);
+        holderIndexService.recordHolder(user.getUserId(), saved.getSymbol());
+        notificationService.notifyTrade(saved, user.getEmail());
+        return saved;
+    }
+    
+
+    // ------------------------------------------------------------
+    // 4. SELL STOCK
+    // ------------------------------------------------------------
+    static class SellRequest {
+        public String symbol;
+        public int quantity;
+        public BigDecimal sellPrice;
+    }
+    
+    @RateLimited(EndpointClass.TRADE_WRITE)
+    @PostMapping("/sell-by-symbol")
+    public ResponseEntity<?> sellStockBySymbol(@RequestBody SellRequest request,
+                                               @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        User user = getAuthenticatedUser();
+        return idempotencyService.execute(user.getUserId(), idempotencyKey, request, () -> sell(request, user));
+    }
+
+    private ResponseEntity<?> sell(SellRequest request, User user) {
+        // --- FIX: Force Symbol to Uppercase ---
+        String upperSymbol = request.symbol.toUpperCase();
+        
+        // Position from the newest ledger checkpoint + the trades after it
+        LedgerService.Position position = ledgerService.getCurrentPosition(user.getUserId(), upperSymbol);
+        int netOwned = position.getQuantity();
+
+        // A held symbol stays sellable even if it has since left the exchange list
+        if (netOwned == 0 && !symbolIndexService.isKnown(upperSymbol)) {
+            return ResponseEntity.badRequest().body("Unknown symbol: " + request.symbol);
+        }
+        if (netOwned < request.quantity) {
+            return ResponseEntity.badRequest().body("Insufficient shares. You own " + netOwned);
+        }
+
+        // Create SELL Record
+        Stock sellRecord = new Stock();
+        sellRecord.setUserId(user.getUserId());
+        sellRecord.setSymbol(upperSymbol); // Use Uppercase
+        sellRecord.setType("SELL");
+        sellRecord.setQuantity(request.quantity);
+        sellRecord.setPurchasePriceMicros(request.sellPrice != null ? Money.of(request.sellPrice) : 0); 
+        sellRecord.setTimestamp(System.currentTimeMillis());
+        sellRecord.setTradeDate(LocalDate.now().toString());
+
+        // Same average-cost rule the ledger replay uses, so edits later recompute to the same value
+        long realizedPnL = position.apply(sellRecord);
+        
+        sellRecord.setGainLossMicros(realizedPnL);
+      
+        Stock saved = stockRepository.save(sellRecord);
+        holderIndexService.update(user.getUserId(), upperSymbol, position.getQuantity());
+        notificationService.notifyTrade(saved, user.getEmail());
+        return ResponseEntity.ok("Sold " + request.quantity + " shares of " + request.symbol);
+    }
+ 
+    // ------------------------------------------------------------
+    // 5. DELETE TRANSACTION
+    // ------------------------------------------------------------
+    @RateLimited(EndpointClass.TRADE_WRITE)
+    @DeleteMapping("/{stockId}")
+    public ResponseEntity<?> deleteStock(@PathVariable String stockId) {
+        Optional<Stock> existing = stockRepository.findById(stockId);
+        // Someone else's trade is reported as missing, so ids cannot be probed
+        if (existing.isPresent() && existing.get().getUserId().equals(getAuthenticatedUser().getUserId())) {
+            // CLOSED rows stand in for archived trades; SPLIT / DIVIDEND rows come from corporate actions
+            if (!"BUY".equalsIgnoreCase(existing.get().getType()) && !"SELL".equalsIgnoreCase(existing.get().getType())) {
+                return ResponseEntity.badRequest().body("Only BUY and SELL transactions can be deleted, not "
+                        + existing.get().getType());
+            }
+            stockRepository.deleteById(stockId);
+            // Later SELLs of this symbol were priced against the deleted trade
+            LedgerService.Position position = ledgerService.recomputeAfterDelete(existing.get());
+            // Deleting a SELL can reopen a closed position
+            holderIndexService.update(existing.get().getUserId(), existing.get().getSymbol(), position.getQuantity());
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+    
+    // ------------------------------------------------------------
+    // 6. LIVE PRICE
+    // ------------------------------------------------------------
+    @RateLimited(EndpointClass.VALUATION)
+    @GetMapping("/price/{symbol}")
+    public ResponseEntity<Double> getCurrentPrice(@PathVariable String symbol) {
+        try {
+            Map<String, Object> quote = quoteService.getQuote(symbol.toUpperCase());
+            if (quote != null && quote.get("c") != null) {
+                return ResponseEntity.ok(Double.parseDouble(quote.get("c").toString()));
+            }
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // ------------------------------------------------------------
+    // 6a. SYMBOL SEARCH (autocomplete, answered from the in-memory index)
+    // ------------------------------------------------------------
+    @GetMapping("/search")
+    public List<Map<String, String>> searchSymbols(@RequestParam("q") String query,
+                                                   @RequestParam(defaultValue = "10") int limit) {
+        return symbolIndexService.search(query, Math.min(Math.max(limit, 1), 50));
+    }
+
+    // ------------------------------------------------------------
+    // 6b. LIVE PRICES (many symbols, one round trip)
+    // ------------------------------------------------------------
+    // GET /api/stocks/prices?symbols=AAPL,MSFT,NVDA
+    // -> { "AAPL": { "price": 189.2, "asOf": 1718000000000, "ageMs": 840, "stale": false }, "XYZ": { "price": null, ... } }
+    @RateLimited(EndpointClass.VALUATION)
+    @GetMapping("/prices")
+    public ResponseEntity<?> getCurrentPrices(@RequestParam List<String> symbols) {
+        List<String> requested = new ArrayList<>();
+        for (String symbol : symbols) {
+            String s = symbol.trim();
+            if (s.isEmpty()) continue;
+            if (!SYMBOL_PATTERN.matcher(s).matches()) {
+                return ResponseEntity.badRequest().body("Invalid symbol: " + s);
+            }
+            requested.add(s.toUpperCase());
+        }
+        if (requested.isEmpty()) {
+            return ResponseEntity.badRequest().body("At least one symbol is required");
+        }
+        if (requested.size() > maxBatchSymbols) {
+            return ResponseEntity.badRequest().body("At most " + maxBatchSymbols + " symbols per request");
+        }
+
+        metrics.observe("quote_batch_symbols", requested.size(), MetricsRegistry.SIZE_BUCKETS);
+        Map<String, Map<String, Object>> prices = new LinkedHashMap<>();
+        quoteService.getQuotes(requested).forEach((symbol, cached) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            Object price = cached != null ? cached.getQuote().get("c") : null;
+            entry.put("price", price != null ? Double.parseDouble(price.toString()) : null);
+            entry.put("asOf", cached != null ? cached.getFetchedAt() : null);
+            entry.put("ageMs", cached != null ? cached.getAgeMs() : null);
+            entry.put("stale", cached == null || cached.getAgeMs() > quoteService.getTtlMs());
+            prices.put(symbol, entry);
+        });
+        return ResponseEntity.ok(prices);
+    }
+    
+    
+ // ------------------------------------------------------------
+    // 5. UPDATE TRANSACTION
+    // ------------------------------------------------------------
+ // ------------------------------------------------------------
+    // 5. UPDATE TRANSACTION
+    // ------------------------------------------------------------
+    @RateLimited(EndpointClass.TRADE_WRITE)
+    @PutMapping("/{stockId}")
+    public ResponseEntity<?> updateStock(@PathVariable String stockId, @RequestBody Stock updated) {
+        return stockRepository.findById(stockId)
+                .<ResponseEntity<?>>map(existing -> {
+                    if (!existing.getUserId().equals(getAuthenticatedUser().getUserId())) {
+                        throw new RuntimeException("Unauthorized");
+                    }
+                    // Split / dividend adjustments come from corporate actions; CLOSED rows stand in for archived trades
+                    if (!"BUY".equalsIgnoreCase(existing.getType()) && !"SELL".equalsIgnoreCase(existing.getType())) {
+                        return ResponseEntity.badRequest().body("Only BUY and SELL transactions can be edited, not "
+                                + existing.getType() + ". Adjustments are recomputed by re-running their corporate action.");
+                    }
+
+                    // Same rules as addStock; the trade's own symbol stays valid even if it left the index
+                    String symbol = updated.getSymbol() != null ? updated.getSymbol().trim().toUpperCase() : "";
+                    if (symbol.isEmpty() || (!symbol.equalsIgnoreCase(existing.getSymbol()) && !symbolIndexService.isKnown(symbol))) {
+                        return ResponseEntity.badRequest().body("Unknown symbol: " + updated.getSymbol());
+                    }
+
+                    // Kept so the old symbol's timeline can be repaired if the symbol changes
+                    Stock before = new Stock();
+                    before.setStockId(existing.getStockId());
+                    before.setSymbol(existing.getSymbol());
+                    before.setTimestamp(existing.getTimestamp());
+
+                    // 1. Update Basic Fields
+                    existing.setSymbol(symbol);
+                    existing.setTradeDate(updated.getTradeDate());
+                    
+                    // 2. Logic depends on Transaction Type
+                    if ("BUY".equalsIgnoreCase(existing.getType())) {
+                        // --- UPDATING A BUY ---
+                        existing.setQuantity(updated.getQuantity());
+                        existing.setPurchasePriceMicros(updated.getPurchasePriceMicros());
+                        
+                        // Recalculate Unrealized PnL (Current Value - New Cost)
+                        long totalValue = Money.times(existing.getCurrentPriceMicros(), existing.getQuantity());
+                        long totalCost = Money.times(existing.getPurchasePriceMicros(), existing.getQuantity());
+                        existing.setGainLossMicros(totalValue - totalCost);
+                        
+                    } else {
+                        // --- UPDATING A SELL ---
+                        // Realized PnL is recomputed by the ledger replay below
+                        existing.setQuantity(updated.getQuantity());
+                        existing.setPurchasePriceMicros(updated.getPurchasePriceMicros()); // New Sell Price
+                    }
+
+                    Stock saved = stockRepository.save(existing);
+
+                    // 3. Replay from the nearest checkpoint before this trade.
+                    // Fixes the realized PnL of this SELL and of every later SELL of the symbol.
+                    if (before.getSymbol() != null && !before.getSymbol().equalsIgnoreCase(saved.getSymbol())) {
+                        LedgerService.Position old = ledgerService.recomputeAfterRemoval(saved.getUserId(), before.getSymbol(), before);
+                        holderIndexService.update(saved.getUserId(), before.getSymbol(), old.getQuantity());
+                    }
+                    // Any edit can open or close the position (e.g. a SELL edited to fewer shares)
+                    LedgerService.Position position = ledgerService.recomputeAfterChange(saved);
+                    holderIndexService.update(saved.getUserId(), saved.getSymbol(), position.getQuantity());
+
+                    return ResponseEntity.ok(saved);
+                })
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
 }
\ No newline at end of file
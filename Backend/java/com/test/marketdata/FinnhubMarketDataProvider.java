@@ -0,0 +1,44 @@
+package com.test.marketdata;
+
+import com.test.client.FinnhubClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/** Live data from the Finnhub REST API (market-data.provider=finnhub, the default). */
+@Component
+@ConditionalOnProperty(name = "market-data.provider", havingValue = "finnhub", matchIfMissing = true)
+public class FinnhubMarketDataProvider implements MarketDataProvider {
+
+    private final FinnhubClient finnhubClient;
+
+    @Value("${finnhub.api.key:}")
+    private String apiKey;
+
+    public FinnhubMarketDataProvider(FinnhubClient finnhubClient) {
+        this.finnhubClient = finnhubClient;
+    }
+
+    @Override
+    public Map<String, Object> getQuote(String symbol) {
+        return finnhubClient.getQuote(symbol, apiKey);
+    }
+
+    @Override
+    public Map<String, Object> getCandles(String symbol, String resolution, long from, long to) {
+        return finnhubClient.getCandles(symbol, resolution, String.valueOf(from), String.valueOf(to), apiKey);
+    }
+
+    @Override
+    public List<Map<String, Object>> getSymbols(String exchange) {
+        return finnhubClient.getSymbols(exchange, apiKey);
+    }
+
+    @Override
+    public String name() {
+        return "finnhub";
+    }
+}
@@ -0,0 +1,180 @@
+package com.test.marketdata;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+* Seeded geometric Brownian motion prices, reproducible from (seed, symbol, time) alone.
+* Daily closes are one GBM step per trading day (Mon-Fri) from the start date. Intraday prices are a
+* Brownian bridge from the previous close to the day's close, reached in the day's last tick, so a quote
+* at the end of a day equals that day's candle. The same seed gives the same prices on every machine and
+* every run, so the per-symbol caches are bounded and simply rebuilt when an evicted symbol comes back.
+*/
+public final class GbmSimulator {
+
+    public static final long DAY_MS = 86_400_000L;
+    private static final double TRADING_DAYS_PER_YEAR = 252;
+
+    // A daily path is ~8 bytes per day since the start date (~35 KB for ten years)
+    private static final int MAX_CACHED_SYMBOLS = 1_000;
+
+    private final long seed;
+    private final double dailyDrift;
+    private final double dailyVolatility;
+    private final long startDay;
+    private final long tickMs;
+    private final int stepsPerDay;
+
+    // Log closes per symbol, index = epochDay - startDay (weekends repeat Friday)
+    private final Map<String, double[]> dailyPaths = new ConcurrentHashMap<>();
+    private final Map<String, Cursor> cursors = new ConcurrentHashMap<>();
+
+    /** Receives generated ticks; symbol is the index into the list given to emit(). */
+    @FunctionalInterface
+    public interface TickSink {
+        void accept(int symbol, long timeMillis, double price);
+    }
+
+    /** Where the intraday bridge of one symbol stopped, so monotonic quotes only step forward. */
+    private static final class Cursor {
+        long day = Long.MIN_VALUE;
+        int step;
+        double x;
+        SplittableRandom random;
+    }
+
+    /**
+    * @param drift      annual drift (0.07 = 7%)
+    * @param volatility annual volatility (0.3 = 30%)
+    * @param start      first simulated day; earlier days get the starting price
+    * @param tickMs     intraday step of quotes
+    */
+    public GbmSimulator(long seed, double drift, double volatility, LocalDate start, long tickMs) {
+        this.seed = seed;
+        this.dailyDrift = (drift - volatility * volatility / 2) / TRADING_DAYS_PER_YEAR;
+        this.dailyVolatility = volatility / Math.sqrt(TRADING_DAYS_PER_YEAR);
+        this.startDay = start.toEpochDay();
+        this.tickMs = Math.max(1, Math.min(tickMs, DAY_MS));
+        this.stepsPerDay = (int) (DAY_MS / this.tickMs);
+    }
+
+    public static boolean isTradingDay(long epochDay) {
+        DayOfWeek dow = LocalDate.ofEpochDay(epochDay).getDayOfWeek();
+        return dow != DayOfWeek.SATURDAY && dow != DayOfWeek.SUNDAY;
+    }
+
+    /** Close of the epoch day (the last trading day's close on weekends). */
+    public double closeOn(String symbol, long epochDay) {
+        return Math.exp(logClose(symbol, epochDay));
+    }
+
+    /** Price at an instant: the intraday bridge on trading days, the last close otherwise. */
+    public double priceAt(String symbol, long epochMillis) {
+        long day = Math.floorDiv(epochMillis, DAY_MS);
+        if (day < startDay || !isTradingDay(day)) {
+            return closeOn(symbol, day);
+        }
+        // The tick in progress counts as taken, so the last tick of the day is the close itself
+        int step = (int) Math.min(stepsPerDay, (epochMillis - day * DAY_MS) / tickMs + 1);
+        double target = logClose(symbol, day);
+
+        Cursor cursor = cursors.get(symbol);
+        if (cursor == null) {
+            bound(cursors);
+            cursor = cursors.computeIfAbsent(symbol, s -> new Cursor());
+        }
+        synchronized (cursor) {
+            if (cursor.day != day || cursor.step > step) {
+                cursor.day = day;
+                cursor.step = 0;
+                cursor.x = logClose(symbol, day - 1);
+                cursor.random = new SplittableRandom(mix(symbolSeed(symbol), day));
+            }
+            double stepVariance = dailyVolatility * dailyVolatility / stepsPerDay;
+            while (cursor.step < step) {
+                int remaining = stepsPerDay - cursor.step;
+                cursor.x += (target - cursor.x) / remaining
+                        + Math.sqrt(stepVariance * (remaining - 1) / remaining) * cursor.random.nextGaussian();
+                cursor.step++;
+            }
+            return Math.exp(cursor.x);
+        }
+    }
+
+    /**
+    * Plain GBM ticks at full speed for load and benchmark runs: round-robin over the symbols, one tick per
+    * symbol every tickMs from startMillis, each starting at its priceAt(startMillis). Returns the ticks emitted.
+    */
+    public long emit(List<String> symbols, long startMillis, long ticks, TickSink sink) {
+        int n = symbols.size();
+        if (n == 0) return 0;
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = Math.log(priceAt(symbols.get(i), startMillis));
+        }
+        double drift = dailyDrift / stepsPerDay;
+        double vol = dailyVolatility / Math.sqrt(stepsPerDay);
+        SplittableRandom random = new SplittableRandom(mix(seed, startMillis));
+
+        long time = startMillis;
+        int s = 0;
+        for (long i = 0; i < ticks; i++) {
+            x[s] += drift + vol * random.nextGaussian();
+            sink.accept(s, time, Math.exp(x[s]));
+            if (++s == n) {
+                s = 0;
+                time += tickMs;
+            }
+        }
+        return ticks;
+    }
+
+    // --- Daily path ---
+
+    private double logClose(String symbol, long epochDay) {
+        int index = (int) Math.max(0, epochDay - startDay);
+        double[] path = dailyPaths.get(symbol);
+        if (path == null || index >= path.length) {
+            // Regenerated from the start with the same seed, so the prefix never changes; a year of headroom
+            path = dailyPath(symbol, index + 366);
+            if (!dailyPaths.containsKey(symbol)) bound(dailyPaths);
+            dailyPaths.put(symbol, path);
+        }
+        return path[index];
+    }
+
+    private double[] dailyPath(String symbol, int days) {
+        SplittableRandom random = new SplittableRandom(symbolSeed(symbol));
+        double[] path = new double[days];
+        path[0] = Math.log(20 + random.nextDouble() * 480);
+        for (int i = 1; i < days; i++) {
+            path[i] = isTradingDay(startDay + i)
+                    ? path[i - 1] + dailyDrift + dailyVolatility * random.nextGaussian()
+                    : path[i - 1];
+        }
+        return path;
+    }
+
+    // Any symbol can be asked for (e.g. a chart of a typo), so drop arbitrary entries once full
+    private static void bound(Map<String, ?> cache) {
+        if (cache.size() < MAX_CACHED_SYMBOLS) return;
+        Iterator<String> it = cache.keySet().iterator();
+        while (cache.size() >= MAX_CACHED_SYMBOLS && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private long symbolSeed(String symbol) {
+        return mix(seed, symbol.hashCode());
+    }
+
+    private static long mix(long a, long b) {
+        return new SplittableRandom(a ^ (b * 0x9E3779B97F4A7C15L)).nextLong();
+    }
+}
@@ -0,0 +1,24 @@
+package com.test.marketdata;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+* Source of quotes, daily candles and the exchange symbol list. Responses keep the Finnhub JSON shape,
+* so callers don't care which implementation market-data.provider selected:
+* finnhub (default, live API), replay (recorded ticks from a file) or simulated (seeded GBM, no network).
+*/
+public interface MarketDataProvider {
+
+    /** Quote with "c" = current price (plus "pc" previous close, "t" epoch seconds where known). Empty map if there is no price. */
+    Map<String, Object> getQuote(String symbol);
+
+    /** Candles between two epoch-second instants: "s" ("ok" / "no_data"), "c" closes and "t" epoch seconds, oldest first. */
+    Map<String, Object> getCandles(String symbol, String resolution, long from, long to);
+
+    /** Symbol rows (symbol, description, ...) of an exchange; empty if the provider has no list. */
+    List<Map<String, Object>> getSymbols(String exchange);
+
+    /** "finnhub", "replay" or "simulated", for logs and metrics. */
+    String name();
+}
@@ -0,0 +1,241 @@
+package com.test.marketdata;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+* Plays back recorded ticks from a file (market-data.provider=replay), market-data.replay.speed times faster
+* than they were recorded, looping at the end. The recording is shifted so that the replay position is "now":
+* quotes are the last tick at or before it, and daily candles end today.
+*
+* File: one tick per line, "epochMillis,SYMBOL,price"; blank lines, lines starting with '#' and a header are skipped.
+*/
+@Component
+@ConditionalOnProperty(name = "market-data.provider", havingValue = "replay")
+public class ReplayMarketDataProvider implements MarketDataProvider {
+    private static final Logger logger = LoggerFactory.getLogger(ReplayMarketDataProvider.class);
+
+    private static final long DAY_MS = GbmSimulator.DAY_MS;
+
+    @Value("${market-data.replay.file:./data/ticks.csv}")
+    private String file;
+
+    @Value("${market-data.replay.speed:1.0}")
+    private double speed;
+
+    @Value("${market-data.replay.loop:true}")
+    private boolean loop;
+
+    private Map<String, Series> series = Collections.emptyMap();
+    private long recordingStart;
+    private long recordingEnd;
+    private long startedAt;
+
+    /** Ticks of one symbol in time order, plus the index of the last tick of every recorded day. */
+    private static final class Series {
+        long[] times = new long[64];
+        double[] prices = new double[64];
+        int size;
+        long[] days;
+        int[] dayEnds;
+
+        void add(long time, double price) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                prices = Arrays.copyOf(prices, size * 2);
+            }
+            times[size] = time;
+            prices[size] = price;
+            size++;
+        }
+
+        void seal() {
+            sortIfNeeded();
+            times = Arrays.copyOf(times, size);
+            prices = Arrays.copyOf(prices, size);
+            long[] d = new long[size];
+            int[] ends = new int[size];
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                long day = Math.floorDiv(times[i], DAY_MS);
+                if (n > 0 && d[n - 1] == day) {
+                    ends[n - 1] = i;
+                } else {
+                    d[n] = day;
+                    ends[n++] = i;
+                }
+            }
+            days = Arrays.copyOf(d, n);
+            dayEnds = Arrays.copyOf(ends, n);
+        }
+
+        private void sortIfNeeded() {
+            for (int i = 1; i < size; i++) {
+                if (times[i] < times[i - 1]) {
+                    Integer[] order = new Integer[size];
+                    for (int j = 0; j < size; j++) order[j] = j;
+                    Arrays.sort(order, Comparator.comparingLong(j -> times[j]));
+                    long[] t = new long[size];
+                    double[] p = new double[size];
+                    for (int j = 0; j < size; j++) {
+                        t[j] = times[order[j]];
+                        p[j] = prices[order[j]];
+                    }
+                    times = t;
+                    prices = p;
+                    return;
+                }
+            }
+        }
+
+        // Index of the last tick at or before time, or -1
+        int lastAtOrBefore(long time) {
+            int lo = 0, hi = size - 1, found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (times[mid] <= time) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return found;
+        }
+    }
+
+    @PostConstruct
+    public void load() throws IOException {
+        Path path = Paths.get(file);
+        Map<String, Series> loaded = new HashMap<>();
+        long first = Long.MAX_VALUE, last = Long.MIN_VALUE;
+        long lines = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                if (line.isBlank() || line.charAt(0) == '#') continue;
+                int c1 = line.indexOf(',');
+                int c2 = c1 < 0 ? -1 : line.indexOf(',', c1 + 1);
+                if (c2 < 0) continue;
+                long time;
+                double price;
+                try {
+                    time = Long.parseLong(line.substring(0, c1).trim());
+                    price = Double.parseDouble(line.substring(c2 + 1).trim());
+                } catch (NumberFormatException e) {
+                    if (lines == 1) continue; // header
+                    throw new IOException("Bad tick at " + path + ":" + lines + ": " + line);
+                }
+                String symbol = line.substring(c1 + 1, c2).trim().toUpperCase();
+                loaded.computeIfAbsent(symbol, s -> new Series()).add(time, price);
+                first = Math.min(first, time);
+                last = Math.max(last, time);
+            }
+        }
+        if (loaded.isEmpty()) {
+            throw new IOException("No ticks in replay file " + path.toAbsolutePath());
+        }
+        loaded.values().forEach(Series::seal);
+
+        this.series = loaded;
+        this.recordingStart = first;
+        this.recordingEnd = last;
+        this.startedAt = System.currentTimeMillis();
+        logger.info("Replaying {} symbols, {} to {} from {} at {}x", loaded.size(),
+                new Date(first), new Date(last), path.toAbsolutePath(), speed);
+    }
+
+    /** Recording time that corresponds to the wall-clock instant now. */
+    long replayTime(long now) {
+        long elapsed = (long) ((now - startedAt) * speed);
+        long length = recordingEnd - recordingStart;
+        if (length <= 0) return recordingEnd;
+        return loop ? recordingStart + Math.floorMod(elapsed, length + 1) : Math.min(recordingEnd, recordingStart + elapsed);
+    }
+
+    @Override
+    public Map<String, Object> getQuote(String symbol) {
+        Series s = series.get(symbol.toUpperCase());
+        if (s == null) return Collections.emptyMap();
+        long now = System.currentTimeMillis();
+        long replay = replayTime(now);
+        int i = s.lastAtOrBefore(replay);
+        if (i < 0) return Collections.emptyMap();
+
+        Map<String, Object> quote = new HashMap<>();
+        quote.put("c", s.prices[i]);
+        int prev = s.lastAtOrBefore(Math.floorDiv(replay, DAY_MS) * DAY_MS - 1);
+        if (prev >= 0) quote.put("pc", s.prices[prev]);
+        quote.put("t", now / 1000);
+        return quote;
+    }
+
+    @Override
+    public Map<String, Object> getCandles(String symbol, String resolution, long from, long to) {
+        Map<String, Object> candles = new HashMap<>();
+        Series s = series.get(symbol.toUpperCase());
+        if (s == null || !"D".equals(resolution)) {
+            candles.put("s", "no_data");
+            return candles;
+        }
+
+        long now = System.currentTimeMillis();
+        long replay = replayTime(now);
+        long replayDay = Math.floorDiv(replay, DAY_MS);
+        // Recorded day replayDay is shown as today
+        long shift = Math.floorDiv(now, DAY_MS) - replayDay;
+        long fromDay = Math.floorDiv(from, 86_400L) - shift;
+        long toDay = Math.min(replayDay, Math.floorDiv(to, 86_400L) - shift);
+
+        List<Double> closes = new ArrayList<>();
+        List<Long> timestamps = new ArrayList<>();
+        int d = Arrays.binarySearch(s.days, fromDay);
+        for (d = d >= 0 ? d : -d - 1; d < s.days.length && s.days[d] <= toDay; d++) {
+            int close = s.dayEnds[d];
+            if (s.days[d] == replayDay) {
+                // Today is still being replayed: close = latest tick so far
+                close = s.lastAtOrBefore(replay);
+                if (close < 0 || s.times[close] < replayDay * DAY_MS) break;
+            }
+            closes.add(s.prices[close]);
+            timestamps.add((s.days[d] + shift) * 86_400L);
+        }
+
+        candles.put("s", closes.isEmpty() ? "no_data" : "ok");
+        candles.put("c", closes);
+        candles.put("t", timestamps);
+        return candles;
+    }
+
+    @Override
+    public List<Map<String, Object>> getSymbols(String exchange) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (String symbol : new TreeSet<>(series.keySet())) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("symbol", symbol);
+            row.put("description", "REPLAY " + symbol);
+            row.put("type", "Common Stock");
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Override
+    public String name() {
+        return "replay";
+    }
+}
@@ -0,0 +1,94 @@
+package com.test.marketdata;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+* Offline market data from a seeded GBM (market-data.provider=simulated): every symbol has a price,
+* the same seed gives the same quotes and candles on every run, and nothing touches the network.
+*/
+@Component
+@ConditionalOnProperty(name = "market-data.provider", havingValue = "simulated")
+public class SimulatedMarketDataProvider implements MarketDataProvider {
+
+    private final GbmSimulator simulator;
+    private final List<String> symbols;
+
+    public SimulatedMarketDataProvider(@Value("${market-data.simulated.seed:42}") long seed,
+                                       @Value("${market-data.simulated.drift:0.07}") double drift,
+                                       @Value("${market-data.simulated.volatility:0.3}") double volatility,
+                                       @Value("${market-data.simulated.start-date:2015-01-01}") String startDate,
+                                       @Value("${market-data.simulated.tick-ms:1000}") long tickMs,
+                                       @Value("${market-data.simulated.symbols:}") List<String> symbols) {
+        this.simulator = new GbmSimulator(seed, drift, volatility, LocalDate.parse(startDate), tickMs);
+        this.symbols = symbols;
+    }
+
+    public GbmSimulator getSimulator() {
+        return simulator;
+    }
+
+    @Override
+    public Map<String, Object> getQuote(String symbol) {
+        String key = symbol.toUpperCase();
+        long now = System.currentTimeMillis();
+        long today = Math.floorDiv(now, GbmSimulator.DAY_MS);
+
+        Map<String, Object> quote = new HashMap<>();
+        quote.put("c", cents(simulator.priceAt(key, now)));
+        quote.put("pc", cents(simulator.closeOn(key, today - 1)));
+        quote.put("t", now / 1000);
+        return quote;
+    }
+
+    @Override
+    public Map<String, Object> getCandles(String symbol, String resolution, long from, long to) {
+        String key = symbol.toUpperCase();
+        long now = System.currentTimeMillis();
+        long today = Math.floorDiv(now, GbmSimulator.DAY_MS);
+        long lastDay = Math.min(today, Math.floorDiv(to, 86_400L));
+
+        List<Double> closes = new ArrayList<>();
+        List<Long> timestamps = new ArrayList<>();
+        for (long day = Math.floorDiv(from, 86_400L); day <= lastDay; day++) {
+            if (!GbmSimulator.isTradingDay(day)) continue;
+            // Today's candle is still open: its close is the current price
+            closes.add(cents(day == today ? simulator.priceAt(key, now) : simulator.closeOn(key, day)));
+            timestamps.add(day * 86_400L);
+        }
+
+        Map<String, Object> candles = new HashMap<>();
+        candles.put("s", closes.isEmpty() ? "no_data" : "ok");
+        candles.put("c", closes);
+        candles.put("t", timestamps);
+        return candles;
+    }
+
+    @Override
+    public List<Map<String, Object>> getSymbols(String exchange) {
+        // No configured list: keep whatever symbol index is loaded (every symbol has a simulated price)
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (String symbol : symbols) {
+            if (symbol.isBlank()) continue;
+            Map<String, Object> row = new HashMap<>();
+            row.put("symbol", symbol.trim().toUpperCase());
+            row.put("description", "SIMULATED " + symbol.trim().toUpperCase());
+            row.put("type", "Common Stock");
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Override
+    public String name() {
+        return "simulated";
+    }
+
+    private static double cents(double price) {
+        return Math.round(price * 100.0) / 100.0;
+    }
+}
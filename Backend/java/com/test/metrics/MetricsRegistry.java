@@ -0,0 +1,175 @@
+package com.test.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+* Minimal in-process metrics: counters, gauges and bucketed histograms,
+* rendered in the Prometheus text exposition format by {@link #scrape()}.
+* Every metric is a family name + label pairs, e.g. increment("finnhub_errors_total", "operation", "quote").
+*/
+@Component
+public class MetricsRegistry {
+
+    // Seconds - external calls range from a few ms (cache/Dynamo) to several seconds (Gemini)
+    public static final double[] LATENCY_BUCKETS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    // Trades per ledger read
+    public static final double[] SIZE_BUCKETS = {10, 50, 100, 500, 1000, 5000, 10000, 50000, 100000};
+
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+
+    // --- Recording ---
+
+    public void increment(String name, String... labels) {
+        family(name, "counter").counter(labels).add(1);
+    }
+
+    public void recordNanos(String name, long nanos, String... labels) {
+        observe(name, nanos / 1e9, LATENCY_BUCKETS, labels);
+    }
+
+    public void observe(String name, double value, double[] buckets, String... labels) {
+        family(name, "histogram").histogram(buckets, labels).observe(value);
+    }
+
+    public void gauge(String name, DoubleSupplier supplier, String... labels) {
+        family(name, "gauge").series.put(labelKey(labels), supplier);
+    }
+
+    /**
+    * Times an outbound call inside a trace span: latency goes to {name}_seconds,
+    * failures to {name}_errors_total. Exceptions are rethrown unchanged.
+    */
+    public <T> T time(String name, Supplier<T> call, String... labels) {
+        Tracing.Span span = Tracing.startSpan(name + labelSuffix(labels));
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            span.end("ok");
+            return result;
+        } catch (RuntimeException e) {
+            increment(name + "_errors_total", labels);
+            span.end("error: " + e.getClass().getSimpleName());
+            throw e;
+        } finally {
+            recordNanos(name + "_seconds", System.nanoTime() - start, labels);
+        }
+    }
+
+    // --- Exposition ---
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Map.Entry<String, Family> entry : new TreeMap<>(families).entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            out.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+
+            for (Map.Entry<String, Object> series : new TreeMap<>(family.series).entrySet()) {
+                String labels = series.getKey();
+                Object metric = series.getValue();
+                if (metric instanceof LongAdder counter) {
+                    sample(out, name, labels, counter.sum());
+                } else if (metric instanceof DoubleSupplier gauge) {
+                    sample(out, name, labels, gauge.getAsDouble());
+                } else if (metric instanceof Histogram histogram) {
+                    histogram.writeTo(out, name, labels);
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) out.append('{').append(labels).append('}');
+        out.append(' ').append(format(value)).append('\n');
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && !Double.isInfinite(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    // --- Internals ---
+
+    private Family family(String name, String type) {
+        return families.computeIfAbsent(name, n -> new Family(type));
+    }
+
+    // "k1=\"v1\",k2=\"v2\"" - label order is kept as given, callers always pass the same order
+    private static String labelKey(String... labels) {
+        if (labels.length == 0) return "";
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i + 1 < labels.length; i += 2) {
+            if (key.length() > 0) key.append(',');
+            String value = labels[i + 1] == null ? "" : labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"");
+            key.append(labels[i]).append("=\"").append(value).append('"');
+        }
+        return key.toString();
+    }
+
+    private static String labelSuffix(String... labels) {
+        return labels.length >= 2 ? "." + labels[1] : "";
+    }
+
+    private static class Family {
+        final String type;
+        final Map<String, Object> series = new ConcurrentHashMap<>();
+
+        Family(String type) {
+            this.type = type;
+        }
+
+        LongAdder counter(String... labels) {
+            return (LongAdder) series.computeIfAbsent(labelKey(labels), k -> new LongAdder());
+        }
+
+        Histogram histogram(double[] buckets, String... labels) {
+            return (Histogram) series.computeIfAbsent(labelKey(labels), k -> new Histogram(buckets));
+        }
+    }
+
+    private static class Histogram {
+        final double[] bounds;
+        final LongAdder[] counts;
+        final LongAdder count = new LongAdder();
+        final DoubleAdder sum = new DoubleAdder();
+
+        Histogram(double[] bounds) {
+            this.bounds = bounds;
+            this.counts = new LongAdder[bounds.length];
+            for (int i = 0; i < bounds.length; i++) counts[i] = new LongAdder();
+        }
+
+        void observe(double value) {
+            for (int i = 0; i < bounds.length; i++) {
+                if (value <= bounds[i]) {
+                    counts[i].increment();
+                    break;
+                }
+            }
+            count.increment();
+            sum.add(value);
+        }
+
+        void writeTo(StringBuilder out, String name, String labels) {
+            String prefix = labels.isEmpty() ? "" : labels + ",";
+            long cumulative = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                cumulative += counts[i].sum();
+                sample(out, name + "_bucket", prefix + "le=\"" + format(bounds[i]) + "\"", cumulative);
+            }
+            sample(out, name + "_bucket", prefix + "le=\"+Inf\"", count.sum());
+            sample(out, name + "_sum", labels, sum.sum());
+            sample(out, name + "_count", labels, count.sum());
+        }
+    }
+}
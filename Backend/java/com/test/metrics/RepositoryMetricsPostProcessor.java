@@ -0,0 +1,76 @@
+package com.test.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+* Wraps every Spring Data repository bean so each call (findByUserId, save, ...) is timed as
+* repository_call_seconds{repository, method} and failures are counted, without touching callers.
+*/
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    // Lazy: a BeanPostProcessor must not force its dependencies to initialize early
+    private final ObjectProvider<MetricsRegistry> metrics;
+
+    public RepositoryMetricsPostProcessor(ObjectProvider<MetricsRegistry> metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof Repository<?, ?>) || Proxy.isProxyClass(bean.getClass()) && Proxy.getInvocationHandler(bean) instanceof Timed) {
+            return bean;
+        }
+        String repository = repositoryName(bean.getClass());
+        return Proxy.newProxyInstance(bean.getClass().getClassLoader(), bean.getClass().getInterfaces(), new Timed(bean, repository));
+    }
+
+    private static String repositoryName(Class<?> type) {
+        for (Class<?> i : type.getInterfaces()) {
+            if (Repository.class.isAssignableFrom(i) && i.getName().startsWith("com.test.")) {
+                return i.getSimpleName();
+            }
+        }
+        return type.getSimpleName();
+    }
+
+    private class Timed implements InvocationHandler {
+        private final Object target;
+        private final String repository;
+
+        Timed(Object target, String repository) {
+            this.target = target;
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(target, args);
+            }
+            MetricsRegistry registry = metrics.getObject();
+            Tracing.Span span = Tracing.startSpan("dynamodb." + repository + "." + method.getName());
+            long start = System.nanoTime();
+            try {
+                Object result = method.invoke(target, args);
+                span.end("ok");
+                return result;
+            } catch (InvocationTargetException e) {
+                registry.increment("repository_call_errors_total", "repository", repository, "method", method.getName());
+                span.end("error: " + e.getCause().getClass().getSimpleName());
+                throw e.getCause();
+            } finally {
+                registry.recordNanos("repository_call_seconds", System.nanoTime() - start,
+                        "repository", repository, "method", method.getName());
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.test.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+* Per-endpoint timer + root trace span for every request.
+* Runs before Spring Security, so the Basic-auth (BCrypt) cost is part of the measured time.
+*/
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final MetricsRegistry metrics;
+
+    public RequestMetricsFilter(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Tracing.Span span = Tracing.startRequest(request.getMethod() + " " + request.getRequestURI(),
+                request.getHeader(Tracing.TRACEPARENT));
+        response.setHeader(Tracing.TRACEPARENT, span.traceparent());
+
+        long start = System.nanoTime();
+        String status = "ok";
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            status = "error: " + e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            // Route template (e.g. /api/stocks/price/{symbol}) keeps the label set small
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            metrics.recordNanos("http_server_requests_seconds", System.nanoTime() - start,
+                    "method", request.getMethod(),
+                    "uri", pattern != null ? pattern.toString() : "UNMAPPED",
+                    "status", String.valueOf(response.getStatus()));
+            span.end(status + " " + response.getStatus());
+        }
+    }
+}
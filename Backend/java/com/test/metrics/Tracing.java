@@ -0,0 +1,112 @@
+package com.test.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+* Lightweight request tracing with W3C trace context ids.
+* The incoming request opens the root span (continuing the caller's traceparent if sent),
+* every outbound call opens a child span, and finished spans are logged to the "tracing"
+* logger with their trace id, span id and parent id so they can be stitched together.
+*/
+public final class Tracing {
+    private static final Logger spanLog = LoggerFactory.getLogger("tracing");
+
+    public static final String TRACEPARENT = "traceparent";
+    public static final String MDC_TRACE_ID = "traceId";
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private Tracing() {}
+
+    public static final class Span {
+        private final String traceId;
+        private final String spanId;
+        private final String parentId;
+        private final String name;
+        private final Span previous;
+        private final long startNanos = System.nanoTime();
+
+        private Span(String traceId, String parentId, String name, Span previous) {
+            this.traceId = traceId;
+            this.spanId = randomHex(16);
+            this.parentId = parentId;
+            this.name = name;
+            this.previous = previous;
+        }
+
+        public String getTraceId() { return traceId; }
+        public String getSpanId() { return spanId; }
+
+        /** W3C header value for calls made inside this span. */
+        public String traceparent() {
+            return "00-" + traceId + "-" + spanId + "-01";
+        }
+
+        public void end(String status) {
+            long micros = (System.nanoTime() - startNanos) / 1000;
+            spanLog.debug("span trace={} span={} parent={} name={} durationUs={} status={}",
+                    traceId, spanId, parentId, name, micros, status);
+
+            if (CURRENT.get() == this) {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                    MDC.remove(MDC_TRACE_ID);
+                }
+            }
+        }
+    }
+
+    /** Root span of an incoming request; continues the caller's trace when a valid traceparent is given. */
+    public static Span startRequest(String name, String traceparent) {
+        String traceId = null;
+        String parentId = null;
+        if (traceparent != null) {
+            String[] parts = traceparent.trim().split("-");
+            if (parts.length == 4 && parts[1].length() == 32 && parts[2].length() == 16) {
+                traceId = parts[1];
+                parentId = parts[2];
+            }
+        }
+        if (traceId == null) {
+            traceId = randomHex(32);
+        }
+        Span span = new Span(traceId, parentId, name, null);
+        CURRENT.set(span);
+        MDC.put(MDC_TRACE_ID, traceId);
+        return span;
+    }
+
+    /** Child of the current span, or a new trace when called outside a request (schedulers, warm-up). */
+    public static Span startSpan(String name) {
+        Span parent = CURRENT.get();
+        Span span = parent != null
+                ? new Span(parent.traceId, parent.spanId, name, parent)
+                : new Span(randomHex(32), null, name, null);
+        CURRENT.set(span);
+        if (parent == null) {
+            MDC.put(MDC_TRACE_ID, span.traceId);
+        }
+        return span;
+    }
+
+    public static Span current() {
+        return CURRENT.get();
+    }
+
+    private static String randomHex(int length) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder hex = new StringBuilder(length);
+        while (hex.length() < length) {
+            String part = Long.toHexString(random.nextLong());
+            for (int i = part.length(); i < 16 && hex.length() < length; i++) hex.append('0');
+            hex.append(part, 0, Math.min(part.length(), length - hex.length()));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,21 @@
+package com.test.metrics;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/** Propagates the current span to outbound RestTemplate calls as a W3C traceparent header. */
+public class TracingInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        Tracing.Span span = Tracing.current();
+        if (span != null) {
+            request.getHeaders().set(Tracing.TRACEPARENT, span.traceparent());
+        }
+        return execution.execute(request, body);
+    }
+}
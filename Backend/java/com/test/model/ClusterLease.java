@@ -0,0 +1,24 @@
+package com.test.model;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.*;
+import lombok.Data;
+
+/**
+* A named lease held by one instance until expiresAt, e.g. the quote publisher.
+* Taken and renewed with conditional writes only (free, expired, or already ours), so at most one
+* instance holds it at a time; if the holder dies, another takes over once it expires.
+*/
+@Data
+@DynamoDBTable(tableName = "ClusterLeases")
+public class ClusterLease {
+
+    @DynamoDBHashKey
+    private String leaseName;
+
+    @DynamoDBAttribute private String ownerId;
+
+    // Epoch millis
+    @DynamoDBAttribute private Long expiresAt;
+    @DynamoDBAttribute private Long acquiredAt;
+    @DynamoDBAttribute private Long renewedAt;
+}
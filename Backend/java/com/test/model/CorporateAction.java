@@ -0,0 +1,47 @@
+package com.test.model;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.*;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+/**
+* A split or cash dividend of one symbol and the progress of applying it to every holder.
+* lastUserId is the resume cursor: holders are processed in userId order and everything up to it is done.
+*/
+@Data
+@DynamoDBTable(tableName = "CorporateActions")
+public class CorporateAction {
+
+    // "<SYMBOL>-<TYPE>-<exDate>", so submitting the same action twice finds the first one
+    @DynamoDBHashKey
+    private String actionId;
+
+    @DynamoDBAttribute private String symbol;
+
+    // "SPLIT" or "DIVIDEND"
+    @DynamoDBAttribute private String type;
+
+    // yyyy-MM-dd; the adjustment sits at 00:00 UTC of this day, before any trade of the day
+    @DynamoDBAttribute private String exDate;
+
+    // SPLIT: every splitFrom shares become splitTo shares
+    @DynamoDBAttribute private int splitFrom;
+    @DynamoDBAttribute private int splitTo;
+
+    // DIVIDEND: cash per share, micro-units (see Money)
+    @Money.Amount @JsonProperty("cashPerShare")
+    @DynamoDBAttribute(attributeName = "cashPerShare") private long cashPerShareMicros;
+
+    // "PENDING", "RUNNING", "DONE" or "FAILED"
+    @DynamoDBAttribute private String status;
+
+    @DynamoDBAttribute private int holders;
+    @DynamoDBAttribute private int processed;
+    @DynamoDBAttribute private int adjusted;
+    @DynamoDBAttribute private String lastUserId;
+    @DynamoDBAttribute private String error;
+
+    @DynamoDBAttribute private Long createdAt;
+    @DynamoDBAttribute private Long startedAt;
+    @DynamoDBAttribute private Long completedAt;
+}
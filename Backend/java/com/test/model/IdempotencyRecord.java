@@ -0,0 +1,32 @@
+package com.test.model;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.*;
+import lombok.Data;
+
+@Data
+@DynamoDBTable(tableName = "IdempotencyKeys")
+public class IdempotencyRecord {
+
+    // "<userId>#<Idempotency-Key header>" so keys from different users never collide
+    @DynamoDBHashKey
+    private String idempotencyKey;
+
+    @DynamoDBAttribute private String userId;
+
+    // PENDING while the original request runs (the key is reserved), DONE once its response is stored.
+    // Records written before the reservation step have no status and count as DONE.
+    @DynamoDBAttribute private String status;
+
+    // SHA-256 of the request body; a retry with the same key but a different body is rejected
+    @DynamoDBAttribute private String requestHash;
+
+    // Snapshot of the original response, replayed as-is on retries
+    @DynamoDBAttribute private int statusCode;
+    @DynamoDBAttribute private String contentType;
+    @DynamoDBAttribute private String responseBody;
+
+    @DynamoDBAttribute private Long createdAt;
+
+    // Epoch SECONDS - enable DynamoDB TTL on this attribute so old keys expire by themselves
+    @DynamoDBAttribute private Long expiresAt;
+}
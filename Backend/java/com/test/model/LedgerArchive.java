@@ -0,0 +1,38 @@
+package com.test.model;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.*;
+import lombok.Data;
+
+import java.nio.ByteBuffer;
+
+/**
+* Cold storage for closed-out trades (see LedgerArchiveService): one chunk of a symbol's archived trades,
+* as a gzip'd JSON array. throughTimestamp / throughStockId are the last trade of the archive run, so every
+* trade of the symbol up to there (in LedgerService.CHRONOLOGICAL order) is in the archive.
+*/
+@Data
+@DynamoDBTable(tableName = "LedgerArchives")
+public class LedgerArchive {
+
+    // "<userId>#<SYMBOL>#<throughTimestamp>#<chunk>"
+    @DynamoDBHashKey
+    private String archiveKey;
+
+    @DynamoDBIndexHashKey(globalSecondaryIndexName = "userId-index")
+    private String userId;
+
+    @DynamoDBAttribute private String symbol;
+    @DynamoDBAttribute private int chunk;
+    @DynamoDBAttribute private int tradeCount;
+    @DynamoDBAttribute private Long firstTimestamp;
+    @DynamoDBAttribute private Long throughTimestamp;
+    @DynamoDBAttribute private String throughStockId;
+    @DynamoDBAttribute private Long archivedAt;
+
+    // At most ledger.archive.chunk-trades trades, well under the 400 KB item limit once compressed
+    @DynamoDBAttribute private ByteBuffer trades;
+
+    public static String key(String userId, String symbol, long throughTimestamp, int chunk) {
+        return userId + "#" + symbol.toUpperCase() + "#" + throughTimestamp + "#" + chunk;
+    }
+}
@@ -0,0 +1,37 @@
+package com.test.model;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.*;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+* Periodic position snapshots along one symbol's ledger timeline.
+* Entry i is the running position right AFTER the trade (timestamps[i], stockIds[i]),
+* so a replay can resume from there instead of from the first trade.
+*/
+@Data
+@DynamoDBTable(tableName = "LedgerCheckpoints")
+public class LedgerCheckpoint {
+
+    // "<userId>#<SYMBOL>"
+    @DynamoDBHashKey
+    private String checkpointKey;
+
+    @DynamoDBIndexHashKey(globalSecondaryIndexName = "userId-index")
+    private String userId;
+
+    @DynamoDBAttribute private String symbol;
+
+    // Parallel lists, oldest first
+    @DynamoDBAttribute private List<Long> timestamps = new ArrayList<>();
+    @DynamoDBAttribute private List<String> stockIds = new ArrayList<>();
+    @DynamoDBAttribute private List<Integer> quantities = new ArrayList<>();
+    // Micro-units (see Money). Checkpoints from before the switch only have "costBases" and are rebuilt
+    @DynamoDBAttribute private List<Long> costBasisMicros = new ArrayList<>();
+
+    public static String key(String userId, String symbol) {
+        return userId + "#" + symbol.toUpperCase();
+    }
+}
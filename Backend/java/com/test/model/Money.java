@@ -0,0 +1,178 @@
+package com.test.model;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTypeConverted;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTypeConverter;
+import com.fasterxml.jackson.annotation.JacksonAnnotationsInside;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+* Fixed-point money: a plain long counting micro-units (1_000_000 = 1.00).
+* Sums and price x quantity are exact; the only rounding is at divisions (half-even) and
+* when a double (a Finnhub quote) comes in. The arithmetic works on primitives, so ledger
+* replays allocate nothing. DynamoDB and JSON keep seeing ordinary decimal numbers.
+*/
+public final class Money {
+
+    public static final int SCALE = 6;
+    public static final long MICROS_PER_UNIT = 1_000_000L;
+
+    private static final double FAST_LIMIT = 0x1p49;
+    private static final long FAST_MAX_DIVISOR = 1L << 60;
+
+    private Money() {}
+
+    /** Rounds a double amount (e.g. a quote) to the nearest micro. */
+    public static long ofDouble(double amount) {
+        if (!Double.isFinite(amount)) {
+            throw new IllegalArgumentException("Not a finite amount: " + amount);
+        }
+        return Math.round(amount * MICROS_PER_UNIT);
+    }
+
+    /** Exact for up to 6 decimals, half-even beyond. */
+    public static long of(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    public static long parse(String amount) {
+        return of(new BigDecimal(amount.trim()));
+    }
+
+    public static BigDecimal toBigDecimal(long micros) {
+        return BigDecimal.valueOf(micros, SCALE);
+    }
+
+    /** Nearest double; exact in its shortest decimal form for amounts below ~9 billion. */
+    public static double toDouble(long micros) {
+        return micros / (double) MICROS_PER_UNIT;
+    }
+
+    public static String toPlainString(long micros) {
+        return toBigDecimal(micros).stripTrailingZeros().toPlainString();
+    }
+
+    public static long times(long micros, long quantity) {
+        return Math.multiplyExact(micros, quantity);
+    }
+
+    public static long divide(long micros, long divisor) {
+        return divideRounded(micros, divisor);
+    }
+
+    /** micros * numerator / denominator with a single half-even rounding at the end. */
+    public static long mulDiv(long micros, long numerator, long denominator) {
+        // Fast path: a double estimate of the quotient (relative error < 2^-50, so at most one off
+        // below 2^49) corrected with the exact remainder. A 64-bit idiv costs several times a divsd.
+        double estimate = micros * ((double) numerator / denominator);
+        if (estimate < FAST_LIMIT && estimate > -FAST_LIMIT && denominator > 0 && denominator < FAST_MAX_DIVISOR) {
+            long quotient = (long) estimate;
+            // Exact even if micros * numerator overflows: the true remainder is small and longs wrap
+            long twice = (micros * numerator - quotient * denominator) << 1;
+            if (twice > denominator || (twice == denominator && (quotient & 1) != 0)) {
+                quotient++;
+            } else if (twice < -denominator || (twice == -denominator && (quotient & 1) != 0)) {
+                quotient--;
+            }
+            return quotient;
+        }
+        return mulDivExact(micros, numerator, denominator);
+    }
+
+    private static long mulDivExact(long micros, long numerator, long denominator) {
+        // Two int-sized operands cannot overflow a long: skip the 128-bit check
+        if (micros == (int) micros && numerator == (int) numerator) {
+            return divideRounded(micros * numerator, denominator);
+        }
+        long high = Math.multiplyHigh(micros, numerator);
+        long low = micros * numerator;
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            return divideRounded(low, denominator);
+        }
+        // Product beyond 64 bits (trillions in micros times millions of shares): exact, but allocates
+        return new BigDecimal(BigInteger.valueOf(micros).multiply(BigInteger.valueOf(numerator)))
+                .divide(BigDecimal.valueOf(denominator), 0, RoundingMode.HALF_EVEN)
+                .longValueExact();
+    }
+
+    private static long divideRounded(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) return quotient;
+        long absRemainder = Math.abs(remainder);
+        long rest = Math.abs(divisor) - absRemainder;
+        if (absRemainder > rest || (absRemainder == rest && (quotient & 1) != 0)) {
+            quotient += (dividend ^ divisor) < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    // ---- Mapping ----
+
+    /**
+    * Marks a long micro-units field that is stored in DynamoDB and sent as JSON as a decimal number,
+    * so existing rows and clients keep working.
+    */
+    @Target({ElementType.FIELD, ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+    @Retention(RetentionPolicy.RUNTIME)
+    @DynamoDBTypeConverted(converter = DynamoConverter.class)
+    @JacksonAnnotationsInside
+    @JsonSerialize(using = JsonMoneySerializer.class)
+    @JsonDeserialize(using = JsonMoneyDeserializer.class)
+    public @interface Amount {}
+
+    public static class DynamoConverter implements DynamoDBTypeConverter<BigDecimal, Long> {
+        @Override
+        public BigDecimal convert(Long micros) {
+            return toBigDecimal(micros).stripTrailingZeros();
+        }
+
+        @Override
+        public Long unconvert(BigDecimal amount) {
+            // Rows written as doubles (e.g. 150.24999999999997) snap to the nearest micro
+            return of(amount);
+        }
+    }
+
+    public static class JsonMoneySerializer extends StdSerializer<Long> {
+        public JsonMoneySerializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public void serialize(Long micros, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(toPlainString(micros));
+        }
+    }
+
+    public static class JsonMoneyDeserializer extends StdDeserializer<Long> {
+        public JsonMoneyDeserializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() == JsonToken.VALUE_STRING) {
+                String text = p.getText().trim();
+                return text.isEmpty() ? 0L : parse(text);
+            }
+            return of(p.getDecimalValue());
+        }
+    }
+}
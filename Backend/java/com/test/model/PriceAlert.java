@@ -0,0 +1,30 @@
+package com.test.model;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.*;
+import lombok.Data;
+
+@Data
+@DynamoDBTable(tableName = "PriceAlerts")
+public class PriceAlert {
+
+    @DynamoDBHashKey
+    @DynamoDBAutoGeneratedKey
+    private String alertId;
+
+    @DynamoDBIndexHashKey(globalSecondaryIndexName = "userId-index")
+    private String userId;
+
+    @DynamoDBAttribute private String email;
+    @DynamoDBAttribute private String symbol;
+
+    // "ABOVE" fires when price >= targetPrice, "BELOW" when price <= targetPrice
+    @DynamoDBAttribute private String direction;
+    @DynamoDBAttribute private double targetPrice;
+
+    // "ACTIVE" or "TRIGGERED"
+    @DynamoDBAttribute private String status;
+
+    @DynamoDBAttribute private Long createdAt;
+    @DynamoDBAttribute private Long triggeredAt;
+    @DynamoDBAttribute private Double triggeredPrice;
+}
@@ -0,0 +1,27 @@
+package com.test.model;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.*;
+import lombok.Data;
+
+/**
+* Latest quote of one symbol, published by the cluster's quote leader (or by whichever instance had to
+* fetch it itself) so the other instances read it instead of calling the market data provider.
+*/
+@Data
+@DynamoDBTable(tableName = "SharedPrices")
+public class SharedPrice {
+
+    @DynamoDBHashKey
+    private String symbol;
+
+    // The provider's quote as JSON (Finnhub shape: "c", "pc", ...)
+    @DynamoDBAttribute private String quote;
+
+    // Epoch millis of the provider call
+    @DynamoDBAttribute private Long fetchedAt;
+
+    @DynamoDBAttribute private String publishedBy;
+
+    // Epoch SECONDS - enable DynamoDB TTL on this attribute so symbols nobody holds any more drop out
+    @DynamoDBAttribute private Long expiresAt;
+}
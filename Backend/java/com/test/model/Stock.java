@@ -1,34 +1,60 @@
-package com.test.model;
-
-import com.amazonaws.services.dynamodbv2.datamodeling.*;
-import lombok.Data;
-
-@Data
-@DynamoDBTable(tableName = "Stocks")
-public class Stock {
-
-    @DynamoDBHashKey
-    @DynamoDBAutoGeneratedKey
-    private String stockId;
-
-    @DynamoDBIndexHashKey(globalSecondaryIndexName = "userId-index")
-    private String userId;
-
- // "BUY" or "SELL"
-    @DynamoDBAttribute private String type;
-    @DynamoDBAttribute private String symbol;
-    @DynamoDBAttribute private int quantity;
-
- // For BUY: This is the Cost. 
-    // For SELL: This is the Selling Price.
-    @DynamoDBAttribute private double purchasePrice;
-    @DynamoDBAttribute private double currentPrice;
-    @DynamoDBAttribute private double gainLoss;
-
-    @DynamoDBAttribute private Long timestamp;
-
-    // ---- Store date as plain string for DynamoDB ----
-    @DynamoDBAttribute(attributeName = "tradeDate")
-    private String tradeDate; // <-- final field name (remove LocalDate methods)
-
-}
+package com.test.model;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+@Data
+@DynamoDBTable(tableName = "Stocks")
+public class Stock {
+
+    @DynamoDBHashKey
+    @DynamoDBAutoGeneratedKey
+    private String stockId;
+
+    @DynamoDBIndexHashKey(globalSecondaryIndexName = "userId-index")
+    private String userId;
+
+ // "BUY" or "SELL", or a corporate-action adjustment: "SPLIT" / "DIVIDEND" (see CorporateActionService)
+    @DynamoDBAttribute private String type;
+    @DynamoDBAttribute private String symbol;
+    @DynamoDBAttribute private int quantity;
+
+ // For BUY: This is the Cost. 
+    // For SELL: This is the Selling Price.
+    // Money fields are micro-units (see Money); DynamoDB and JSON still carry them as decimal numbers
+    @Money.Amount @JsonProperty("purchasePrice")
+    @DynamoDBAttribute(attributeName = "purchasePrice") private long purchasePriceMicros;
+    @Money.Amount @JsonProperty("currentPrice")
+    @DynamoDBAttribute(attributeName = "currentPrice") private long currentPriceMicros;
+    @Money.Amount @JsonProperty("gainLoss")
+    @DynamoDBAttribute(attributeName = "gainLoss") private long gainLossMicros;
+
+    // SPLIT only: every splitFrom shares become splitTo shares (4-for-1 = 1 -> 4)
+    @DynamoDBAttribute private int splitFrom;
+    @DynamoDBAttribute private int splitTo;
+
+    // Also the sort key of userSymbol-index: one symbol's trades come back oldest first
+    @DynamoDBIndexRangeKey(globalSecondaryIndexName = "userSymbol-index")
+    @DynamoDBAttribute private Long timestamp;
+
+    // ---- Store date as plain string for DynamoDB ----
+    @DynamoDBAttribute(attributeName = "tradeDate")
+    private String tradeDate; // <-- final field name (remove LocalDate methods)
+
+    // "<userId>#<SYMBOL>", derived from userId and symbol on every write so it can never disagree with them
+    @JsonIgnore
+    @DynamoDBIndexHashKey(globalSecondaryIndexName = "userSymbol-index")
+    public String getUserSymbol() {
+        return userId == null || symbol == null ? null : userSymbolKey(userId, symbol);
+    }
+
+    public void setUserSymbol(String userSymbol) {
+        // Derived; the stored value is ignored on load
+    }
+
+    public static String userSymbolKey(String userId, String symbol) {
+        return userId + "#" + symbol.toUpperCase();
+    }
+}
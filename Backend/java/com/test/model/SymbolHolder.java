@@ -0,0 +1,29 @@
+package com.test.model;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.*;
+import lombok.Data;
+
+/**
+* One row per (symbol, user) with an open position, so everyone holding a symbol is one index query away.
+* Written on BUY, removed when a SELL closes the position; rows left behind by deletes are pruned
+* by the corporate-action processor when it finds no shares.
+*/
+@Data
+@DynamoDBTable(tableName = "SymbolHolders")
+public class SymbolHolder {
+
+    // "<SYMBOL>#<userId>"
+    @DynamoDBHashKey
+    private String holderKey;
+
+    @DynamoDBIndexHashKey(globalSecondaryIndexName = "symbol-index")
+    private String symbol;
+
+    @DynamoDBAttribute private String userId;
+
+    @DynamoDBAttribute private Long updatedAt;
+
+    public static String key(String symbol, String userId) {
+        return symbol.toUpperCase() + "#" + userId;
+    }
+}
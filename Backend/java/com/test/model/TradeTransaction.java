@@ -1,5 +1,5 @@
-package com.test.model;
-
-public class TradeTransaction {
-
-}
+package com.test.model;
+
+public class TradeTransaction {
+
+}
@@ -1,34 +1,34 @@
-package com.test.model;
-
-import com.amazonaws.services.dynamodbv2.datamodeling.*;
-import lombok.Data;
-
-@Data
-@DynamoDBTable(tableName = "Users")
-public class User {
-
-    @DynamoDBHashKey
-    @DynamoDBAutoGeneratedKey
-    private String userId;
-
-    @DynamoDBIndexHashKey(globalSecondaryIndexName = "email-index")
-    private String email;
-
-    @DynamoDBAttribute
-    private String username;
-
-    @DynamoDBAttribute
-    private String password;
-
-    @DynamoDBAttribute
-    private String firstName;
-
-    @DynamoDBAttribute
-    private String lastName;
-
-    @DynamoDBAttribute
-    private String riskAppetite;
-
-    @DynamoDBAttribute
-    private String experience;
+package com.test.model;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.*;
+import lombok.Data;
+
+@Data
+@DynamoDBTable(tableName = "Users")
+public class User {
+
+    @DynamoDBHashKey
+    @DynamoDBAutoGeneratedKey
+    private String userId;
+
+    @DynamoDBIndexHashKey(globalSecondaryIndexName = "email-index")
+    private String email;
+
+    @DynamoDBAttribute
+    private String username;
+
+    @DynamoDBAttribute
+    private String password;
+
+    @DynamoDBAttribute
+    private String firstName;
+
+    @DynamoDBAttribute
+    private String lastName;
+
+    @DynamoDBAttribute
+    private String riskAppetite;
+
+    @DynamoDBAttribute
+    private String experience;
 }
\ No newline at end of file
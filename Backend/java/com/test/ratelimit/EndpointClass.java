@@ -0,0 +1,35 @@
+package com.test.ratelimit;
+
+/**
+* Groups of endpoints that share one per-user limit. Defaults can be overridden with
+* ratelimit.<key>.per-minute, ratelimit.<key>.burst and ratelimit.<key>.max-concurrent (0 = no bulkhead).
+*/
+public enum EndpointClass {
+    // Portfolio valuation: Finnhub quotes / candles on every call
+    VALUATION("valuation", 60, 20, 32),
+    // Gemini analysis
+    AI("ai", 10, 3, 4),
+    // Buys, sells, edits and deletes
+    TRADE_WRITE("trade-write", 30, 10, 0),
+    // Whole-ledger exports: long-running scans
+    EXPORT("export", 5, 2, 2),
+    // Monte Carlo what-ifs: up to a second of every core each
+    SIMULATION("simulation", 10, 3, 2);
+
+    private final String key;
+    private final int defaultPerMinute;
+    private final int defaultBurst;
+    private final int defaultMaxConcurrent;
+
+    EndpointClass(String key, int defaultPerMinute, int defaultBurst, int defaultMaxConcurrent) {
+        this.key = key;
+        this.defaultPerMinute = defaultPerMinute;
+        this.defaultBurst = defaultBurst;
+        this.defaultMaxConcurrent = defaultMaxConcurrent;
+    }
+
+    public String getKey() { return key; }
+    public int getDefaultPerMinute() { return defaultPerMinute; }
+    public int getDefaultBurst() { return defaultBurst; }
+    public int getDefaultMaxConcurrent() { return defaultMaxConcurrent; }
+}
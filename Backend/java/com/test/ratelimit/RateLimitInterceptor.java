@@ -0,0 +1,65 @@
+package com.test.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+* Applies @RateLimited: 429 with Retry-After before the controller runs, instead of letting the
+* request queue for Finnhub / Gemini. Runs after Spring Security, so the principal is known.
+*/
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String BULKHEAD_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".bulkhead";
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitInterceptor(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod method)) return true;
+        RateLimited rateLimited = method.getMethodAnnotation(RateLimited.class);
+        if (rateLimited == null) return true;
+        EndpointClass endpointClass = rateLimited.value();
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String principal = auth != null && auth.isAuthenticated() ? auth.getName() : request.getRemoteAddr();
+
+        long waitNanos = rateLimiter.tryAcquire(endpointClass, principal);
+        if (waitNanos > 0) {
+            reject(response, Math.max(1, (TimeUnit.NANOSECONDS.toMillis(waitNanos) + 999) / 1000),
+                    "Too many " + endpointClass.getKey() + " requests");
+            return false;
+        }
+        if (!rateLimiter.tryEnter(endpointClass)) {
+            reject(response, 1, "Too many concurrent " + endpointClass.getKey() + " requests");
+            return false;
+        }
+        request.setAttribute(BULKHEAD_ATTRIBUTE, endpointClass);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object endpointClass = request.getAttribute(BULKHEAD_ATTRIBUTE);
+        if (endpointClass != null) {
+            request.removeAttribute(BULKHEAD_ATTRIBUTE);
+            rateLimiter.exit((EndpointClass) endpointClass);
+        }
+    }
+
+    private static void reject(HttpServletResponse response, long retryAfterSeconds, String message) throws Exception {
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType("text/plain; charset=UTF-8");
+        response.getWriter().write(message + ", retry in " + retryAfterSeconds + "s");
+    }
+}
@@ -0,0 +1,95 @@
+package com.test.ratelimit;
+
+import com.test.metrics.MetricsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+* Per-user token buckets per endpoint class, plus a concurrency bulkhead per class that shares
+* the servlet threads between classes: a slow Gemini call can't take the threads valuation needs.
+* Nothing here blocks - callers are told how long to wait and are expected to answer 429 at once.
+*/
+@Component
+public class RateLimiter {
+
+    @Autowired private MetricsRegistry metrics;
+    @Autowired private Environment environment;
+
+    @Value("${ratelimit.max-users:10000}")
+    private int maxUsers;
+
+    private final Map<EndpointClass, ClassLimit> limits = new EnumMap<>(EndpointClass.class);
+
+    private final class ClassLimit {
+        final long intervalNanos;
+        final int capacity;
+        final Semaphore bulkhead;
+        final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        // Shared by users that arrive while the map is full of active users
+        final TokenBucket overflow;
+
+        ClassLimit(int perMinute, int burst, int maxConcurrent) {
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+            this.capacity = Math.max(1, burst);
+            this.bulkhead = maxConcurrent > 0 ? new Semaphore(maxConcurrent) : null;
+            this.overflow = new TokenBucket(intervalNanos, capacity, System.nanoTime());
+        }
+
+        TokenBucket bucket(String principal, long now) {
+            TokenBucket bucket = buckets.get(principal);
+            if (bucket != null) return bucket;
+            if (buckets.size() >= maxUsers) {
+                buckets.values().removeIf(b -> b.isFull(now));
+                if (buckets.size() >= maxUsers) return overflow;
+            }
+            return buckets.computeIfAbsent(principal, p -> new TokenBucket(intervalNanos, capacity, now));
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        for (EndpointClass c : EndpointClass.values()) {
+            String prefix = "ratelimit." + c.getKey() + ".";
+            ClassLimit limit = new ClassLimit(
+                    environment.getProperty(prefix + "per-minute", Integer.class, c.getDefaultPerMinute()),
+                    environment.getProperty(prefix + "burst", Integer.class, c.getDefaultBurst()),
+                    environment.getProperty(prefix + "max-concurrent", Integer.class, c.getDefaultMaxConcurrent()));
+            limits.put(c, limit);
+            metrics.gauge("rate_limit_tracked_users", () -> limit.buckets.size(), "class", c.getKey());
+            if (limit.bulkhead != null) {
+                int maxConcurrent = limit.bulkhead.availablePermits();
+                metrics.gauge("bulkhead_in_use", () -> maxConcurrent - limit.bulkhead.availablePermits(), "class", c.getKey());
+            }
+        }
+    }
+
+    /** Takes one request from the user's bucket. Returns 0 if allowed, otherwise the nanos until it would be. */
+    public long tryAcquire(EndpointClass endpointClass, String principal) {
+        long now = System.nanoTime();
+        long wait = limits.get(endpointClass).bucket(principal, now).tryAcquire(now);
+        if (wait > 0) metrics.increment("rate_limit_rejected_total", "class", endpointClass.getKey(), "reason", "rate");
+        return wait;
+    }
+
+    /** Enters the class's bulkhead without waiting; every true must be paired with exit(). */
+    public boolean tryEnter(EndpointClass endpointClass) {
+        Semaphore bulkhead = limits.get(endpointClass).bulkhead;
+        if (bulkhead == null || bulkhead.tryAcquire()) return true;
+        metrics.increment("rate_limit_rejected_total", "class", endpointClass.getKey(), "reason", "concurrency");
+        return false;
+    }
+
+    public void exit(EndpointClass endpointClass) {
+        Semaphore bulkhead = limits.get(endpointClass).bulkhead;
+        if (bulkhead != null) bulkhead.release();
+    }
+}
@@ -0,0 +1,37 @@
+package com.test.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+* Lock-free token bucket. Instead of a token count plus a refill timestamp it keeps a single
+* "theoretical arrival time" (GCRA): the instant at which the bucket would be full again.
+* Taking a token pushes it one interval into the future, so an acquire is one CAS on one long.
+*/
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(long intervalNanos, int capacity, long nowNanos) {
+        this.intervalNanos = intervalNanos;
+        this.capacityNanos = intervalNanos * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /** Takes a token if one is available. Returns 0 on success, otherwise the nanos until the next token. */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - capacityNanos;
+            if (wait > 0) return wait;
+            if (fullAt.compareAndSet(current, next)) return 0;
+        }
+    }
+
+    /** A full bucket behaves exactly like a new one, so it can be dropped without losing anything. */
+    boolean isFull(long nowNanos) {
+        return fullAt.get() - nowNanos <= 0;
+    }
+}
@@ -0,0 +1,9 @@
+package com.test.repository;
+
+import com.test.model.CorporateAction;
+import org.socialsignin.spring.data.dynamodb.repository.EnableScan;
+import org.springframework.data.repository.CrudRepository;
+
+@EnableScan
+public interface CorporateActionRepository extends CrudRepository<CorporateAction, String> {
+}
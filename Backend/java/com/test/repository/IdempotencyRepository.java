@@ -0,0 +1,9 @@
+package com.test.repository;
+
+import com.test.model.IdempotencyRecord;
+import org.socialsignin.spring.data.dynamodb.repository.EnableScan;
+import org.springframework.data.repository.CrudRepository;
+
+@EnableScan
+public interface IdempotencyRepository extends CrudRepository<IdempotencyRecord, String> {
+}
@@ -0,0 +1,12 @@
+package com.test.repository;
+
+import com.test.model.LedgerCheckpoint;
+import org.socialsignin.spring.data.dynamodb.repository.EnableScan;
+import org.springframework.data.repository.CrudRepository;
+import java.util.List;
+
+@EnableScan
+public interface LedgerCheckpointRepository extends CrudRepository<LedgerCheckpoint, String> {
+
+    List<LedgerCheckpoint> findByUserId(String userId);
+}
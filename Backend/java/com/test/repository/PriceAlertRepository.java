@@ -0,0 +1,14 @@
+package com.test.repository;
+
+import com.test.model.PriceAlert;
+import org.socialsignin.spring.data.dynamodb.repository.EnableScan;
+import org.springframework.data.repository.CrudRepository;
+import java.util.List;
+
+@EnableScan
+public interface PriceAlertRepository extends CrudRepository<PriceAlert, String> {
+
+    List<PriceAlert> findByUserId(String userId);
+
+    List<PriceAlert> findByStatus(String status);
+}
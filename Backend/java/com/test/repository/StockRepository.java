@@ -1,12 +1,18 @@
-package com.test.repository;
-
-import com.test.model.Stock;
-import org.socialsignin.spring.data.dynamodb.repository.EnableScan;
-import org.springframework.data.repository.CrudRepository;
-import java.util.List;
-
-@EnableScan
-public interface StockRepository extends CrudRepository<Stock, String> {
-    
-    List<Stock> findByUserId(String userId);
-}
+package com.test.repository;
+
+import com.test.model.Stock;
+import org.socialsignin.spring.data.dynamodb.repository.EnableScan;
+import org.springframework.data.repository.CrudRepository;
+import java.util.List;
+
+@EnableScan
+public interface StockRepository extends CrudRepository<Stock, String> {
+    
+    List<Stock> findByUserId(String userId);
+
+    // One symbol's trades via userSymbol-index (key: Stock.userSymbolKey), oldest first
+    List<Stock> findByUserSymbol(String userSymbol);
+
+    // The same slice from a timestamp on, e.g. the trades after a ledger checkpoint
+    List<Stock> findByUserSymbolAndTimestampGreaterThanEqual(String userSymbol, Long timestamp);
+}
@@ -0,0 +1,12 @@
+package com.test.repository;
+
+import com.test.model.SymbolHolder;
+import org.socialsignin.spring.data.dynamodb.repository.EnableScan;
+import org.springframework.data.repository.CrudRepository;
+import java.util.List;
+
+@EnableScan
+public interface SymbolHolderRepository extends CrudRepository<SymbolHolder, String> {
+
+    List<SymbolHolder> findBySymbol(String symbol);
+}
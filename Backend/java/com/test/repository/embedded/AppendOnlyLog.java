@@ -0,0 +1,304 @@
+package com.test.repository.embedded;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+* Append-only binary record log, memory-mapped in fixed-size regions.
+*
+* File layout: 8 byte magic, int region size, 4 bytes padding, then records. A record never straddles a region boundary:
+*   int length   - bytes after this field (crc + op + keyLength + key + payload); 0 = end of log, -1 = skip to next region
+*   int crc      - CRC32C over op .. payload
+*   byte op      - PUT or DELETE
+*   short keyLength, key (UTF-8), payload
+*
+* Writes go straight into the mapped region and are made durable by a background group commit
+* (force() every fsync interval); callers that need durability wait on {@link #awaitDurable(long)}.
+* On open the log is scanned and cut at the first torn / corrupt record, so a crash mid-write
+* loses at most the unsynced tail, never the log.
+*
+* Not thread-safe for appends on its own: the owning table serializes writers.
+*/
+class AppendOnlyLog implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(AppendOnlyLog.class);
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+
+    private static final long MAGIC = 0x5350544C4F473031L; // "SPTLOG01"
+    private static final int FILE_HEADER = 16;
+    private static final int RECORD_HEADER = 4 + 4 + 1 + 2;
+    private static final int SKIP_REGION = -1;
+
+    /** Called once per valid record while the log is recovered. */
+    interface RecoveryVisitor {
+        void visit(byte op, String key, long offset, ByteBuffer payload, int recordLength);
+    }
+
+    private final Path path;
+    private final int regionSize;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> regions = new ArrayList<>();
+    private final CRC32C crc = new CRC32C();
+
+    private long writePosition;
+
+    // Group commit state
+    private final Object syncMonitor = new Object();
+    private volatile long durablePosition;
+    private int firstDirtyRegion;
+
+    AppendOnlyLog(Path path, int regionSize, RecoveryVisitor recovery) throws IOException {
+        this.path = path;
+        this.regionSize = regionSize;
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        long size = channel.size();
+        if (size == 0) {
+            region(0).putLong(0, MAGIC).putInt(8, regionSize);
+            writePosition = FILE_HEADER;
+        } else {
+            for (int i = 0; (long) i * regionSize < size; i++) {
+                region(i);
+            }
+            if (regions.get(0).getLong(0) != MAGIC) {
+                throw new IOException("Not a ledger log file: " + path);
+            }
+            if (regions.get(0).getInt(8) != regionSize) {
+                throw new IOException(path + " was written with " + regions.get(0).getInt(8) + " byte regions, not " + regionSize);
+            }
+            writePosition = recover(recovery);
+        }
+        durablePosition = writePosition;
+    }
+
+    // --- Writing ---
+
+    /** Appends one record and returns its offset. The record is durable once {@link #awaitDurable} returns for it. */
+    long append(byte op, String key, ByteBuffer payload) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int length = 4 + 1 + 2 + keyBytes.length + payload.remaining();
+        if (length + 4 > regionSize - FILE_HEADER) {
+            throw new IOException("Record of " + length + " bytes does not fit a " + regionSize + " byte region");
+        }
+
+        int within = (int) (writePosition % regionSize);
+        if (within + 4 + length > regionSize) {
+            // Not enough room left in this region: mark the rest as skipped and start the next one
+            if (within + 4 <= regionSize) {
+                regions.get(regionIndex(writePosition)).putInt(within, SKIP_REGION);
+            }
+            writePosition = (long) (regionIndex(writePosition) + 1) * regionSize;
+            within = 0;
+        }
+
+        long offset = writePosition;
+        ByteBuffer region = region(regionIndex(offset)).duplicate();
+        region.position(within + 8);
+        region.put(op);
+        region.putShort((short) keyBytes.length);
+        region.put(keyBytes);
+        region.put(payload.duplicate());
+
+        crc.reset();
+        ByteBuffer body = region.duplicate();
+        body.position(within + 8).limit(within + 4 + length);
+        crc.update(body);
+        region.putInt(within + 4, (int) crc.getValue());
+        // Length last: a record is only visible to recovery once it is complete
+        region.putInt(within, length);
+
+        writePosition = offset + 4 + length;
+        return offset;
+    }
+
+    /** Blocks until everything up to and including the record at {@code offset} has been forced to disk. */
+    void awaitDurable(long offset) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        synchronized (syncMonitor) {
+            while (durablePosition <= offset) {
+                long waitMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (waitMs <= 0) throw new IOException("Timed out waiting for fsync of " + path);
+                try {
+                    syncMonitor.wait(waitMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted waiting for fsync", e);
+                }
+            }
+        }
+    }
+
+    /**
+    * One group commit: forces every region written since the last sync and wakes the writers waiting for it.
+    * Called by the owner's flusher thread (holding the writer lock only long enough to read the position).
+    */
+    void sync(long upTo, int lastRegion) {
+        // Snapshot under the lock: an append may add a region (and regrow the list) while this forces
+        List<MappedByteBuffer> dirty;
+        synchronized (regions) {
+            int to = Math.min(lastRegion + 1, regions.size());
+            dirty = new ArrayList<>(regions.subList(Math.min(firstDirtyRegion, to), to));
+        }
+        for (MappedByteBuffer region : dirty) {
+            region.force();
+        }
+        firstDirtyRegion = lastRegion;
+        synchronized (syncMonitor) {
+            durablePosition = Math.max(durablePosition, upTo);
+            syncMonitor.notifyAll();
+        }
+    }
+
+    long getWritePosition() {
+        return writePosition;
+    }
+
+    int regionIndex(long offset) {
+        return (int) (offset / regionSize);
+    }
+
+    boolean hasUnsyncedWrites() {
+        return durablePosition < writePosition;
+    }
+
+    // --- Reading ---
+
+    /** Zero-copy view of the record's payload, straight from the mapped region. */
+    ByteBuffer payload(long offset) {
+        ByteBuffer region = regions.get(regionIndex(offset)).duplicate();
+        int within = (int) (offset % regionSize);
+        int length = region.getInt(within);
+        int keyLength = region.getShort(within + 9);
+        region.position(within + RECORD_HEADER + keyLength).limit(within + 4 + length);
+        return region.slice();
+    }
+
+    int recordLength(long offset) {
+        return 4 + regions.get(regionIndex(offset)).getInt((int) (offset % regionSize));
+    }
+
+    // --- Compaction ---
+
+    /**
+    * Copies only the given live records into a fresh file and atomically replaces this log's file with it.
+    * Returns old offset -> new offset. The caller must block writers and readers for the duration.
+    */
+    Map<Long, Long> compactInto(Path target, Iterable<Long> liveOffsets) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".compact");
+        Files.deleteIfExists(tmp);
+
+        Map<Long, Long> moved = new HashMap<>();
+
+        try (AppendOnlyLog fresh = new AppendOnlyLog(tmp, regionSize, null)) {
+            for (long offset : liveOffsets) {
+                ByteBuffer region = regions.get(regionIndex(offset)).duplicate();
+                int within = (int) (offset % regionSize);
+                byte op = region.get(within + 8);
+                int keyLength = region.getShort(within + 9);
+                byte[] key = new byte[keyLength];
+                region.get(within + RECORD_HEADER, key);
+                moved.put(offset, fresh.append(op, new String(key, StandardCharsets.UTF_8), payload(offset)));
+            }
+        } // close() forces the new file before it replaces the old one
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return moved;
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync(writePosition, regions.size() - 1);
+        channel.close();
+    }
+
+    // --- Internals ---
+
+    private MappedByteBuffer region(int index) throws IOException {
+        // Only the (serialized) writer adds regions, so it can read the list without the lock
+        if (index < regions.size()) return regions.get(index);
+        synchronized (regions) {
+            while (regions.size() <= index) {
+                regions.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) regions.size() * regionSize, regionSize));
+            }
+            return regions.get(index);
+        }
+    }
+
+    private long recover(RecoveryVisitor visitor) {
+        long position = FILE_HEADER;
+        int records = 0;
+
+        while (regionIndex(position) < regions.size()) {
+            MappedByteBuffer region = regions.get(regionIndex(position));
+            int within = (int) (position % regionSize);
+
+            if (within + 4 > regionSize) {
+                position = (long) (regionIndex(position) + 1) * regionSize;
+                continue;
+            }
+            int length = region.getInt(within);
+            if (length == 0) break;
+            if (length == SKIP_REGION) {
+                position = (long) (regionIndex(position) + 1) * regionSize;
+                continue;
+            }
+            if (length < RECORD_HEADER - 4 || within + 4 + length > regionSize || !checksumMatches(region, within, length)) {
+                logger.warn("Ledger log {}: torn or corrupt record at offset {}, truncating the tail", path, position);
+                truncateAt(position);
+                break;
+            }
+
+            if (visitor != null) {
+                byte op = region.get(within + 8);
+                int keyLength = region.getShort(within + 9);
+                byte[] key = new byte[keyLength];
+                region.get(within + RECORD_HEADER, key);
+                visitor.visit(op, new String(key, StandardCharsets.UTF_8), position, payload(position), 4 + length);
+            }
+            records++;
+            position += 4 + length;
+        }
+        logger.info("Ledger log {}: recovered {} records ({} bytes)", path, records, position);
+        return position;
+    }
+
+    private boolean checksumMatches(MappedByteBuffer region, int within, int length) {
+        ByteBuffer body = region.duplicate();
+        body.position(within + 8).limit(within + 4 + length);
+        crc.reset();
+        crc.update(body);
+        return (int) crc.getValue() == region.getInt(within + 4);
+    }
+
+    // Zero the rest of the region and every region after it, so neither a later, shorter record nor the
+    // next region can be followed by stale records that a later recovery would replay
+    private void truncateAt(long position) {
+        byte[] zeros = new byte[Math.min(regionSize, 64 * 1024)];
+        for (int r = regionIndex(position); r < regions.size(); r++) {
+            ByteBuffer region = regions.get(r).duplicate();
+            region.position(r == regionIndex(position) ? (int) (position % regionSize) : 0);
+            while (region.hasRemaining()) {
+                region.put(zeros, 0, Math.min(zeros.length, region.remaining()));
+            }
+            regions.get(r).force();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.test.repository.embedded;
+
+import com.test.metrics.MetricsRegistry;
+import com.test.model.Stock;
+import com.test.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+* Embedded, single-node persistence for trades and users (ledger.store=embedded).
+* Owns the two tables, the group-commit flusher (one fsync per ledger.embedded.fsync-interval-ms
+* for all writes in that window) and background compaction once a log is mostly garbage.
+*/
+@Component
+@ConditionalOnProperty(name = "ledger.store", havingValue = "embedded")
+public class EmbeddedLedgerStore {
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedLedgerStore.class);
+
+    private final EmbeddedTable<Stock> stocks;
+    private final EmbeddedTable<User> users;
+    private final ScheduledExecutorService background;
+
+    private final double compactionGarbageRatio;
+    private final long compactionMinBytes;
+    private final MetricsRegistry metrics;
+
+    public EmbeddedLedgerStore(@Value("${ledger.embedded.dir:./data/ledger}") String dir,
+                               @Value("${ledger.embedded.region-mb:64}") int regionMb,
+                               @Value("${ledger.embedded.durable-writes:true}") boolean durableWrites,
+                               @Value("${ledger.embedded.fsync-interval-ms:10}") long fsyncIntervalMs,
+                               @Value("${ledger.embedded.compaction.garbage-ratio:0.5}") double compactionGarbageRatio,
+                               @Value("${ledger.embedded.compaction.min-mb:16}") long compactionMinMb,
+                               @Value("${ledger.embedded.compaction.check-seconds:60}") long compactionCheckSeconds,
+                               MetricsRegistry metrics) throws IOException {
+        Path root = Paths.get(dir);
+        int regionSize = regionMb * 1024 * 1024;
+        this.stocks = new EmbeddedTable<>("stocks", root.resolve("stocks.log"), regionSize, new StockCodec(), durableWrites);
+        this.users = new EmbeddedTable<>("users", root.resolve("users.log"), regionSize, new UserCodec(), durableWrites);
+        this.compactionGarbageRatio = compactionGarbageRatio;
+        this.compactionMinBytes = compactionMinMb * 1024 * 1024;
+        this.metrics = metrics;
+
+        this.background = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ledger-store");
+            t.setDaemon(true);
+            return t;
+        });
+        background.scheduleWithFixedDelay(this::syncAll, fsyncIntervalMs, fsyncIntervalMs, TimeUnit.MILLISECONDS);
+        background.scheduleWithFixedDelay(this::compactIfNeeded, compactionCheckSeconds, compactionCheckSeconds, TimeUnit.SECONDS);
+
+        metrics.gauge("embedded_store_bytes", stocks::sizeBytes, "table", "stocks");
+        metrics.gauge("embedded_store_bytes", users::sizeBytes, "table", "users");
+        metrics.gauge("embedded_store_garbage_ratio", stocks::garbageRatio, "table", "stocks");
+        metrics.gauge("embedded_store_garbage_ratio", users::garbageRatio, "table", "users");
+        logger.info("Embedded ledger store at {} (durable writes: {}, fsync every {} ms)", root.toAbsolutePath(), durableWrites, fsyncIntervalMs);
+    }
+
+    EmbeddedTable<Stock> stocks() {
+        return stocks;
+    }
+
+    EmbeddedTable<User> users() {
+        return users;
+    }
+
+    private void syncAll() {
+        try {
+            long start = System.nanoTime();
+            stocks.sync();
+            users.sync();
+            metrics.recordNanos("embedded_store_fsync_seconds", System.nanoTime() - start);
+        } catch (Exception e) {
+            logger.error("Embedded store fsync failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void compactIfNeeded() {
+        for (EmbeddedTable<?> table : List.of(stocks, users)) {
+            try {
+                if (table.sizeBytes() >= compactionMinBytes && table.garbageRatio() >= compactionGarbageRatio) {
+                    long start = System.nanoTime();
+                    table.compact();
+                    metrics.recordNanos("embedded_store_compaction_seconds", System.nanoTime() - start);
+                }
+            } catch (Exception e) {
+                logger.error("Embedded store compaction failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        background.shutdown();
+        try {
+            background.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        stocks.close();
+        users.close();
+    }
+}
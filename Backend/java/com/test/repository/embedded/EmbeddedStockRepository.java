@@ -0,0 +1,120 @@
+package com.test.repository.embedded;
+
+import com.test.model.Stock;
+import com.test.repository.StockRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+
+/**
+* StockRepository over the embedded trade log. findByUserId is a lookup in the per-user
+* offset index followed by decoding each record from the mapped region - no network, no copy.
+*/
+@Primary
+@Repository
+@ConditionalOnProperty(name = "ledger.store", havingValue = "embedded")
+public class EmbeddedStockRepository implements StockRepository {
+
+    private final EmbeddedTable<Stock> table;
+
+    public EmbeddedStockRepository(EmbeddedLedgerStore store) {
+        this.table = store.stocks();
+    }
+
+    @Override
+    public List<Stock> findByUserId(String userId) {
+        return table.findBySecondary(userId);
+    }
+
+    // The user's offsets are the index here; a symbol's slice is filtered from them in memory
+    @Override
+    public List<Stock> findByUserSymbol(String userSymbol) {
+        List<Stock> trades = new ArrayList<>();
+        for (Stock s : table.findBySecondary(userSymbol.substring(0, userSymbol.lastIndexOf('#')))) {
+            if (userSymbol.equals(s.getUserSymbol())) trades.add(s);
+        }
+        trades.sort(Comparator.comparing(Stock::getTimestamp, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return trades;
+    }
+
+    @Override
+    public List<Stock> findByUserSymbolAndTimestampGreaterThanEqual(String userSymbol, Long timestamp) {
+        List<Stock> trades = findByUserSymbol(userSymbol);
+        trades.removeIf(s -> s.getTimestamp() == null || s.getTimestamp() < timestamp);
+        return trades;
+    }
+
+    @Override
+    public <S extends Stock> S save(S entity) {
+        assignId(entity);
+        table.put(entity);
+        return entity;
+    }
+
+    @Override
+    public <S extends Stock> Iterable<S> saveAll(Iterable<S> entities) {
+        entities.forEach(this::assignId);
+        return table.putAll(entities);
+    }
+
+    @Override
+    public Optional<Stock> findById(String id) {
+        return table.get(id);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return table.contains(id);
+    }
+
+    @Override
+    public Iterable<Stock> findAll() {
+        return table.findAll();
+    }
+
+    @Override
+    public Iterable<Stock> findAllById(Iterable<String> ids) {
+        List<Stock> result = new ArrayList<>();
+        ids.forEach(id -> table.get(id).ifPresent(result::add));
+        return result;
+    }
+
+    @Override
+    public long count() {
+        return table.count();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        table.delete(id);
+    }
+
+    @Override
+    public void delete(Stock entity) {
+        table.delete(entity.getStockId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(table::delete);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Stock> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        table.deleteAll();
+    }
+
+    // Same as @DynamoDBAutoGeneratedKey on the DynamoDB side
+    private void assignId(Stock stock) {
+        if (stock.getStockId() == null) {
+            stock.setStockId(UUID.randomUUID().toString());
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.test.repository.embedded;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+* One entity type on top of an {@link AppendOnlyLog}: a primary index (key -> record offset)
+* and a secondary index (e.g. userId -> its trades' offsets), both rebuilt from the log on open.
+* Every save appends a new version; old versions and deletes become garbage until compaction.
+*
+* Readers share the lock and decode straight from the mapped region; writers and compaction take it exclusively.
+*/
+class EmbeddedTable<T> implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedTable.class);
+
+    private static final class Location {
+        final long offset;
+        final int length;
+        final String secondary;
+
+        Location(long offset, int length, String secondary) {
+            this.offset = offset;
+            this.length = length;
+            this.secondary = secondary;
+        }
+    }
+
+    private final String name;
+    private final Path path;
+    private final int regionSize;
+    private final RecordCodec<T> codec;
+    private final boolean durableWrites;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Location> primary = new HashMap<>();
+    private final Map<String, Map<String, Location>> secondary = new HashMap<>();
+
+    private AppendOnlyLog log;
+    private long liveBytes;
+    private ByteBuffer scratch = ByteBuffer.allocate(512);
+
+    EmbeddedTable(String name, Path path, int regionSize, RecordCodec<T> codec, boolean durableWrites) throws IOException {
+        this.name = name;
+        this.path = path;
+        this.regionSize = regionSize;
+        this.codec = codec;
+        this.durableWrites = durableWrites;
+        this.log = new AppendOnlyLog(path, regionSize, this::recover);
+        logger.info("Embedded table {}: {} live records", name, primary.size());
+    }
+
+    private void recover(byte op, String key, long offset, ByteBuffer payload, int recordLength) {
+        if (op == AppendOnlyLog.PUT) {
+            index(key, new Location(offset, recordLength, codec.secondaryKey(codec.decode(payload))));
+        } else if (op == AppendOnlyLog.DELETE) {
+            unindex(key);
+        }
+    }
+
+    // --- Reads (shared lock) ---
+
+    Optional<T> get(String key) {
+        lock.readLock().lock();
+        try {
+            Location location = primary.get(key);
+            return location == null ? Optional.empty() : Optional.of(decode(location));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean contains(String key) {
+        lock.readLock().lock();
+        try {
+            return primary.containsKey(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<T> findBySecondary(String secondaryKey) {
+        lock.readLock().lock();
+        try {
+            Map<String, Location> entries = secondary.get(secondaryKey);
+            if (entries == null) return new ArrayList<>();
+            List<T> result = new ArrayList<>(entries.size());
+            for (Location location : entries.values()) {
+                result.add(decode(location));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<T> findAll() {
+        lock.readLock().lock();
+        try {
+            List<T> result = new ArrayList<>(primary.size());
+            for (Location location : primary.values()) {
+                result.add(decode(location));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long count() {
+        lock.readLock().lock();
+        try {
+            return primary.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private T decode(Location location) {
+        return codec.decode(log.payload(location.offset));
+    }
+
+    // --- Writes (exclusive lock, fsync wait outside it) ---
+
+    T put(T entity) {
+        String key = codec.key(entity);
+        AppendOnlyLog target;
+        long offset;
+
+        lock.writeLock().lock();
+        try {
+            ByteBuffer payload = encode(entity);
+            target = log;
+            offset = log.append(AppendOnlyLog.PUT, key, payload);
+            index(key, new Location(offset, log.recordLength(offset), codec.secondaryKey(entity)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Embedded table " + name + ": write failed", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitDurable(target, offset);
+        return entity;
+    }
+
+    /** Appends the whole batch under one lock and waits for a single group commit. */
+    <S extends T> List<S> putAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        AppendOnlyLog target;
+        long offset = -1;
+
+        lock.writeLock().lock();
+        try {
+            target = log;
+            for (S entity : entities) {
+                String key = codec.key(entity);
+                offset = log.append(AppendOnlyLog.PUT, key, encode(entity));
+                index(key, new Location(offset, log.recordLength(offset), codec.secondaryKey(entity)));
+                saved.add(entity);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Embedded table " + name + ": batch write failed", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (offset >= 0) awaitDurable(target, offset);
+        return saved;
+    }
+
+    boolean delete(String key) {
+        AppendOnlyLog target;
+        long offset;
+
+        lock.writeLock().lock();
+        try {
+            if (!primary.containsKey(key)) return false;
+            target = log;
+            offset = log.append(AppendOnlyLog.DELETE, key, ByteBuffer.allocate(0));
+            unindex(key);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Embedded table " + name + ": delete failed", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitDurable(target, offset);
+        return true;
+    }
+
+    void deleteAll() {
+        for (String key : keys()) {
+            delete(key);
+        }
+    }
+
+    private List<String> keys() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(primary.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void awaitDurable(AppendOnlyLog target, long offset) {
+        if (!durableWrites) return;
+        try {
+            target.awaitDurable(offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Embedded table " + name + ": fsync failed", e);
+        }
+    }
+
+    private ByteBuffer encode(T entity) {
+        while (true) {
+            scratch.clear();
+            try {
+                codec.encode(entity, scratch);
+                return scratch.flip();
+            } catch (BufferOverflowException e) {
+                scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+            }
+        }
+    }
+
+    // --- Group commit / compaction (called from the store's background thread) ---
+
+    /** Forces everything written so far; writers waiting in put()/delete() are released together. */
+    void sync() {
+        AppendOnlyLog target;
+        long upTo;
+        lock.readLock().lock();
+        try {
+            target = log;
+            if (!target.hasUnsyncedWrites()) return;
+            upTo = target.getWritePosition();
+        } finally {
+            lock.readLock().unlock();
+        }
+        target.sync(upTo, target.regionIndex(upTo));
+    }
+
+    /** Share of the log taken by overwritten / deleted records. */
+    double garbageRatio() {
+        lock.readLock().lock();
+        try {
+            long total = log.getWritePosition();
+            return total == 0 ? 0 : 1.0 - (double) liveBytes / total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long sizeBytes() {
+        lock.readLock().lock();
+        try {
+            return log.getWritePosition();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Rewrites the log with live records only (in offset order, so each user's trades stay close together on disk). */
+    void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            long before = log.getWritePosition();
+            List<Long> live = new ArrayList<>(primary.size());
+            for (Location location : primary.values()) {
+                live.add(location.offset);
+            }
+            Collections.sort(live);
+
+            Map<Long, Long> moved = log.compactInto(path, live);
+            log.close();
+            log = new AppendOnlyLog(path, regionSize, null);
+
+            for (Map.Entry<String, Location> entry : primary.entrySet()) {
+                Location old = entry.getValue();
+                Location relocated = new Location(moved.get(old.offset), old.length, old.secondary);
+                entry.setValue(relocated);
+                if (old.secondary != null) {
+                    secondary.get(old.secondary).put(entry.getKey(), relocated);
+                }
+            }
+            logger.info("Embedded table {}: compacted {} -> {} bytes", name, before, log.getWritePosition());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            log.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- Index maintenance (caller holds the write lock, or is single-threaded recovery) ---
+
+    private void index(String key, Location location) {
+        unindex(key);
+        primary.put(key, location);
+        liveBytes += location.length;
+        if (location.secondary != null) {
+            secondary.computeIfAbsent(location.secondary, s -> new LinkedHashMap<>()).put(key, location);
+        }
+    }
+
+    private void unindex(String key) {
+        Location old = primary.remove(key);
+        if (old == null) return;
+        liveBytes -= old.length;
+        if (old.secondary != null) {
+            Map<String, Location> entries = secondary.get(old.secondary);
+            if (entries != null) {
+                entries.remove(key);
+                if (entries.isEmpty()) secondary.remove(old.secondary);
+            }
+        }
+    }
+}
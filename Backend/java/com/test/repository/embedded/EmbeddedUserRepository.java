@@ -0,0 +1,100 @@
+package com.test.repository.embedded;
+
+import com.test.model.User;
+import com.test.repository.UserRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+
+/**
+* UserRepository over the embedded user log, with email as the secondary index.
+*/
+@Primary
+@Repository
+@ConditionalOnProperty(name = "ledger.store", havingValue = "embedded")
+public class EmbeddedUserRepository implements UserRepository {
+
+    private final EmbeddedTable<User> table;
+
+    public EmbeddedUserRepository(EmbeddedLedgerStore store) {
+        this.table = store.users();
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return table.findBySecondary(email).stream().findFirst();
+    }
+
+    @Override
+    public <S extends User> S save(S entity) {
+        assignId(entity);
+        table.put(entity);
+        return entity;
+    }
+
+    @Override
+    public <S extends User> Iterable<S> saveAll(Iterable<S> entities) {
+        entities.forEach(this::assignId);
+        return table.putAll(entities);
+    }
+
+    @Override
+    public Optional<User> findById(String id) {
+        return table.get(id);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return table.contains(id);
+    }
+
+    @Override
+    public Iterable<User> findAll() {
+        return table.findAll();
+    }
+
+    @Override
+    public Iterable<User> findAllById(Iterable<String> ids) {
+        List<User> result = new ArrayList<>();
+        ids.forEach(id -> table.get(id).ifPresent(result::add));
+        return result;
+    }
+
+    @Override
+    public long count() {
+        return table.count();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        table.delete(id);
+    }
+
+    @Override
+    public void delete(User entity) {
+        table.delete(entity.getUserId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(table::delete);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends User> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        table.deleteAll();
+    }
+
+    private void assignId(User user) {
+        if (user.getUserId() == null) {
+            user.setUserId(UUID.randomUUID().toString());
+        }
+    }
+}
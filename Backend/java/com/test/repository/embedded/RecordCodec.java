@@ -0,0 +1,49 @@
+package com.test.repository.embedded;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+* Binary encoding of one entity type in the embedded store.
+* decode() reads straight from the mapped log region; only Strings are materialized.
+*/
+interface RecordCodec<T> {
+
+    String key(T entity);
+
+    /** Key of the secondary index (e.g. userId for trades), or null if the entity is not indexed. */
+    String secondaryKey(T entity);
+
+    void encode(T entity, ByteBuffer out);
+
+    T decode(ByteBuffer in);
+
+    // --- Field helpers: nullable values carry a length / presence prefix ---
+
+    static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length);
+        out.put(bytes);
+    }
+
+    static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void putLong(ByteBuffer out, Long value) {
+        out.put((byte) (value == null ? 0 : 1));
+        if (value != null) out.putLong(value);
+    }
+
+    static Long getLong(ByteBuffer in) {
+        return in.get() == 0 ? null : in.getLong();
+    }
+}
@@ -0,0 +1,76 @@
+package com.test.repository.embedded;
+
+import com.test.model.Money;
+import com.test.model.Stock;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+* Trade record layout, version 3:
+* version, stockId, userId, type, symbol, quantity, purchasePrice, currentPrice, gainLoss, timestamp, tradeDate, splitFrom, splitTo
+* with the three money fields as long micro-units. Version 2 (no split ratio) and version 1 (money as doubles) are still read.
+*/
+class StockCodec implements RecordCodec<Stock> {
+    private static final byte VERSION = 3;
+    private static final byte VERSION_NO_SPLIT = 2;
+    private static final byte VERSION_DOUBLES = 1;
+
+    @Override
+    public String key(Stock stock) {
+        return stock.getStockId();
+    }
+
+    @Override
+    public String secondaryKey(Stock stock) {
+        return stock.getUserId();
+    }
+
+    @Override
+    public void encode(Stock s, ByteBuffer out) {
+        out.put(VERSION);
+        RecordCodec.putString(out, s.getStockId());
+        RecordCodec.putString(out, s.getUserId());
+        RecordCodec.putString(out, s.getType());
+        RecordCodec.putString(out, s.getSymbol());
+        out.putInt(s.getQuantity());
+        out.putLong(s.getPurchasePriceMicros());
+        out.putLong(s.getCurrentPriceMicros());
+        out.putLong(s.getGainLossMicros());
+        RecordCodec.putLong(out, s.getTimestamp());
+        RecordCodec.putString(out, s.getTradeDate());
+        out.putInt(s.getSplitFrom());
+        out.putInt(s.getSplitTo());
+    }
+
+    @Override
+    public Stock decode(ByteBuffer in) {
+        byte version = in.get();
+        if (version != VERSION && version != VERSION_NO_SPLIT && version != VERSION_DOUBLES) {
+            throw new UncheckedIOException(new IOException("Unknown trade record version " + version));
+        }
+        Stock s = new Stock();
+        s.setStockId(RecordCodec.getString(in));
+        s.setUserId(RecordCodec.getString(in));
+        s.setType(RecordCodec.getString(in));
+        s.setSymbol(RecordCodec.getString(in));
+        s.setQuantity(in.getInt());
+        if (version == VERSION_DOUBLES) {
+            s.setPurchasePriceMicros(Money.ofDouble(in.getDouble()));
+            s.setCurrentPriceMicros(Money.ofDouble(in.getDouble()));
+            s.setGainLossMicros(Money.ofDouble(in.getDouble()));
+        } else {
+            s.setPurchasePriceMicros(in.getLong());
+            s.setCurrentPriceMicros(in.getLong());
+            s.setGainLossMicros(in.getLong());
+        }
+        s.setTimestamp(RecordCodec.getLong(in));
+        s.setTradeDate(RecordCodec.getString(in));
+        if (version == VERSION) {
+            s.setSplitFrom(in.getInt());
+            s.setSplitTo(in.getInt());
+        }
+        return s;
+    }
+}
@@ -0,0 +1,56 @@
+package com.test.repository.embedded;
+
+import com.test.model.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+* User record layout, version 1:
+* version, userId, email, username, password (hash), firstName, lastName, riskAppetite, experience
+*/
+class UserCodec implements RecordCodec<User> {
+    private static final byte VERSION = 1;
+
+    @Override
+    public String key(User user) {
+        return user.getUserId();
+    }
+
+    @Override
+    public String secondaryKey(User user) {
+        return user.getEmail();
+    }
+
+    @Override
+    public void encode(User u, ByteBuffer out) {
+        out.put(VERSION);
+        RecordCodec.putString(out, u.getUserId());
+        RecordCodec.putString(out, u.getEmail());
+        RecordCodec.putString(out, u.getUsername());
+        RecordCodec.putString(out, u.getPassword());
+        RecordCodec.putString(out, u.getFirstName());
+        RecordCodec.putString(out, u.getLastName());
+        RecordCodec.putString(out, u.getRiskAppetite());
+        RecordCodec.putString(out, u.getExperience());
+    }
+
+    @Override
+    public User decode(ByteBuffer in) {
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new UncheckedIOException(new IOException("Unknown user record version " + version));
+        }
+        User u = new User();
+        u.setUserId(RecordCodec.getString(in));
+        u.setEmail(RecordCodec.getString(in));
+        u.setUsername(RecordCodec.getString(in));
+        u.setPassword(RecordCodec.getString(in));
+        u.setFirstName(RecordCodec.getString(in));
+        u.setLastName(RecordCodec.getString(in));
+        u.setRiskAppetite(RecordCodec.getString(in));
+        u.setExperience(RecordCodec.getString(in));
+        return u;
+    }
+}
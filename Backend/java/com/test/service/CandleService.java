@@ -0,0 +1,133 @@
+package com.test.service;
+
+import com.test.marketdata.MarketDataProvider;
+import com.test.metrics.MetricsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+* Daily closes per symbol from MarketDataProvider.getCandles(), as primitive arrays, cached for the rest of the (UTC) day.
+* Daily bars only change once a day, so one fetch per symbol per day serves every risk request.
+*/
+@Service
+public class CandleService {
+
+    @Autowired private MarketDataProvider marketData;
+    @Autowired private MetricsRegistry metrics;
+
+    @Value("${risk.lookback-days:1825}")
+    private int lookbackDays;
+
+    @Value("${candles.fetch-timeout-ms:15000}")
+    private long fetchTimeoutMs;
+
+    private final Map<String, CachedSeries> cache = new ConcurrentHashMap<>();
+    private final ExecutorService fetchExecutor;
+
+    public CandleService(@Value("${candles.fetch-threads:8}") int fetchThreads) {
+        this.fetchExecutor = Executors.newFixedThreadPool(fetchThreads, r -> {
+            Thread t = new Thread(r, "candle-fetch");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    /** Daily closes, oldest first; days[i] is the epoch day of closes[i]. */
+    public static class DailySeries {
+        public static final DailySeries EMPTY = new DailySeries(new long[0], new double[0]);
+
+        private final long[] days;
+        private final double[] closes;
+
+        DailySeries(long[] days, double[] closes) {
+            this.days = days;
+            this.closes = closes;
+        }
+
+        public long[] getDays() { return days; }
+        public double[] getCloses() { return closes; }
+        public boolean isEmpty() { return closes.length == 0; }
+    }
+
+    private static final class CachedSeries {
+        final LocalDate day;
+        final CompletableFuture<DailySeries> series;
+
+        CachedSeries(LocalDate day, CompletableFuture<DailySeries> series) {
+            this.day = day;
+            this.series = series;
+        }
+    }
+
+    /** Closes for all symbols, fetched concurrently where not cached today. Symbols without data map to EMPTY. */
+    public Map<String, DailySeries> getDailyCloses(Collection<String> symbols) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        Map<String, CompletableFuture<DailySeries>> pending = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            pending.putIfAbsent(symbol.toUpperCase(), load(symbol.toUpperCase(), today));
+        }
+
+        Map<String, DailySeries> result = new LinkedHashMap<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(fetchTimeoutMs);
+        for (Map.Entry<String, CompletableFuture<DailySeries>> entry : pending.entrySet()) {
+            try {
+                result.put(entry.getKey(), entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.put(entry.getKey(), DailySeries.EMPTY);
+            } catch (ExecutionException | TimeoutException e) {
+                result.put(entry.getKey(), DailySeries.EMPTY);
+            }
+        }
+        return result;
+    }
+
+    private CompletableFuture<DailySeries> load(String symbol, LocalDate today) {
+        CachedSeries cached = cache.compute(symbol, (s, existing) -> {
+            if (existing != null && existing.day.equals(today) && !existing.series.isCompletedExceptionally()) {
+                return existing;
+            }
+            return new CachedSeries(today, CompletableFuture.supplyAsync(() -> fetch(s, today), fetchExecutor));
+        });
+        metrics.increment("candle_cache_total", "result", cached.series.isDone() ? "hit" : "miss");
+
+        // Don't keep an empty answer (provider error / throttling) for the whole day
+        cached.series.thenAccept(series -> {
+            if (series.isEmpty()) cache.remove(symbol, cached);
+        });
+        return cached.series;
+    }
+
+    @SuppressWarnings("unchecked")
+    private DailySeries fetch(String symbol, LocalDate today) {
+        long to = today.plusDays(1).atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+        long from = today.minusDays(lookbackDays).atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+        Map<String, Object> candles = marketData.getCandles(symbol, "D", from, to);
+        if (candles == null || !"ok".equals(candles.get("s"))) return DailySeries.EMPTY;
+
+        List<Number> closes = (List<Number>) candles.get("c");
+        List<Number> timestamps = (List<Number>) candles.get("t");
+        if (closes == null || timestamps == null) return DailySeries.EMPTY;
+
+        int n = Math.min(closes.size(), timestamps.size());
+        long[] days = new long[n];
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            days[i] = Math.floorDiv(timestamps.get(i).longValue(), 86_400L);
+            values[i] = closes.get(i).doubleValue();
+        }
+        return new DailySeries(days, values);
+    }
+}
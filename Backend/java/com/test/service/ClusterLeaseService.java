@@ -0,0 +1,196 @@
+package com.test.service;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBDeleteExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
+import com.amazonaws.services.dynamodbv2.model.*;
+import com.test.metrics.MetricsRegistry;
+import com.test.model.ClusterLease;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+* Leader election for cluster mode (cluster.enabled): every instance tries to take or renew the quote lease
+* in ClusterLeases every cluster.lease.renew-ms, with a conditional write that only succeeds when the lease is
+* free, expired or already ours. The holder is the leader until its lease runs out; if it stops renewing,
+* another instance takes over after at most cluster.lease.duration-ms.
+*
+* The leader stops calling itself leader cluster.lease.clock-skew-ms before the expiry the others see,
+* so two instances never publish at once as long as their clocks are closer than that.
+*
+* The heartbeat runs on its own thread, not on Spring's shared scheduler: the nightly archive, the symbol refresh
+* and the quote publish would otherwise delay renewals past the lease and make leadership flap.
+*/
+@Service
+public class ClusterLeaseService {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterLeaseService.class);
+
+    public static final String QUOTE_LEASE = "quote-publisher";
+
+    @Autowired private DynamoDBMapper dynamoDBMapper;
+    @Autowired private MetricsRegistry metrics;
+
+    @Value("${cluster.enabled:false}")
+    private boolean enabled;
+
+    // Blank = host name plus a random suffix, so restarts count as new owners
+    @Value("${cluster.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${cluster.lease.duration-ms:15000}")
+    private long leaseMs;
+
+    @Value("${cluster.lease.clock-skew-ms:1000}")
+    private long clockSkewMs;
+
+    @Value("${cluster.lease.renew-ms:5000}")
+    private long renewMs;
+
+    @Value("${cluster.lease.initial-delay-ms:1000}")
+    private long initialDelayMs;
+
+    private ScheduledExecutorService heartbeatExecutor;
+
+    private String nodeId;
+    private volatile long leaderUntil;
+    private volatile long acquiredAt;
+
+    @PostConstruct
+    public void init() {
+        nodeId = configuredNodeId.isBlank() ? defaultNodeId() : configuredNodeId;
+        metrics.gauge("cluster_leader", () -> isLeader() ? 1 : 0);
+        if (enabled) {
+            logger.info("Cluster mode on as {} (lease {} ms)", nodeId, leaseMs);
+            heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "cluster-lease");
+                t.setDaemon(true);
+                return t;
+            });
+            heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, initialDelayMs, renewMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /** Holds the quote lease right now: fetches from the provider and publishes to SharedPrices. */
+    public boolean isLeader() {
+        return enabled && System.currentTimeMillis() < leaderUntil;
+    }
+
+    /** Cluster mode without the lease: quotes come from SharedPrices first. */
+    public boolean isFollower() {
+        return enabled && !isLeader();
+    }
+
+    public void heartbeat() {
+        if (!enabled) return;
+        boolean wasLeader = isLeader();
+        // Timed from before the write: the others see expiresAt, we stop a margin earlier
+        long now = System.currentTimeMillis();
+
+        ClusterLease lease = new ClusterLease();
+        lease.setLeaseName(QUOTE_LEASE);
+        lease.setOwnerId(nodeId);
+        lease.setExpiresAt(now + leaseMs);
+        lease.setAcquiredAt(wasLeader ? acquiredAt : now);
+        lease.setRenewedAt(now);
+
+        Map<String, ExpectedAttributeValue> expected = new HashMap<>();
+        expected.put("leaseName", new ExpectedAttributeValue(false));
+        expected.put("expiresAt", new ExpectedAttributeValue()
+                .withComparisonOperator(ComparisonOperator.LT)
+                .withAttributeValueList(new AttributeValue().withN(Long.toString(now))));
+        expected.put("ownerId", new ExpectedAttributeValue()
+                .withComparisonOperator(ComparisonOperator.EQ)
+                .withAttributeValueList(new AttributeValue(nodeId)));
+
+        try {
+            dynamoDBMapper.save(lease, new DynamoDBSaveExpression()
+                    .withExpected(expected)
+                    .withConditionalOperator(ConditionalOperator.OR));
+            leaderUntil = now + leaseMs - clockSkewMs;
+            if (!wasLeader) {
+                acquiredAt = now;
+                metrics.increment("cluster_leader_changes_total", "change", "acquired");
+                logger.info("{} took the {} lease", nodeId, QUOTE_LEASE);
+            }
+        } catch (ConditionalCheckFailedException e) {
+            // Someone else holds an unexpired lease
+            leaderUntil = 0;
+            if (wasLeader) {
+                metrics.increment("cluster_leader_changes_total", "change", "lost");
+                logger.warn("{} lost the {} lease", nodeId, QUOTE_LEASE);
+            }
+        } catch (Exception e) {
+            // DynamoDB unreachable: a leader stays one until its current lease would run out
+            metrics.increment("cluster_lease_errors_total");
+            logger.warn("Lease heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    // Graceful shutdown hands over at once instead of after the lease expires
+    @PreDestroy
+    public void release() {
+        if (heartbeatExecutor != null) {
+            heartbeatExecutor.shutdownNow();
+        }
+        if (!isLeader()) return;
+        leaderUntil = 0;
+        try {
+            ClusterLease lease = new ClusterLease();
+            lease.setLeaseName(QUOTE_LEASE);
+            dynamoDBMapper.delete(lease, new DynamoDBDeleteExpression().withExpected(Map.of("ownerId",
+                    new ExpectedAttributeValue().withComparisonOperator(ComparisonOperator.EQ)
+                            .withAttributeValueList(new AttributeValue(nodeId)))));
+            logger.info("{} released the {} lease", nodeId, QUOTE_LEASE);
+        } catch (Exception e) {
+            logger.warn("Could not release the {} lease: {}", QUOTE_LEASE, e.getMessage());
+        }
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("nodeId", nodeId);
+        status.put("leader", isLeader());
+        if (!enabled) return status;
+        try {
+            ClusterLease lease = dynamoDBMapper.load(ClusterLease.class, QUOTE_LEASE);
+            if (lease != null) {
+                status.put("leaseOwner", lease.getOwnerId());
+                status.put("leaseExpiresAt", lease.getExpiresAt());
+                status.put("leaseAcquiredAt", lease.getAcquiredAt());
+            }
+        } catch (Exception e) {
+            status.put("error", e.getMessage());
+        }
+        return status;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,279 @@
+package com.test.service;
+
+import com.test.metrics.MetricsRegistry;
+import com.test.model.CorporateAction;
+import com.test.model.Stock;
+import com.test.repository.CorporateActionRepository;
+import com.test.repository.StockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+* Applies splits and cash dividends to every holder of a symbol as SPLIT / DIVIDEND adjustment rows in the
+* ledger, so history is never rewritten and the normal replay (LedgerService.Position) does the math.
+* Holders come from the SymbolHolders index instead of a table scan. They are processed in userId order,
+* in waves of `threads` chunks of `batch-size` users; each chunk is one batch write and runs in parallel,
+* and the action's cursor is saved after every wave. Adjustment ids are derived from the action and user,
+* so re-running a wave after a crash overwrites the same rows instead of adding new ones.
+*/
+@Service
+public class CorporateActionService {
+    private static final Logger logger = LoggerFactory.getLogger(CorporateActionService.class);
+
+    public static final String SPLIT = "SPLIT";
+    public static final String DIVIDEND = "DIVIDEND";
+    public static final String PENDING = "PENDING";
+    public static final String RUNNING = "RUNNING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    @Autowired private CorporateActionRepository corporateActionRepository;
+    @Autowired private StockRepository stockRepository;
+    @Autowired private HolderIndexService holderIndexService;
+    @Autowired private LedgerService ledgerService;
+    @Autowired private MetricsRegistry metrics;
+
+    // 25 = one DynamoDB BatchWriteItem
+    @Value("${corporate-actions.batch-size:25}")
+    private int batchSize;
+
+    private final int threads;
+    private final ExecutorService runner;
+    private final ExecutorService workers;
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public CorporateActionService(@Value("${corporate-actions.threads:8}") int threads) {
+        this.threads = Math.max(1, threads);
+        this.runner = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "corporate-actions");
+            t.setDaemon(true);
+            return t;
+        });
+        this.workers = Executors.newFixedThreadPool(this.threads, r -> {
+            Thread t = new Thread(r, "corporate-action-batch");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    public static String actionId(String symbol, String type, String exDate) {
+        return symbol.toUpperCase() + "-" + type.toUpperCase() + "-" + exDate;
+    }
+
+    /** Saves and starts a new action; an action with the same symbol, type and ex-date is returned (and resumed) instead. */
+    public CorporateAction submit(CorporateAction request) {
+        String id = actionId(request.getSymbol(), request.getType(), request.getExDate());
+        Optional<CorporateAction> existing = corporateActionRepository.findById(id);
+        if (existing.isPresent()) {
+            return resume(id).orElse(existing.get());
+        }
+
+        CorporateAction action = new CorporateAction();
+        action.setActionId(id);
+        action.setSymbol(request.getSymbol().toUpperCase());
+        action.setType(request.getType().toUpperCase());
+        action.setExDate(request.getExDate());
+        action.setSplitFrom(request.getSplitFrom());
+        action.setSplitTo(request.getSplitTo());
+        action.setCashPerShareMicros(request.getCashPerShareMicros());
+        action.setStatus(PENDING);
+        action.setCreatedAt(System.currentTimeMillis());
+        corporateActionRepository.save(action);
+        start(action);
+        return action;
+    }
+
+    /** Continues an unfinished action from its cursor; DONE actions are returned as they are. */
+    public Optional<CorporateAction> resume(String actionId) {
+        return corporateActionRepository.findById(actionId).map(action -> {
+            if (!DONE.equals(action.getStatus())) start(action);
+            return action;
+        });
+    }
+
+    /**
+    * Runs a finished or failed action again from the first holder, e.g. after holders' ledgers were fixed.
+    * Adjustment ids are the same, so every holder's row is recomputed and overwritten, not added twice.
+    * Empty if the action does not exist; a run already in progress is left alone and returned as it is.
+    */
+    public Optional<CorporateAction> rerun(String actionId) {
+        return corporateActionRepository.findById(actionId).map(action -> {
+            if (isRunning(actionId)) return action;
+            action.setStatus(PENDING);
+            action.setProcessed(0);
+            action.setAdjusted(0);
+            action.setLastUserId(null);
+            action.setError(null);
+            action.setStartedAt(null);
+            action.setCompletedAt(null);
+            corporateActionRepository.save(action);
+            metrics.increment("corporate_action_reruns_total", "type", action.getType());
+            start(action);
+            return action;
+        });
+    }
+
+    public boolean isRunning(String actionId) {
+        return running.contains(actionId);
+    }
+
+    public Optional<CorporateAction> get(String actionId) {
+        return corporateActionRepository.findById(actionId);
+    }
+
+    public List<CorporateAction> list() {
+        List<CorporateAction> actions = new ArrayList<>();
+        corporateActionRepository.findAll().forEach(actions::add);
+        actions.sort(Comparator.comparing((CorporateAction a) -> a.getCreatedAt() != null ? a.getCreatedAt() : 0L).reversed());
+        return actions;
+    }
+
+    private void start(CorporateAction action) {
+        if (!running.add(action.getActionId())) return;
+        runner.execute(() -> {
+            try {
+                process(action);
+            } finally {
+                running.remove(action.getActionId());
+            }
+        });
+    }
+
+    private void process(CorporateAction action) {
+        long started = System.nanoTime();
+        try {
+            action.setStatus(RUNNING);
+            if (action.getStartedAt() == null) action.setStartedAt(System.currentTimeMillis());
+            action.setError(null);
+
+            List<String> holders = holderIndexService.getHolders(action.getSymbol());
+            action.setHolders(holders.size());
+            corporateActionRepository.save(action);
+
+            // Resume after the last user of the last completed wave
+            int from = 0;
+            if (action.getLastUserId() != null) {
+                int pos = Collections.binarySearch(holders, action.getLastUserId());
+                from = pos >= 0 ? pos + 1 : -pos - 1;
+            }
+            logger.info("Corporate action {}: {} holders, starting at #{}", action.getActionId(), holders.size(), from);
+
+            int wave = batchSize * threads;
+            for (int i = from; i < holders.size(); i += wave) {
+                int end = Math.min(holders.size(), i + wave);
+                List<Future<Integer>> chunks = new ArrayList<>();
+                for (int c = i; c < end; c += batchSize) {
+                    List<String> users = holders.subList(c, Math.min(end, c + batchSize));
+                    chunks.add(workers.submit(() -> applyChunk(action, users)));
+                }
+                int adjusted = 0;
+                for (Future<Integer> chunk : chunks) {
+                    adjusted += chunk.get();
+                }
+
+                // Checkpoint: everything up to holders[end - 1] is written
+                action.setAdjusted(action.getAdjusted() + adjusted);
+                action.setProcessed(end);
+                action.setLastUserId(holders.get(end - 1));
+                corporateActionRepository.save(action);
+            }
+
+            action.setStatus(DONE);
+            action.setCompletedAt(System.currentTimeMillis());
+            corporateActionRepository.save(action);
+            metrics.increment("corporate_actions_total", "type", action.getType(), "result", "done");
+            logger.info("Corporate action {} done: {} of {} holders adjusted in {} ms", action.getActionId(),
+                    action.getAdjusted(), holders.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            logger.error("Corporate action {} failed at {}: {}", action.getActionId(), action.getLastUserId(), cause.getMessage(), cause);
+            action.setStatus(FAILED);
+            action.setError(cause.getMessage());
+            corporateActionRepository.save(action);
+            metrics.increment("corporate_actions_total", "type", action.getType(), "result", "failed");
+        } finally {
+            metrics.recordNanos("corporate_action_seconds", System.nanoTime() - started);
+        }
+    }
+
+    /** Writes the adjustment rows of one chunk of holders with one batch write. Returns how many were written. */
+    private int applyChunk(CorporateAction action, List<String> users) {
+        long exTimestamp = LocalDate.parse(action.getExDate()).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        List<Stock> adjustments = new ArrayList<>(users.size());
+        List<Stock> replays = new ArrayList<>();
+
+        for (String userId : users) {
+            Stock adjustment = adjustmentFor(action, userId, exTimestamp);
+            List<Stock> trades = ledgerService.getSymbolTrades(userId, action.getSymbol());
+            // A previous run may already have written it
+            trades.removeIf(t -> adjustment.getStockId().equals(t.getStockId()));
+
+            // Position going into the ex-date
+            LedgerService.Position position = new LedgerService.Position();
+            int next = 0;
+            while (next < trades.size() && LedgerService.CHRONOLOGICAL.compare(trades.get(next), adjustment) < 0) {
+                position.apply(trades.get(next++));
+            }
+            boolean laterTrades = next < trades.size();
+
+            if (position.getQuantity() <= 0) {
+                if (!laterTrades) {
+                    // Stale index entry (trades deleted or sold before the ex-date)
+                    holderIndexService.removeHolder(userId, action.getSymbol());
+                }
+                continue;
+            }
+
+            int held = position.getQuantity();
+            long realized = position.apply(adjustment);
+            LedgerService.updateDerived(adjustment, held, position.getQuantity(), realized);
+            adjustments.add(adjustment);
+            // Later SELLs were priced against the unadjusted position
+            if (laterTrades) replays.add(adjustment);
+        }
+
+        if (!adjustments.isEmpty()) {
+            stockRepository.saveAll(adjustments);
+        }
+        // The index has usually not caught up with the rows just written: recomputeAfterChange
+        // replays with this instance in place of (or in addition to) whatever the index returns
+        for (Stock adjustment : replays) {
+            ledgerService.recomputeAfterChange(adjustment);
+        }
+        metrics.observe("corporate_action_batch_size", adjustments.size(), MetricsRegistry.SIZE_BUCKETS);
+        return adjustments.size();
+    }
+
+    private static Stock adjustmentFor(CorporateAction action, String userId, long exTimestamp) {
+        Stock s = new Stock();
+        s.setStockId(action.getActionId() + ":" + userId);
+        s.setUserId(userId);
+        s.setSymbol(action.getSymbol());
+        s.setType(action.getType());
+        s.setTimestamp(exTimestamp);
+        s.setTradeDate(action.getExDate());
+        if (SPLIT.equals(action.getType())) {
+            s.setSplitFrom(action.getSplitFrom());
+            s.setSplitTo(action.getSplitTo());
+        } else {
+            s.setPurchasePriceMicros(action.getCashPerShareMicros());
+        }
+        return s;
+    }
+}
@@ -0,0 +1,84 @@
+package com.test.service;
+
+import com.test.metrics.MetricsRegistry;
+import com.test.model.LedgerArchive;
+import com.test.model.Stock;
+import com.test.repository.StockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+* Everything the dashboard shows from one ledger read: the summary cards, the holdings list, the allocation
+* and the first page of the trade history. Summary, holdings and allocation come from one ValuationService
+* pass, the same one behind /api/portfolio/summary and /api/stocks, which each pay for it separately.
+* Sections the caller did not ask for are skipped: no valuation without summary / holdings / allocation,
+* no archive read without history.
+*/
+@Service
+public class DashboardService {
+
+    public static final String SUMMARY = "summary";
+    public static final String HOLDINGS = "holdings";
+    public static final String ALLOCATION = "allocation";
+    public static final String HISTORY = "history";
+    public static final Set<String> FIELDS = Set.of(SUMMARY, HOLDINGS, ALLOCATION, HISTORY);
+
+    private static final Comparator<Stock> NEWEST_FIRST = LedgerService.CHRONOLOGICAL.reversed();
+
+    @Autowired private StockRepository stockRepository;
+    @Autowired private LedgerArchiveService ledgerArchiveService;
+    @Autowired private ValuationService valuationService;
+    @Autowired private MetricsRegistry metrics;
+
+    public Map<String, Object> build(String userId, Set<String> fields, int historyLimit) {
+        List<Stock> ledger = stockRepository.findByUserId(userId);
+        metrics.observe("ledger_size_trades", ledger.size(), MetricsRegistry.SIZE_BUCKETS, "endpoint", "dashboard");
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        if (fields.contains(SUMMARY) || fields.contains(HOLDINGS) || fields.contains(ALLOCATION)) {
+            // Shaped like the separate endpoints so the frontend can use either
+            ValuationService.Valuation valuation = valuationService.valuate(ledger, "dashboard");
+            if (fields.contains(SUMMARY)) response.put(SUMMARY, valuation.summary());
+            if (fields.contains(HOLDINGS)) response.put(HOLDINGS, valuation.getHoldings());
+            if (fields.contains(ALLOCATION)) response.put(ALLOCATION, valuation.allocation());
+        }
+        if (fields.contains(HISTORY)) {
+            response.put(HISTORY, historyPage(userId, ledger, historyLimit));
+        }
+        return response;
+    }
+
+    /**
+    * Newest trades first, archived ones included. Only archive chunks that reach past the oldest trade
+    * of the hot page can contribute, so older chunks are counted but not decompressed.
+    */
+    private Map<String, Object> historyPage(String userId, List<Stock> ledger, int limit) {
+        LedgerArchiveService.Archived archived = ledgerArchiveService.read(userId);
+        List<Stock> trades = new ArrayList<>();
+        for (Stock s : ledger) {
+            if (archived.isVisible(s)) trades.add(s);
+        }
+        long total = trades.size();
+        trades.sort(NEWEST_FIRST);
+
+        long oldestOnPage = trades.size() >= limit ? timestamp(trades.get(limit - 1)) : Long.MIN_VALUE;
+        for (LedgerArchive chunk : archived.getChunks()) {
+            total += chunk.getTradeCount();
+            long through = chunk.getThroughTimestamp() != null ? chunk.getThroughTimestamp() : 0;
+            if (through >= oldestOnPage) trades.addAll(archived.decode(chunk));
+        }
+        trades.sort(NEWEST_FIRST);
+
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("trades", trades.subList(0, Math.min(limit, trades.size())));
+        page.put("total", total);
+        page.put("hasMore", total > limit);
+        return page;
+    }
+
+    private static long timestamp(Stock s) {
+        return s.getTimestamp() != null ? s.getTimestamp() : 0;
+    }
+}
@@ -0,0 +1,287 @@
+package com.test.service;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.test.metrics.MetricsRegistry;
+import com.test.model.Money;
+import com.test.model.Stock;
+import com.test.repository.StockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+* House-wide exposure per symbol (shares, cost basis, market value) across all users.
+* Reads the Stocks table with a DynamoDB parallel scan (one fork-join task per segment), or the whole
+* embedded ledger with ledger.store=embedded, replays every (user, symbol) position and reduces them
+* into per-symbol totals.
+* The result is cached for report.exposure.cache-minutes.
+*/
+@Service
+public class ExposureReportService {
+    private static final Logger logger = LoggerFactory.getLogger(ExposureReportService.class);
+
+    // Replay tasks smaller than this run sequentially
+    private static final int REPLAY_THRESHOLD = 512;
+
+    @Autowired private DynamoDBMapper dynamoDBMapper;
+    @Autowired private StockRepository stockRepository;
+    @Autowired private QuoteService quoteService;
+    @Autowired private MetricsRegistry metrics;
+
+    @Value("${ledger.store:dynamodb}")
+    private String ledgerStore;
+
+    @Value("${report.exposure.cache-minutes:15}")
+    private long cacheMinutes;
+
+    private final int segments;
+    private final ForkJoinPool pool;
+
+    private volatile Map<String, Object> cachedReport;
+    private volatile long cachedAt;
+
+    public ExposureReportService(@Value("${report.exposure.segments:8}") int segments) {
+        this.segments = Math.max(1, segments);
+        this.pool = new ForkJoinPool(this.segments);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public Map<String, Object> getReport(boolean forceRefresh) {
+        Map<String, Object> report = cachedReport;
+        if (!forceRefresh && report != null && !isStale()) {
+            metrics.increment("exposure_report_cache_total", "result", "hit");
+            return report;
+        }
+        metrics.increment("exposure_report_cache_total", "result", "miss");
+        return refresh(forceRefresh);
+    }
+
+    private synchronized Map<String, Object> refresh(boolean force) {
+        // Another caller may have refreshed while we waited for the lock
+        if (!force && cachedReport != null && !isStale()) {
+            return cachedReport;
+        }
+        cachedReport = buildReport();
+        cachedAt = System.currentTimeMillis();
+        return cachedReport;
+    }
+
+    private boolean isStale() {
+        return System.currentTimeMillis() - cachedAt > TimeUnit.MINUTES.toMillis(cacheMinutes);
+    }
+
+    private Map<String, Object> buildReport() {
+        long started = System.currentTimeMillis();
+
+        // 1. Every trade grouped by "<userId>#<SYMBOL>"
+        Map<String, List<Stock>> positions = new HashMap<>();
+        long scanned = 0;
+        if ("embedded".equals(ledgerStore)) {
+            // Trades live in the local log, the DynamoDB Stocks table no longer receives them
+            for (Stock s : stockRepository.findAll()) {
+                scanned++;
+                if (s.getUserId() == null || s.getSymbol() == null) continue;
+                positions.computeIfAbsent(s.getUserId() + "#" + s.getSymbol().toUpperCase(), k -> new ArrayList<>()).add(s);
+            }
+        } else {
+            // Parallel scan: one task per segment
+            List<ScanSegmentTask> scans = new ArrayList<>();
+            for (int segment = 0; segment < segments; segment++) {
+                ScanSegmentTask task = new ScanSegmentTask(segment);
+                pool.execute(task);
+                scans.add(task);
+            }
+            for (ScanSegmentTask task : scans) {
+                task.join();
+                scanned += task.scanned;
+                task.result.forEach((key, trades) -> positions.computeIfAbsent(key, k -> new ArrayList<>()).addAll(trades));
+            }
+        }
+
+        // 2. Dense int ids per symbol, so the reduction works on primitive arrays instead of boxed maps
+        Map<String, Integer> symbolIds = new HashMap<>();
+        List<String> symbols = new ArrayList<>();
+        List<List<Stock>> ledgers = new ArrayList<>(positions.size());
+        int[] ledgerSymbol = new int[positions.size()];
+        for (Map.Entry<String, List<Stock>> entry : positions.entrySet()) {
+            String symbol = entry.getKey().substring(entry.getKey().indexOf('#') + 1);
+            Integer id = symbolIds.get(symbol);
+            if (id == null) {
+                id = symbols.size();
+                symbolIds.put(symbol, id);
+                symbols.add(symbol);
+            }
+            ledgerSymbol[ledgers.size()] = id;
+            ledgers.add(entry.getValue());
+        }
+
+        // 3. Replay every position and reduce into per-symbol totals on the fork-join pool
+        SymbolTotals totals = pool.invoke(new ReplayTask(ledgers, ledgerSymbol, symbols.size(), 0, ledgers.size()));
+
+        // 4. Market value, one quote per held symbol (money in micro-units until the report is built)
+        long[] prices = new long[symbols.size()];
+        pool.submit(() -> Arrays.parallelSetAll(prices, i -> totals.shares[i] > 0 ? quote(symbols.get(i)) : 0)).join();
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        long totalCost = 0, totalValue = 0;
+        for (int i = 0; i < symbols.size(); i++) {
+            if (totals.shares[i] <= 0) continue;
+            long marketValue = Money.times(prices[i], totals.shares[i]);
+            totalCost += totals.costBasis[i];
+            totalValue += marketValue;
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("symbol", symbols.get(i));
+            row.put("holders", totals.holders[i]);
+            row.put("shares", totals.shares[i]);
+            row.put("costBasis", Money.toDouble(totals.costBasis[i]));
+            row.put("currentPrice", Money.toDouble(prices[i]));
+            row.put("marketValue", Money.toDouble(marketValue));
+            rows.add(row);
+        }
+        rows.sort(Comparator.comparingDouble((Map<String, Object> r) -> (Double) r.get("marketValue")).reversed());
+
+        long durationMs = System.currentTimeMillis() - started;
+        metrics.recordNanos("exposure_report_build_seconds", TimeUnit.MILLISECONDS.toNanos(durationMs));
+        logger.info("Exposure report: {} items, {} positions, {} symbols in {} ms", scanned, ledgers.size(), rows.size(), durationMs);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generatedAt", System.currentTimeMillis());
+        report.put("durationMs", durationMs);
+        report.put("segments", segments);
+        report.put("scannedItems", scanned);
+        report.put("positions", ledgers.size());
+        report.put("totalCostBasis", Money.toDouble(totalCost));
+        report.put("totalMarketValue", Money.toDouble(totalValue));
+        report.put("symbols", rows);
+        return report;
+    }
+
+    private long quote(String symbol) {
+        try {
+            Map<String, Object> quote = quoteService.getQuote(symbol);
+            if (quote != null && quote.get("c") != null) {
+                return Money.ofDouble(Double.parseDouble(quote.get("c").toString()));
+            }
+        } catch (Exception e) {
+            logger.warn("Exposure report: no quote for {}: {}", symbol, e.getMessage());
+        }
+        return 0;
+    }
+
+    // --- Fork-join tasks ---
+
+    private class ScanSegmentTask extends RecursiveTask<ScanSegmentTask> {
+        private final int segment;
+        private final Map<String, List<Stock>> result = new HashMap<>();
+        private long scanned;
+
+        ScanSegmentTask(int segment) {
+            this.segment = segment;
+        }
+
+        @Override
+        protected ScanSegmentTask compute() {
+            // Only the attributes the replay needs, split ratios included ("type" and "timestamp" are reserved words)
+            DynamoDBScanExpression scan = new DynamoDBScanExpression()
+                    .withSegment(segment)
+                    .withTotalSegments(segments)
+                    .withProjectionExpression("stockId, userId, symbol, #type, quantity, purchasePrice, splitFrom, splitTo, #ts")
+                    .withExpressionAttributeNames(Map.of("#type", "type", "#ts", "timestamp"));
+
+            Map<String, AttributeValue> lastKey = null;
+            do {
+                scan.setExclusiveStartKey(lastKey);
+                ScanResultPage<Stock> page = dynamoDBMapper.scanPage(Stock.class, scan);
+                for (Stock s : page.getResults()) {
+                    if (s.getUserId() == null || s.getSymbol() == null) continue;
+                    result.computeIfAbsent(s.getUserId() + "#" + s.getSymbol().toUpperCase(), k -> new ArrayList<>()).add(s);
+                }
+                scanned += page.getCount();
+                lastKey = page.getLastEvaluatedKey();
+            } while (lastKey != null);
+            return this;
+        }
+    }
+
+    private static class SymbolTotals {
+        final long[] shares;
+        // Micro-units
+        final long[] costBasis;
+        final int[] holders;
+
+        SymbolTotals(int symbols) {
+            shares = new long[symbols];
+            costBasis = new long[symbols];
+            holders = new int[symbols];
+        }
+
+        SymbolTotals merge(SymbolTotals other) {
+            for (int i = 0; i < shares.length; i++) {
+                shares[i] += other.shares[i];
+                costBasis[i] += other.costBasis[i];
+                holders[i] += other.holders[i];
+            }
+            return this;
+        }
+    }
+
+    private static class ReplayTask extends RecursiveTask<SymbolTotals> {
+        private final List<List<Stock>> ledgers;
+        private final int[] ledgerSymbol;
+        private final int symbols;
+        private final int from, to;
+
+        ReplayTask(List<List<Stock>> ledgers, int[] ledgerSymbol, int symbols, int from, int to) {
+            this.ledgers = ledgers;
+            this.ledgerSymbol = ledgerSymbol;
+            this.symbols = symbols;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SymbolTotals compute() {
+            if (to - from > REPLAY_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                ReplayTask left = new ReplayTask(ledgers, ledgerSymbol, symbols, from, mid);
+                left.fork();
+                SymbolTotals right = new ReplayTask(ledgers, ledgerSymbol, symbols, mid, to).compute();
+                return left.join().merge(right);
+            }
+
+            SymbolTotals totals = new SymbolTotals(symbols);
+            for (int i = from; i < to; i++) {
+                List<Stock> trades = ledgers.get(i);
+                trades.sort(LedgerService.CHRONOLOGICAL);
+
+                LedgerService.Position position = new LedgerService.Position();
+                for (Stock t : trades) {
+                    position.apply(t);
+                }
+                if (position.getQuantity() > 0) {
+                    int s = ledgerSymbol[i];
+                    totals.shares[s] += position.getQuantity();
+                    totals.costBasis[s] += position.getCostBasisMicros();
+                    totals.holders[s]++;
+                }
+            }
+            return totals;
+        }
+    }
+}
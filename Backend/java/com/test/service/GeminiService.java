@@ -1,93 +1,311 @@
-package com.test.service;
-
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
-import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
-@Service
-public class GeminiService {
-
-    @Value("${gemini.api.key}")
-    private String apiKey;
-
-    // Use the URL from application.properties to ensure flexibility
-    @Value("${gemini.api.url}")
-    private String apiUrl;
-
-    private final RestTemplate restTemplate = new RestTemplate();
-
-    public String getStockAnalysis(String symbol) {
-    	String prompt =
-    		    "Analyze the stock ticker '" + symbol + "'. " +
-    		    "Respond with a valid JSON object only. " +
-    		    "The JSON must contain exactly two keys: " +
-    		    "\"positive\" (an array of exactly 3 medium sized strings) and " +
-    		    "\"negative\" (an array of exactly 3 medium sized strings). " +
-    		    "Each string must be concise and factual. " +
-    		    "Do not include explanations, markdown, comments, or any text outside the JSON. " +
-    		    "Return only the raw JSON object.";
-
-        Map<String, String> part = new HashMap<>();
-        part.put("text", prompt);
-
-        Map<String, Object> content = new HashMap<>();
-        content.put("parts", Collections.singletonList(part));
-
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("contents", Collections.singletonList(content));
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-
-        try {
-            String finalUrl = apiUrl + "?key=" + apiKey;
-            ResponseEntity<Map> response = restTemplate.exchange(finalUrl, HttpMethod.POST, entity, Map.class);
-
-            Map<String, Object> body = response.getBody();
-            if (body == null) return fallbackJson("Empty response");
-
-            List<Map<String, Object>> candidates = (List<Map<String, Object>>) body.get("candidates");
-            if (candidates == null || candidates.isEmpty()) return fallbackJson("No analysis candidates");
-
-            Map<String, Object> contentRes = (Map<String, Object>) candidates.get(0).get("content");
-            List<Map<String, Object>> parts = (List<Map<String, Object>>) contentRes.get("parts");
-            String rawText = (String) parts.get(0).get("text");
-
-            return cleanJsonString(rawText);
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            return fallbackJson("AI Error: " + e.getMessage());
-        }
-    }
-
-    private String cleanJsonString(String raw) {
-        if (raw == null) return fallbackJson("Null response");
-        
-        // Remove Markdown code blocks
-        String cleaned = raw.replaceAll("```json", "").replaceAll("```", "").trim();
-        
-        // Ensure it starts with { and ends with }
-        int firstBrace = cleaned.indexOf("{");
-        int lastBrace = cleaned.lastIndexOf("}");
-        
-        if (firstBrace != -1 && lastBrace != -1) {
-            return cleaned.substring(firstBrace, lastBrace + 1);
-        }
-        return cleaned;
-    }
-
-    private String fallbackJson(String msg) {
-        // Escape quotes in message to prevent invalid JSON
-        String safeMsg = msg.replace("\"", "'");
-        return "{\"positive\": [\"Data unavailable\"], \"negative\": [\"" + safeMsg + "\"]}";
-    }
-}
\ No newline at end of file
+package com.test.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.test.metrics.MetricsRegistry;
+import com.test.metrics.TracingInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
+
+/**
+* Gemini pros/cons per stock: {"positive": [3 strings], "negative": [3 strings]}.
+* Good answers are cached per symbol for gemini.analysis.cache-minutes; fallbacks are not, so the next call retries.
+* Portfolio analysis asks for many symbols in one structured prompt (chunks of gemini.batch.max-symbols,
+* sent concurrently) and splits the combined answer into the same per-symbol cache.
+*/
+@Service
+public class GeminiService {
+    private static final Logger logger = LoggerFactory.getLogger(GeminiService.class);
+
+    // Rough output budget per symbol in a batch: 6 medium strings plus JSON
+    private static final int TOKENS_PER_SYMBOL = 200;
+
+    // Anything else is not put into a prompt
+    private static final Pattern SYMBOL = Pattern.compile("[A-Z0-9.\\-]{1,12}");
+
+    @Value("${gemini.api.key}")
+    private String apiKey;
+
+    // Use the URL from application.properties to ensure flexibility
+    @Value("${gemini.api.url}")
+    private String apiUrl;
+
+    @Value("${gemini.analysis.cache-minutes:720}")
+    private long cacheMinutes;
+
+    @Value("${gemini.analysis.cache.max-entries:2000}")
+    private int maxCacheEntries;
+
+    @Value("${gemini.batch.max-symbols:25}")
+    private int maxBatchSymbols;
+
+    // Output limit of one batch call; also caps the symbols per chunk
+    @Value("${gemini.batch.max-output-tokens:8192}")
+    private int maxOutputTokens;
+
+    @Value("${gemini.batch.timeout-ms:60000}")
+    private long batchTimeoutMs;
+
+    @Autowired private MetricsRegistry metrics;
+    @Autowired private ObjectMapper objectMapper;
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final Map<String, CachedAnalysis> cache = new ConcurrentHashMap<>();
+    private final ExecutorService batchExecutor;
+
+    private static class CachedAnalysis {
+        final String json;
+        final long cachedAt;
+
+        CachedAnalysis(String json, long cachedAt) {
+            this.json = json;
+            this.cachedAt = cachedAt;
+        }
+    }
+
+    public GeminiService(@Value("${gemini.batch.threads:2}") int batchThreads) {
+        restTemplate.getInterceptors().add(new TracingInterceptor());
+        this.batchExecutor = Executors.newFixedThreadPool(Math.max(1, batchThreads), r -> {
+            Thread t = new Thread(r, "gemini-batch");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        metrics.gauge("gemini_analysis_cache_entries", cache::size);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchExecutor.shutdownNow();
+    }
+
+    public String getStockAnalysis(String symbol) {
+        String key = symbol.toUpperCase();
+        String cached = cached(key);
+        if (cached != null) return cached;
+
+    	String prompt =
+    		    "Analyze the stock ticker '" + symbol + "'. " +
+    		    "Respond with a valid JSON object only. " +
+    		    "The JSON must contain exactly two keys: " +
+    		    "\"positive\" (an array of exactly 3 medium sized strings) and " +
+    		    "\"negative\" (an array of exactly 3 medium sized strings). " +
+    		    "Each string must be concise and factual. " +
+    		    "Do not include explanations, markdown, comments, or any text outside the JSON. " +
+    		    "Return only the raw JSON object.";
+
+        try {
+            String rawText = generate(prompt, null, "stock_analysis");
+            if (rawText == null) return fallbackJson("No analysis candidates");
+
+            String json = cleanJsonString(rawText);
+            if (isAnalysis(readTree(json))) cachePut(key, json);
+            return json;
+
+        } catch (Exception e) {
+            logger.error("Gemini analysis failed for {}: {}", symbol, e.getMessage(), e);
+            return fallbackJson("AI Error: " + e.getMessage());
+        }
+    }
+
+    /**
+    * Analyses of all the symbols: cached ones as they are, the rest from one prompt per chunk.
+    * Returns "analyses" (symbol -> {"positive", "negative"}, in request order), "llmCalls" and "cached".
+    */
+    public Map<String, Object> getPortfolioAnalysis(Collection<String> symbols) {
+        Map<String, String> analyses = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+        int hits = 0;
+        for (String symbol : symbols) {
+            String key = symbol.toUpperCase();
+            if (analyses.containsKey(key)) continue;
+            String cached = cached(key);
+            analyses.put(key, cached);
+            if (cached != null) {
+                hits++;
+            } else {
+                if (SYMBOL.matcher(key).matches()) misses.add(key);
+                else analyses.put(key, fallbackJson("Unsupported symbol"));
+            }
+        }
+
+        int chunkSize = Math.max(1, Math.min(maxBatchSymbols, maxOutputTokens / TOKENS_PER_SYMBOL));
+        List<CompletableFuture<Map<String, String>>> chunks = new ArrayList<>();
+        for (int from = 0; from < misses.size(); from += chunkSize) {
+            List<String> chunk = misses.subList(from, Math.min(misses.size(), from + chunkSize));
+            chunks.add(CompletableFuture.supplyAsync(() -> analyzeChunk(chunk), batchExecutor));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchTimeoutMs);
+        for (CompletableFuture<Map<String, String>> chunk : chunks) {
+            try {
+                analyses.putAll(chunk.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                logger.warn("Gemini portfolio chunk did not complete: {}", e.toString());
+            }
+        }
+
+        Map<String, Object> byKey = new LinkedHashMap<>();
+        analyses.forEach((symbol, json) -> {
+            JsonNode node = readTree(json != null ? json : fallbackJson("AI request timed out"));
+            byKey.put(symbol, node != null ? node : readTree(fallbackJson("Invalid AI response")));
+        });
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("analyses", byKey);
+        result.put("llmCalls", chunks.size());
+        result.put("cached", hits);
+        return result;
+    }
+
+    // One prompt for the chunk; symbols missing from the answer get a (not cached) fallback
+    private Map<String, String> analyzeChunk(List<String> symbols) {
+        String prompt =
+                "Analyze each of these stock tickers: " + String.join(", ", symbols) + ". " +
+                "Respond with a valid JSON object only, with one key per ticker, written exactly as above. " +
+                "Each value must be an object with exactly two keys: " +
+                "\"positive\" (an array of exactly 3 medium sized strings) and " +
+                "\"negative\" (an array of exactly 3 medium sized strings). " +
+                "Each string must be concise and factual. " +
+                "Do not include explanations, markdown, comments, or any text outside the JSON. " +
+                "Return only the raw JSON object.";
+
+        Map<String, Object> generationConfig = new HashMap<>();
+        generationConfig.put("responseMimeType", "application/json");
+        generationConfig.put("maxOutputTokens", maxOutputTokens);
+
+        Map<String, String> analyses = new LinkedHashMap<>();
+        try {
+            String rawText = generate(prompt, generationConfig, "portfolio_analysis");
+            JsonNode root = rawText == null ? null : readTree(cleanJsonString(rawText));
+
+            Map<String, JsonNode> bySymbol = new HashMap<>();
+            if (root != null && root.isObject()) {
+                root.fields().forEachRemaining(e -> bySymbol.put(e.getKey().trim().toUpperCase(), e.getValue()));
+            }
+            for (String symbol : symbols) {
+                JsonNode node = bySymbol.get(symbol);
+                if (!isAnalysis(node)) {
+                    metrics.increment("gemini_batch_missing_total");
+                    analyses.put(symbol, fallbackJson("No analysis for " + symbol));
+                    continue;
+                }
+                ObjectNode analysis = objectMapper.createObjectNode();
+                analysis.set("positive", node.get("positive"));
+                analysis.set("negative", node.get("negative"));
+                String json = objectMapper.writeValueAsString(analysis);
+                cachePut(symbol, json);
+                analyses.put(symbol, json);
+            }
+        } catch (Exception e) {
+            logger.error("Gemini portfolio analysis failed for {} symbols: {}", symbols.size(), e.getMessage(), e);
+            for (String symbol : symbols) {
+                analyses.putIfAbsent(symbol, fallbackJson("AI Error: " + e.getMessage()));
+            }
+        }
+        return analyses;
+    }
+
+    // Text of the first candidate, or null when there is none
+    private String generate(String prompt, Map<String, Object> generationConfig, String operation) {
+        Map<String, String> part = new HashMap<>();
+        part.put("text", prompt);
+
+        Map<String, Object> content = new HashMap<>();
+        content.put("parts", Collections.singletonList(part));
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("contents", Collections.singletonList(content));
+        if (generationConfig != null) requestBody.put("generationConfig", generationConfig);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+
+        String finalUrl = apiUrl + "?key=" + apiKey;
+        ResponseEntity<Map> response = metrics.time("gemini_request",
+                () -> restTemplate.exchange(finalUrl, HttpMethod.POST, entity, Map.class), "operation", operation);
+
+        Map<String, Object> body = response.getBody();
+        if (body == null) return null;
+
+        List<Map<String, Object>> candidates = (List<Map<String, Object>>) body.get("candidates");
+        if (candidates == null || candidates.isEmpty()) return null;
+
+        Map<String, Object> contentRes = (Map<String, Object>) candidates.get(0).get("content");
+        List<Map<String, Object>> parts = (List<Map<String, Object>>) contentRes.get("parts");
+        return (String) parts.get(0).get("text");
+    }
+
+    private String cached(String symbol) {
+        CachedAnalysis cached = cache.get(symbol);
+        if (cached != null && System.currentTimeMillis() - cached.cachedAt <= TimeUnit.MINUTES.toMillis(cacheMinutes)) {
+            metrics.increment("gemini_cache_total", "result", "hit");
+            return cached.json;
+        }
+        metrics.increment("gemini_cache_total", "result", "miss");
+        return null;
+    }
+
+    private void cachePut(String symbol, String json) {
+        long now = System.currentTimeMillis();
+        if (cache.size() >= maxCacheEntries && !cache.containsKey(symbol)) {
+            cache.values().removeIf(a -> now - a.cachedAt > TimeUnit.MINUTES.toMillis(cacheMinutes));
+            if (cache.size() >= maxCacheEntries) return;
+        }
+        cache.put(symbol, new CachedAnalysis(json, now));
+    }
+
+    private static boolean isAnalysis(JsonNode node) {
+        return node != null && node.path("positive").isArray() && node.path("negative").isArray();
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private String cleanJsonString(String raw) {
+        if (raw == null) return fallbackJson("Null response");
+
+        // Remove Markdown code blocks
+        String cleaned = raw.replaceAll("```json", "").replaceAll("```", "").trim();
+
+        // Ensure it starts with { and ends with }
+        int firstBrace = cleaned.indexOf("{");
+        int lastBrace = cleaned.lastIndexOf("}");
+
+        if (firstBrace != -1 && lastBrace != -1) {
+            return cleaned.substring(firstBrace, lastBrace + 1);
+        }
+        return cleaned;
+    }
+
+    private String fallbackJson(String msg) {
+        metrics.increment("gemini_fallback_total");
+        // Escape quotes in message to prevent invalid JSON
+        String safeMsg = msg.replace("\"", "'");
+        return "{\"positive\": [\"Data unavailable\"], \"negative\": [\"" + safeMsg + "\"]}";
+    }
+}
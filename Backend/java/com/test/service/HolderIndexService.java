@@ -0,0 +1,139 @@
+package com.test.service;
+
+import com.test.metrics.MetricsRegistry;
+import com.test.model.Stock;
+import com.test.model.SymbolHolder;
+import com.test.repository.StockRepository;
+import com.test.repository.SymbolHolderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+* Keeps the SymbolHolders table: symbol -> users with an open position.
+* The index may hold a few users who no longer own shares, never miss one who does: a BUY always records,
+* and every other ledger write (sell, edit, delete) records or removes the user from the replayed position.
+* There is no local cache of written keys: another instance may have removed the row since.
+*/
+@Service
+public class HolderIndexService {
+    private static final Logger logger = LoggerFactory.getLogger(HolderIndexService.class);
+
+    @Autowired private SymbolHolderRepository symbolHolderRepository;
+    @Autowired private StockRepository stockRepository;
+    @Autowired private MetricsRegistry metrics;
+
+    /** Records the user as a holder when the replayed position still has shares, removes them otherwise. */
+    public void update(String userId, String symbol, int quantity) {
+        if (quantity > 0) {
+            recordHolder(userId, symbol);
+        } else {
+            removeHolder(userId, symbol);
+        }
+    }
+
+    public void recordHolder(String userId, String symbol) {
+        if (userId == null || symbol == null) return;
+        String key = SymbolHolder.key(symbol, userId);
+
+        SymbolHolder holder = new SymbolHolder();
+        holder.setHolderKey(key);
+        holder.setSymbol(symbol.toUpperCase());
+        holder.setUserId(userId);
+        holder.setUpdatedAt(System.currentTimeMillis());
+        symbolHolderRepository.save(holder);
+        metrics.increment("holder_index_writes_total", "op", "record");
+    }
+
+    public void removeHolder(String userId, String symbol) {
+        if (userId == null || symbol == null) return;
+        symbolHolderRepository.deleteById(SymbolHolder.key(symbol, userId));
+        metrics.increment("holder_index_writes_total", "op", "remove");
+    }
+
+    /** userIds of everyone holding the symbol, sorted (the corporate-action resume cursor depends on the order). */
+    public List<String> getHolders(String symbol) {
+        List<String> users = new ArrayList<>();
+        for (SymbolHolder h : symbolHolderRepository.findBySymbol(symbol.toUpperCase())) {
+            users.add(h.getUserId());
+        }
+        Collections.sort(users);
+        return users;
+    }
+
+    /** Every symbol somebody holds: one scan of the index, so callers cache it (the cluster quote leader). */
+    public Set<String> getHeldSymbols() {
+        Set<String> symbols = new TreeSet<>();
+        for (SymbolHolder h : symbolHolderRepository.findAll()) {
+            if (h.getSymbol() != null) symbols.add(h.getSymbol());
+        }
+        return symbols;
+    }
+
+    /** The limit symbols with the most holders, most held first (ties by symbol): one scan of the index. */
+    public List<String> getMostHeldSymbols(int limit) {
+        Map<String, Integer> holders = new HashMap<>();
+        for (SymbolHolder h : symbolHolderRepository.findAll()) {
+            if (h.getSymbol() != null) holders.merge(h.getSymbol(), 1, Integer::sum);
+        }
+        return holders.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(Math.max(0, limit))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+    * Builds the index from one full scan of the Stocks table: needed once for trades written before the index
+    * existed, afterwards only to repair it. Entries without an open position are deleted.
+    */
+    public synchronized Map<String, Object> rebuild() {
+        long started = System.currentTimeMillis();
+
+        Map<String, List<Stock>> ledgers = new HashMap<>();
+        for (Stock s : stockRepository.findAll()) {
+            if (s.getUserId() == null || s.getSymbol() == null) continue;
+            ledgers.computeIfAbsent(SymbolHolder.key(s.getSymbol(), s.getUserId()), k -> new ArrayList<>()).add(s);
+        }
+
+        List<SymbolHolder> holders = new ArrayList<>();
+        for (Map.Entry<String, List<Stock>> entry : ledgers.entrySet()) {
+            List<Stock> trades = entry.getValue();
+            trades.sort(LedgerService.CHRONOLOGICAL);
+            LedgerService.Position position = new LedgerService.Position();
+            trades.forEach(position::apply);
+            if (position.getQuantity() <= 0) continue;
+
+            SymbolHolder holder = new SymbolHolder();
+            holder.setHolderKey(entry.getKey());
+            holder.setSymbol(trades.get(0).getSymbol().toUpperCase());
+            holder.setUserId(trades.get(0).getUserId());
+            holder.setUpdatedAt(started);
+            holders.add(holder);
+        }
+
+        Set<String> keep = new HashSet<>();
+        holders.forEach(h -> keep.add(h.getHolderKey()));
+        List<SymbolHolder> stale = new ArrayList<>();
+        for (SymbolHolder existing : symbolHolderRepository.findAll()) {
+            if (!keep.contains(existing.getHolderKey())) stale.add(existing);
+        }
+
+        symbolHolderRepository.saveAll(holders);
+        symbolHolderRepository.deleteAll(stale);
+
+        long durationMs = System.currentTimeMillis() - started;
+        logger.info("Holder index rebuilt: {} positions from {} ledgers, {} stale entries removed in {} ms",
+                holders.size(), ledgers.size(), stale.size(), durationMs);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("holders", holders.size());
+        result.put("ledgers", ledgers.size());
+        result.put("staleRemoved", stale.size());
+        result.put("durationMs", durationMs);
+        return result;
+    }
+}
@@ -0,0 +1,312 @@
+package com.test.service;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
+import com.amazonaws.services.dynamodbv2.model.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.metrics.MetricsRegistry;
+import com.test.model.IdempotencyRecord;
+import com.test.repository.IdempotencyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+* Makes trade submissions safe to retry.
+* The first response for a (user, Idempotency-Key) pair is stored in the TTL'd
+* IdempotencyKeys table and in a small in-memory front cache; retries get that
+* stored response back without running the trade again.
+*
+* Before the trade runs, the key is reserved with a conditional put of a PENDING record, so two replicas
+* that both miss the lookup cannot both execute it: the loser answers 409 until the winner has stored its
+* response. A retry whose body differs from the original's gets 422. If the trade throws, the reservation
+* is deleted and the client may retry; if the node dies mid-trade, the PENDING record stays until it expires
+* (the outcome is unknown, so the key is not reused before then).
+*/
+@Service
+public class IdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    static final String PENDING = "PENDING";
+    static final String DONE = "DONE";
+
+    private final IdempotencyRepository idempotencyRepository;
+    private final DynamoDBMapper dynamoDBMapper;
+    private final ObjectMapper objectMapper;
+    private final MetricsRegistry metrics;
+
+    // Hot front cache, so a burst of retries does not turn into a burst of DynamoDB reads
+    private final Map<String, IdempotencyRecord> cache = new ConcurrentHashMap<>();
+
+    // Requests currently executing - a retry that arrives mid-flight waits for the original
+    private final Map<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${idempotency.cache.max-entries:10000}")
+    private int maxCacheEntries;
+
+    @Value("${idempotency.in-flight-wait-ms:10000}")
+    private long inFlightWaitMs;
+
+    public IdempotencyService(IdempotencyRepository idempotencyRepository, DynamoDBMapper dynamoDBMapper,
+                              ObjectMapper objectMapper, MetricsRegistry metrics) {
+        this.idempotencyRepository = idempotencyRepository;
+        this.dynamoDBMapper = dynamoDBMapper;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        metrics.gauge("idempotency_cache_entries", cache::size);
+    }
+
+    /**
+    * Runs the action once per (user, key). request is the parsed request body; its fingerprint is stored
+    * with the key so a retry can be told apart from a different request reusing the key.
+    */
+    public ResponseEntity<?> execute(String userId, String key, Object request, Supplier<ResponseEntity<?>> action) {
+        // No header -> plain, non-idempotent request (old clients keep working)
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+
+        String id = userId + "#" + key.trim();
+        String fingerprint = fingerprint(request);
+
+        IdempotencyRecord existing = lookup(id);
+        if (existing != null) {
+            return answer(existing, fingerprint);
+        }
+
+        CompletableFuture<IdempotencyRecord> mine = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecord> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            return awaitOriginal(running, fingerprint);
+        }
+
+        try {
+            // The original may have finished between the lookup and taking the slot
+            existing = lookup(id);
+            if (existing != null) {
+                mine.complete(existing);
+                return answer(existing, fingerprint);
+            }
+
+            IdempotencyRecord reservation = record(id, userId, fingerprint, PENDING);
+            try {
+                reserve(reservation);
+            } catch (ConditionalCheckFailedException e) {
+                // Another replica reserved the key after our lookup
+                metrics.increment("idempotency_reservations_total", "result", "taken");
+                IdempotencyRecord winner = idempotencyRepository.findById(id).orElse(reservation);
+                mine.complete(winner);
+                return answer(winner, fingerprint);
+            } catch (Exception e) {
+                // Without a reservation the trade could run twice, so it does not run at all
+                metrics.increment("idempotency_reservations_total", "result", "error");
+                logger.warn("Could not reserve idempotency key {}: {}", id, e.getMessage());
+                mine.completeExceptionally(e);
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body("Could not reserve the " + HEADER + ". Retry later.");
+            }
+            metrics.increment("idempotency_reservations_total", "result", "reserved");
+
+            ResponseEntity<?> response;
+            try {
+                response = action.get();
+            } catch (RuntimeException e) {
+                // Nothing stored: the client is free to retry with the same key
+                release(id);
+                throw e;
+            }
+            mine.complete(store(reservation, response));
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    private ResponseEntity<?> awaitOriginal(CompletableFuture<IdempotencyRecord> running, String fingerprint) {
+        try {
+            return answer(running.get(inFlightWaitMs, TimeUnit.MILLISECONDS), fingerprint);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.debug("Original request for idempotency key did not complete: {}", e.getMessage());
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("A request with this " + HEADER + " is still in progress or failed. Retry later.");
+    }
+
+    // 422 for a different body under the same key, 409 while the original still runs, else the stored response
+    private ResponseEntity<?> answer(IdempotencyRecord record, String fingerprint) {
+        if (record.getRequestHash() != null && fingerprint != null && !record.getRequestHash().equals(fingerprint)) {
+            metrics.increment("idempotency_rejections_total", "reason", "different_request");
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body("This " + HEADER + " was already used for a different request.");
+        }
+        if (PENDING.equals(record.getStatus())) {
+            metrics.increment("idempotency_rejections_total", "reason", "in_progress");
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("A request with this " + HEADER + " is still in progress. Retry later.");
+        }
+        metrics.increment("idempotency_replays_total");
+        return replay(record);
+    }
+
+    // Only succeeds if nobody holds the key, or the record there has expired (TTL deletion is lazy)
+    private void reserve(IdempotencyRecord reservation) {
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        Map<String, ExpectedAttributeValue> expected = new HashMap<>();
+        expected.put("idempotencyKey", new ExpectedAttributeValue(false));
+        expected.put("expiresAt", new ExpectedAttributeValue()
+                .withComparisonOperator(ComparisonOperator.LE)
+                .withAttributeValueList(new AttributeValue().withN(Long.toString(nowSeconds))));
+        dynamoDBMapper.save(reservation, new DynamoDBSaveExpression()
+                .withExpected(expected)
+                .withConditionalOperator(ConditionalOperator.OR));
+    }
+
+    private void release(String id) {
+        try {
+            idempotencyRepository.deleteById(id);
+        } catch (Exception e) {
+            // The reservation then stays until it expires; retries get 409 meanwhile
+            logger.warn("Could not release idempotency key {}: {}", id, e.getMessage());
+        }
+    }
+
+    private IdempotencyRecord lookup(String id) {
+        long nowSeconds = System.currentTimeMillis() / 1000;
+
+        IdempotencyRecord cached = cache.get(id);
+        if (cached != null) {
+            if (!isExpired(cached, nowSeconds)) {
+                metrics.increment("idempotency_cache_total", "result", "hit");
+                return cached;
+            }
+            cache.remove(id, cached);
+        }
+
+        try {
+            IdempotencyRecord stored = idempotencyRepository.findById(id).orElse(null);
+            // DynamoDB TTL deletion is lazy, so expired items can still be returned for a while
+            if (stored != null && !isExpired(stored, nowSeconds)) {
+                metrics.increment("idempotency_cache_total", "result", "dynamodb_hit");
+                // A reservation is re-read until it completes
+                if (!PENDING.equals(stored.getStatus())) cachePut(id, stored);
+                return stored;
+            }
+        } catch (Exception e) {
+            logger.warn("Idempotency lookup failed for {}: {}", id, e.getMessage());
+        }
+        metrics.increment("idempotency_cache_total", "result", "miss");
+        return null;
+    }
+
+    private IdempotencyRecord record(String id, String userId, String fingerprint, String status) {
+        long now = System.currentTimeMillis();
+
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setIdempotencyKey(id);
+        record.setUserId(userId);
+        record.setStatus(status);
+        record.setRequestHash(fingerprint);
+        record.setCreatedAt(now);
+        record.setExpiresAt(now / 1000 + TimeUnit.HOURS.toSeconds(ttlHours));
+        return record;
+    }
+
+    private IdempotencyRecord store(IdempotencyRecord reservation, ResponseEntity<?> response) {
+        String id = reservation.getIdempotencyKey();
+        IdempotencyRecord record = record(id, reservation.getUserId(), reservation.getRequestHash(), DONE);
+        record.setStatusCode(response.getStatusCode().value());
+
+        Object body = response.getBody();
+        if (body instanceof String text) {
+            record.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            record.setResponseBody(text);
+        } else if (body != null) {
+            try {
+                record.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                record.setResponseBody(objectMapper.writeValueAsString(body));
+            } catch (Exception e) {
+                logger.error("Could not serialize response for idempotency key {}: {}", id, e.getMessage());
+            }
+        }
+
+        cachePut(id, record);
+        try {
+            idempotencyRepository.save(record);
+        } catch (Exception e) {
+            // The trade itself already succeeded; the front cache still covers quick retries here,
+            // other replicas keep answering 409 from the reservation until it expires
+            logger.error("Failed to persist idempotency key {}: {}", id, e.getMessage(), e);
+        }
+        return record;
+    }
+
+    private String fingerprint(Object request) {
+        if (request == null) return null;
+        try {
+            byte[] body = objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (Exception e) {
+            logger.warn("Could not fingerprint request: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private ResponseEntity<?> replay(IdempotencyRecord record) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(record.getStatusCode())
+                .header(REPLAYED_HEADER, "true");
+        if (record.getResponseBody() == null) {
+            return builder.build();
+        }
+        return builder.contentType(MediaType.parseMediaType(record.getContentType()))
+                .body(record.getResponseBody());
+    }
+
+    private boolean isExpired(IdempotencyRecord record, long nowSeconds) {
+        return record.getExpiresAt() != null && record.getExpiresAt() <= nowSeconds;
+    }
+
+    private void cachePut(String id, IdempotencyRecord record) {
+        if (cache.size() >= maxCacheEntries) {
+            evict();
+        }
+        cache.put(id, record);
+    }
+
+    // Drop expired entries first; if that is not enough, drop arbitrary ones (DynamoDB still has them)
+    private void evict() {
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        cache.values().removeIf(r -> isExpired(r, nowSeconds));
+
+        Iterator<String> it = cache.keySet().iterator();
+        while (cache.size() >= maxCacheEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.test.service;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.metrics.MetricsRegistry;
+import com.test.model.LedgerArchive;
+import com.test.model.LedgerCheckpoint;
+import com.test.model.Stock;
+import com.test.model.User;
+import com.test.repository.LedgerArchiveRepository;
+import com.test.repository.LedgerCheckpointRepository;
+import com.test.repository.StockRepository;
+import com.test.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+* Hot/cold ledger tiering. A stretch of a symbol's ledger that ends with the position back at exactly zero
+* (no shares, no cost basis) can never change the replay again, so the nightly run moves it out of Stocks:
+*   1. the raw trades go to LedgerArchives in gzip'd chunks (what /history and exports read),
+*   2. one CLOSED row takes their place: quantity 0, gainLoss = realized P&L of everything archived so far,
+*      sorted right after the last archived trade; the replay resets the position on it,
+*   3. the archived rows (and an older CLOSED row) are deleted from Stocks, and the checkpoint is dropped.
+* Stocks then holds the open positions plus one row per closed-out symbol, whatever the account's age.
+*
+* Each step can be re-run after a crash: archive keys come from the run's last trade, trades already in the
+* archive are not archived twice, and readers hide hot rows the archive already covers.
+* Only stretches older than ledger.archive.min-age-days with at least ledger.archive.min-trades trades move,
+* since archived trades can no longer be edited or deleted.
+*/
+@Service
+public class LedgerArchiveService {
+    private static final Logger logger = LoggerFactory.getLogger(LedgerArchiveService.class);
+
+    public static final String CLOSED = "CLOSED";
+
+    private static final TypeReference<List<Stock>> TRADES_TYPE = new TypeReference<>() {};
+
+    @Autowired private StockRepository stockRepository;
+    @Autowired private LedgerArchiveRepository archiveRepository;
+    @Autowired private DynamoDBMapper dynamoDBMapper;
+    @Autowired private LedgerCheckpointRepository checkpointRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ClusterLeaseService cluster;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private MetricsRegistry metrics;
+
+    @Value("${ledger.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ledger.archive.min-trades:50}")
+    private int minTrades;
+
+    @Value("${ledger.archive.min-age-days:90}")
+    private int minAgeDays;
+
+    @Value("${ledger.archive.chunk-trades:2000}")
+    private int chunkTrades;
+
+    // Encoded size cap per chunk; DynamoDB items are limited to 400 KB including the other attributes
+    @Value("${ledger.archive.max-chunk-bytes:350000}")
+    private int maxChunkBytes;
+
+    /**
+    * A user's cold ledger: the archive chunk headers (no trades payload), and per symbol the last archived trade,
+    * so hot rows the archive already covers are not listed twice. decode loads one chunk's payload at a time.
+    */
+    public class Archived {
+        private final List<LedgerArchive> chunks;
+        private final Map<String, Stock> through = new HashMap<>();
+
+        Archived(List<LedgerArchive> chunks) {
+            this.chunks = chunks;
+            for (LedgerArchive chunk : chunks) {
+                Stock last = new Stock();
+                last.setTimestamp(chunk.getThroughTimestamp());
+                last.setStockId(chunk.getThroughStockId());
+                through.merge(chunk.getSymbol(), last, (a, b) -> LedgerService.CHRONOLOGICAL.compare(a, b) >= 0 ? a : b);
+            }
+        }
+
+        /** Chunk headers only: getTrades() is null until decode loads it. */
+        public List<LedgerArchive> getChunks() {
+            return chunks;
+        }
+
+        /** False for CLOSED rows and for trades an interrupted run archived but had not deleted yet. */
+        public boolean isVisible(Stock hot) {
+            if (CLOSED.equalsIgnoreCase(hot.getType())) return false;
+            Stock last = hot.getSymbol() != null ? through.get(hot.getSymbol().toUpperCase()) : null;
+            return last == null || LedgerService.CHRONOLOGICAL.compare(hot, last) > 0;
+        }
+
+        public List<Stock> decode(LedgerArchive chunk) {
+            return LedgerArchiveService.this.decode(chunk);
+        }
+
+        /** Every archived trade, chunk by chunk (not sorted). */
+        public List<Stock> trades() {
+            List<Stock> trades = new ArrayList<>();
+            for (LedgerArchive chunk : chunks) trades.addAll(decode(chunk));
+            return trades;
+        }
+    }
+
+    public Archived read(String userId) {
+        List<LedgerArchive> chunks = headers(userId);
+        metrics.observe("ledger_archive_chunks_read", chunks.size(), MetricsRegistry.SIZE_BUCKETS);
+        return new Archived(chunks);
+    }
+
+    /** Deletes a user's archive (account deletion). */
+    public void deleteAll(String userId) {
+        archiveRepository.deleteAll(headers(userId));
+    }
+
+    // Every chunk of the user without the trades blob (up to max-chunk-bytes each)
+    private List<LedgerArchive> headers(String userId) {
+        LedgerArchive key = new LedgerArchive();
+        key.setUserId(userId);
+        DynamoDBQueryExpression<LedgerArchive> query = new DynamoDBQueryExpression<LedgerArchive>()
+                .withIndexName("userId-index")
+                .withConsistentRead(false)
+                .withHashKeyValues(key)
+                .withProjectionExpression("archiveKey, userId, symbol, chunk, tradeCount, firstTimestamp, "
+                        + "throughTimestamp, throughStockId, archivedAt");
+
+        List<LedgerArchive> headers = new ArrayList<>();
+        Map<String, AttributeValue> lastKey = null;
+        do {
+            query.setExclusiveStartKey(lastKey);
+            QueryResultPage<LedgerArchive> page = dynamoDBMapper.queryPage(LedgerArchive.class, query);
+            headers.addAll(page.getResults());
+            lastKey = page.getLastEvaluatedKey();
+        } while (lastKey != null);
+        return headers;
+    }
+
+    @Scheduled(cron = "${ledger.archive.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        // In cluster mode the lease holder archives for everyone
+        if (!enabled || cluster.isFollower()) return;
+        archiveAll();
+    }
+
+    public synchronized Map<String, Object> archiveAll() {
+        long started = System.currentTimeMillis();
+        long users = 0, archived = 0, failed = 0;
+        for (User user : userRepository.findAll()) {
+            if (user.getUserId() == null) continue;
+            users++;
+            try {
+                archived += archive(user.getUserId());
+            } catch (Exception e) {
+                failed++;
+                metrics.increment("ledger_archive_errors_total");
+                logger.warn("Ledger archive failed for user {}: {}", user.getUserId(), e.getMessage());
+            }
+        }
+
+        long durationMs = System.currentTimeMillis() - started;
+        logger.info("Ledger archive: {} trades of {} users moved to cold storage ({} failed) in {} ms",
+                archived, users, failed, durationMs);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("users", users);
+        result.put("tradesArchived", archived);
+        result.put("failedUsers", failed);
+        result.put("durationMs", durationMs);
+        return result;
+    }
+
+    /** Archives every closed-out stretch of the user's ledger that is old and long enough; returns the trades moved. */
+    public int archive(String userId) {
+        Map<String, List<Stock>> bySymbol = new HashMap<>();
+        for (Stock s : stockRepository.findByUserId(userId)) {
+            if (s.getSymbol() == null) continue;
+            bySymbol.computeIfAbsent(s.getSymbol().toUpperCase(), k -> new ArrayList<>()).add(s);
+        }
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(minAgeDays);
+
+        Archived archived = null;
+        int moved = 0;
+        for (Map.Entry<String, List<Stock>> entry : bySymbol.entrySet()) {
+            List<Stock> trades = entry.getValue();
+            trades.sort(LedgerService.CHRONOLOGICAL);
+
+            // Last point before the cutoff where the position was flat
+            LedgerService.Position position = new LedgerService.Position();
+            int cut = -1;
+            for (int i = 0; i < trades.size(); i++) {
+                Stock t = trades.get(i);
+                if ((t.getTimestamp() != null ? t.getTimestamp() : 0) > cutoff) break;
+                position.apply(t);
+                if (position.getQuantity() == 0 && position.getCostBasisMicros() == 0) cut = i;
+            }
+            if (cut < 0) continue;
+
+            List<Stock> prefix = trades.subList(0, cut + 1);
+            int sinceClosed = 0;
+            for (Stock t : prefix) {
+                sinceClosed = CLOSED.equalsIgnoreCase(t.getType()) ? 0 : sinceClosed + 1;
+            }
+            if (sinceClosed < minTrades) continue;
+
+            // The archive is only read for symbols with something to move
+            if (archived == null) archived = read(userId);
+            moved += archiveSymbol(userId, entry.getKey(), new ArrayList<>(prefix), archived);
+        }
+        return moved;
+    }
+
+    private int archiveSymbol(String userId, String symbol, List<Stock> prefix, Archived archived) {
+        long realized = 0;
+        List<Stock> raw = new ArrayList<>();
+        for (Stock t : prefix) {
+            if (CLOSED.equalsIgnoreCase(t.getType())) {
+                realized = t.getGainLossMicros();
+                continue;
+            }
+            if ("SELL".equalsIgnoreCase(t.getType()) || "DIVIDEND".equalsIgnoreCase(t.getType())) {
+                realized += t.getGainLossMicros();
+            }
+            // Already archived by a run that stopped before deleting it
+            if (archived.isVisible(t)) raw.add(t);
+        }
+        Stock last = prefix.get(prefix.size() - 1);
+        long through = last.getTimestamp() != null ? last.getTimestamp() : 0;
+        long now = System.currentTimeMillis();
+
+        // 1. Cold copy first, so nothing is ever only in memory.
+        // Up to chunk-trades trades per chunk, halved until the encoded chunk fits in max-chunk-bytes.
+        List<LedgerArchive> chunks = new ArrayList<>();
+        for (int from = 0, chunk = 0; from < raw.size(); chunk++) {
+            int count = Math.min(chunkTrades, raw.size() - from);
+            ByteBuffer encoded = encode(raw.subList(from, from + count));
+            while (encoded.remaining() > maxChunkBytes && count > 1) {
+                count /= 2;
+                encoded = encode(raw.subList(from, from + count));
+            }
+            if (encoded.remaining() > maxChunkBytes) {
+                throw new IllegalStateException("Trade " + raw.get(from).getStockId() + " alone exceeds "
+                        + maxChunkBytes + " bytes encoded");
+            }
+            List<Stock> slice = raw.subList(from, from + count);
+            from += count;
+
+            LedgerArchive row = new LedgerArchive();
+            row.setArchiveKey(LedgerArchive.key(userId, symbol, through, chunk));
+            row.setUserId(userId);
+            row.setSymbol(symbol);
+            row.setChunk(chunk);
+            row.setTradeCount(slice.size());
+            row.setFirstTimestamp(slice.get(0).getTimestamp());
+            row.setThroughTimestamp(through);
+            row.setThroughStockId(last.getStockId());
+            row.setArchivedAt(now);
+            row.setTrades(encoded);
+            chunks.add(row);
+        }
+        // One put per chunk: a failed write throws here, before anything is removed from the hot ledger
+        for (LedgerArchive row : chunks) {
+            archiveRepository.save(row);
+        }
+
+        // 2. Every chunk is written. The summary row sorts right after the last archived trade
+        // (same timestamp, id extends its id)
+        Stock closed = new Stock();
+        closed.setStockId(last.getStockId() + "~closed");
+        closed.setUserId(userId);
+        closed.setSymbol(symbol);
+        closed.setType(CLOSED);
+        closed.setQuantity(0);
+        closed.setGainLossMicros(realized);
+        closed.setTimestamp(through);
+        closed.setTradeDate(last.getTradeDate());
+        stockRepository.save(closed);
+
+        // 3. Out of the hot ledger; the checkpoint points into the removed stretch
+        stockRepository.deleteAll(prefix);
+        checkpointRepository.deleteById(LedgerCheckpoint.key(userId, symbol));
+
+        metrics.increment("ledger_archive_runs_total");
+        metrics.observe("ledger_archived_trades", raw.size(), MetricsRegistry.SIZE_BUCKETS);
+        logger.debug("Ledger archive {}#{}: {} trades in {} chunks, {} hot rows replaced by one CLOSED row",
+                userId, symbol, raw.size(), chunks.size(), prefix.size());
+        return raw.size();
+    }
+
+    private ByteBuffer encode(List<Stock> trades) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, trades);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    private List<Stock> decode(LedgerArchive chunk) {
+        ByteBuffer trades = chunk.getTrades();
+        if (trades == null) {
+            // Header from read(): fetch this chunk's payload by key, kept only while it is decoded
+            trades = archiveRepository.findById(chunk.getArchiveKey()).map(LedgerArchive::getTrades).orElse(null);
+        }
+        if (trades == null) return List.of();
+        ByteBuffer buffer = trades.duplicate();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return objectMapper.readValue(gzip, TRADES_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
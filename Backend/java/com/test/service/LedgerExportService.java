@@ -0,0 +1,230 @@
+package com.test.service;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.test.metrics.MetricsRegistry;
+import com.test.model.LedgerArchive;
+import com.test.model.Money;
+import com.test.model.Stock;
+import com.test.repository.StockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+* Streams a user's whole trade ledger as CSV or as a gzip'd columnar file, one DynamoDB page at a time:
+* memory stays at one page no matter how large the ledger, and the first bytes go out after the first page.
+* Rows come in index order, not by date; both formats carry the timestamp for sorting downstream.
+* Archived trades (see LedgerArchiveService) follow the hot ones, one page per archive chunk.
+*/
+@Service
+public class LedgerExportService {
+
+    public static final String CSV = "csv";
+    public static final String COLUMNAR = "columnar";
+
+    private static final byte[] COLUMNAR_MAGIC = "SPTXCOL1".getBytes(StandardCharsets.US_ASCII);
+    private static final byte STRING = 1, LONG = 2, DOUBLE = 3;
+
+    private static final String[] COLUMNS = {"stockId", "tradeDate", "timestamp", "type", "symbol", "quantity", "price", "currentPrice", "realizedGainLoss"};
+    private static final byte[] COLUMN_TYPES = {STRING, STRING, LONG, STRING, STRING, LONG, DOUBLE, DOUBLE, DOUBLE};
+
+    @Autowired private DynamoDBMapper dynamoDBMapper;
+    @Autowired private StockRepository stockRepository;
+    @Autowired private LedgerArchiveService ledgerArchiveService;
+    @Autowired private MetricsRegistry metrics;
+
+    @Value("${ledger.store:dynamodb}")
+    private String ledgerStore;
+
+    @Value("${export.page-size:1000}")
+    private int pageSize;
+
+    private interface PageWriter {
+        void write(List<Stock> page) throws IOException;
+    }
+
+    // ---- CSV ----
+
+    /** RFC 4180 CSV; realizedGainLoss is only filled on SELL and DIVIDEND rows. Returns the number of trades written. */
+    public long writeCsv(String userId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+
+        long rows = forEachPage(userId, page -> {
+            StringBuilder line = new StringBuilder(128);
+            for (Stock s : page) {
+                line.setLength(0);
+                csv(line, s.getStockId()).append(',');
+                csv(line, s.getTradeDate()).append(',');
+                line.append(s.getTimestamp() != null ? s.getTimestamp().toString() : "").append(',');
+                csv(line, s.getType()).append(',');
+                csv(line, s.getSymbol()).append(',');
+                line.append(s.getQuantity()).append(',');
+                line.append(Money.toPlainString(s.getPurchasePriceMicros())).append(',');
+                line.append(Money.toPlainString(s.getCurrentPriceMicros())).append(',');
+                if (isRealized(s)) line.append(Money.toPlainString(s.getGainLossMicros()));
+                line.append("\r\n");
+                writer.append(line);
+            }
+            // Push each page to the client as soon as it is written
+            writer.flush();
+        });
+        writer.flush();
+        metrics.observe("ledger_export_rows", rows, MetricsRegistry.SIZE_BUCKETS, "format", CSV);
+        return rows;
+    }
+
+    // Text cells only (numbers are written as they are): a cell a spreadsheet would read as a formula gets a
+    // leading ' so it is shown as text, e.g. a tradeDate of "=HYPERLINK(...)" sent with a trade
+    private static StringBuilder csv(StringBuilder line, String value) {
+        if (value == null) return line;
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return line.append(value);
+        }
+        return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    // ---- Columnar ----
+
+    /**
+    * Gzip'd column blocks, one block per page:
+    *   magic "SPTXCOL1", int columnCount, then per column: UTF name, byte type (1 string, 2 long, 3 double)
+    *   blocks: int rowCount (0 ends the file), then every column's values for those rows, column after column
+    *     string: varint (UTF-8 length + 1, 0 = null) + bytes
+    *     long:   zigzag varint of the delta to the previous row in the block (timestamps compress to a few bytes)
+    *     double: 8 bytes IEEE 754; realizedGainLoss is NaN on BUY and SPLIT rows
+    */
+    public long writeColumnar(String userId, OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(out, 64 * 1024), 64 * 1024, true);
+        DataOutputStream data = new DataOutputStream(gzip);
+        data.write(COLUMNAR_MAGIC);
+        data.writeInt(COLUMNS.length);
+        for (int c = 0; c < COLUMNS.length; c++) {
+            data.writeUTF(COLUMNS[c]);
+            data.writeByte(COLUMN_TYPES[c]);
+        }
+
+        long rows = forEachPage(userId, page -> {
+            data.writeInt(page.size());
+            for (Stock s : page) writeString(data, s.getStockId());
+            for (Stock s : page) writeString(data, s.getTradeDate());
+            long previous = 0;
+            for (Stock s : page) {
+                long ts = s.getTimestamp() != null ? s.getTimestamp() : 0;
+                writeVarLong(data, ts - previous);
+                previous = ts;
+            }
+            for (Stock s : page) writeString(data, s.getType());
+            for (Stock s : page) writeString(data, s.getSymbol());
+            previous = 0;
+            for (Stock s : page) {
+                writeVarLong(data, s.getQuantity() - previous);
+                previous = s.getQuantity();
+            }
+            for (Stock s : page) data.writeDouble(Money.toDouble(s.getPurchasePriceMicros()));
+            for (Stock s : page) data.writeDouble(Money.toDouble(s.getCurrentPriceMicros()));
+            for (Stock s : page) data.writeDouble(isRealized(s) ? Money.toDouble(s.getGainLossMicros()) : Double.NaN);
+            // Sync-flush the deflater so the block reaches the client now
+            data.flush();
+        });
+        data.writeInt(0);
+        gzip.finish();
+        data.flush();
+        metrics.observe("ledger_export_rows", rows, MetricsRegistry.SIZE_BUCKETS, "format", COLUMNAR);
+        return rows;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeUnsignedVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        writeUnsignedVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    private static void writeUnsignedVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    // ---- Paging ----
+
+    private long forEachPage(String userId, PageWriter writer) throws IOException {
+        LedgerArchiveService.Archived archived = ledgerArchiveService.read(userId);
+        long[] rows = {0};
+        // CLOSED summaries and trades the archive already holds are skipped
+        forEachHotPage(userId, page -> {
+            List<Stock> visible = new ArrayList<>(page.size());
+            for (Stock s : page) {
+                if (archived.isVisible(s)) visible.add(s);
+            }
+            if (!visible.isEmpty()) {
+                writer.write(visible);
+                rows[0] += visible.size();
+            }
+        });
+        for (LedgerArchive chunk : archived.getChunks()) {
+            List<Stock> page = archived.decode(chunk);
+            if (page.isEmpty()) continue;
+            writer.write(page);
+            rows[0] += page.size();
+        }
+        return rows[0];
+    }
+
+    private void forEachHotPage(String userId, PageWriter writer) throws IOException {
+        if ("embedded".equals(ledgerStore)) {
+            // Already local: slice the in-memory result instead of paging a remote index
+            List<Stock> all = stockRepository.findByUserId(userId);
+            for (int from = 0; from < all.size(); from += pageSize) {
+                writer.write(all.subList(from, Math.min(all.size(), from + pageSize)));
+            }
+            return;
+        }
+
+        Stock key = new Stock();
+        key.setUserId(userId);
+        DynamoDBQueryExpression<Stock> query = new DynamoDBQueryExpression<Stock>()
+                .withIndexName("userId-index")
+                .withConsistentRead(false)
+                .withHashKeyValues(key)
+                .withLimit(pageSize);
+
+        Map<String, AttributeValue> lastKey = null;
+        do {
+            query.setExclusiveStartKey(lastKey);
+            QueryResultPage<Stock> page = dynamoDBMapper.queryPage(Stock.class, query);
+            if (!page.getResults().isEmpty()) {
+                writer.write(page.getResults());
+            }
+            lastKey = page.getLastEvaluatedKey();
+        } while (lastKey != null);
+    }
+
+    private static boolean isRealized(Stock s) {
+        return "SELL".equalsIgnoreCase(s.getType()) || "DIVIDEND".equalsIgnoreCase(s.getType());
+    }
+}
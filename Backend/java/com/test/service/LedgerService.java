@@ -0,0 +1,341 @@
+package com.test.service;
+
+import com.test.metrics.MetricsRegistry;
+import com.test.model.LedgerCheckpoint;
+import com.test.model.Money;
+import com.test.model.Stock;
+import com.test.repository.LedgerCheckpointRepository;
+import com.test.repository.StockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+* Average-cost replay of a symbol's trade ledger, resumable from checkpoints.
+* Editing or deleting a past trade replays only from the nearest checkpoint
+* before it and rewrites the realized P&L of every later SELL in that pass.
+*/
+@Service
+public class LedgerService {
+    private static final Logger logger = LoggerFactory.getLogger(LedgerService.class);
+
+    // Oldest -> Newest; stockId breaks ties so the order is the same on every replay
+    public static final Comparator<Stock> CHRONOLOGICAL = Comparator
+            .comparingLong((Stock s) -> s.getTimestamp() != null ? s.getTimestamp() : 0)
+            .thenComparing(Stock::getStockId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    @Autowired private StockRepository stockRepository;
+    @Autowired private LedgerCheckpointRepository checkpointRepository;
+    @Autowired private MetricsRegistry metrics;
+
+    @Value("${ledger.checkpoint-interval:50}")
+    private int checkpointInterval;
+
+    /**
+    * Running position of one symbol, in micro-units (see Money). Same average-cost rules as the holdings view:
+    * a SELL removes its share of the cost basis (costBasis * sold / held, rounded once), so selling
+    * everything leaves a basis of exactly 0 and realized P&L + remaining basis always add up to what was paid.
+    * Corporate-action adjustments: a SPLIT rescales the share count (fractions are dropped) and keeps the
+    * whole basis; a DIVIDEND pays purchasePrice per share held and counts as realized income.
+    * A CLOSED row stands in for an archived, flat stretch of the ledger (see LedgerArchiveService) and resets to zero.
+    */
+    public static class Position {
+        private int quantity;
+        private long costBasisMicros;
+
+        public Position() {}
+
+        public Position(int quantity, long costBasisMicros) {
+            this.quantity = quantity;
+            this.costBasisMicros = costBasisMicros;
+        }
+
+        /** Applies one trade and returns its realized P&L in micros (0 for a BUY). */
+        public long apply(Stock t) {
+            if ("BUY".equalsIgnoreCase(t.getType())) {
+                quantity += t.getQuantity();
+                costBasisMicros += Money.times(t.getPurchasePriceMicros(), t.getQuantity());
+                return 0;
+            }
+            if ("SELL".equalsIgnoreCase(t.getType())) {
+                long soldCost = 0;
+                if (quantity > 0) {
+                    soldCost = Money.mulDiv(costBasisMicros, t.getQuantity(), quantity);
+                    quantity -= t.getQuantity();
+                    costBasisMicros -= soldCost;
+                }
+                return Money.times(t.getPurchasePriceMicros(), t.getQuantity()) - soldCost;
+            }
+            if ("SPLIT".equalsIgnoreCase(t.getType())) {
+                if (t.getSplitFrom() > 0 && t.getSplitTo() > 0) {
+                    quantity = Math.toIntExact((long) quantity * t.getSplitTo() / t.getSplitFrom());
+                }
+                return 0;
+            }
+            if ("DIVIDEND".equalsIgnoreCase(t.getType())) {
+                return quantity > 0 ? Money.times(t.getPurchasePriceMicros(), quantity) : 0;
+            }
+            if ("CLOSED".equalsIgnoreCase(t.getType())) {
+                quantity = 0;
+                costBasisMicros = 0;
+                return 0;
+            }
+            return 0;
+        }
+
+        public long getAverageCostMicros() {
+            return quantity > 0 ? Money.divide(costBasisMicros, quantity) : 0;
+        }
+
+        public int getQuantity() { return quantity; }
+        public long getCostBasisMicros() { return costBasisMicros; }
+    }
+
+    /** Price of the newest BUY / SELL in an oldest-first ledger (adjustment rows carry no price), or 0. */
+    public static long lastTradePriceMicros(List<Stock> trades) {
+        for (int i = trades.size() - 1; i >= 0; i--) {
+            Stock t = trades.get(i);
+            if ("BUY".equalsIgnoreCase(t.getType()) || "SELL".equalsIgnoreCase(t.getType())) {
+                return t.getPurchasePriceMicros();
+            }
+        }
+        return 0;
+    }
+
+    /** All trades of one symbol for a user, oldest first: one query of userSymbol-index, not the whole ledger. */
+    public List<Stock> getSymbolTrades(String userId, String symbol) {
+        return sorted(stockRepository.findByUserSymbol(Stock.userSymbolKey(userId, symbol)));
+    }
+
+    // Trades at or after a timestamp; ties with it are cut by stockId in firstTradeAfter
+    private List<Stock> getSymbolTradesFrom(String userId, String symbol, long timestamp) {
+        return sorted(stockRepository.findByUserSymbolAndTimestampGreaterThanEqual(Stock.userSymbolKey(userId, symbol), timestamp));
+    }
+
+    private List<Stock> sorted(List<Stock> found) {
+        // The index orders by timestamp only; stockId ties need the full comparator
+        List<Stock> trades = new ArrayList<>(found);
+        trades.sort(CHRONOLOGICAL);
+        metrics.observe("ledger_symbol_trades", trades.size(), MetricsRegistry.SIZE_BUCKETS);
+        return trades;
+    }
+
+    /**
+    * Position after the last trade, replaying only the tail after the newest checkpoint.
+    * Adds checkpoints when the tail has grown past the interval.
+    */
+    public Position getCurrentPosition(String userId, String symbol) {
+        LedgerCheckpoint checkpoint = loadCheckpoint(userId, symbol);
+        int cp = checkpoint.getTimestamps().size() - 1;
+        // Only the tail is read: everything before the checkpoint is already in it
+        List<Stock> trades = cp < 0
+                ? getSymbolTrades(userId, symbol)
+                : getSymbolTradesFrom(userId, symbol, checkpoint.getTimestamps().get(cp));
+
+        Position position = positionAt(checkpoint, cp);
+        int start = firstTradeAfter(trades, checkpoint, cp);
+
+        boolean grown = false;
+        for (int i = start; i < trades.size(); i++) {
+            position.apply(trades.get(i));
+            if ((i - start + 1) % checkpointInterval == 0) {
+                addCheckpoint(checkpoint, trades.get(i), position);
+                grown = true;
+            }
+        }
+        if (grown) {
+            checkpointRepository.save(checkpoint);
+        }
+        return position;
+    }
+
+    /**
+    * Call after a trade was edited (and saved). Fixes later SELLs, including the edited one.
+    * Like the other recompute calls, returns the position after the last trade.
+    */
+    public Position recomputeAfterChange(Stock changed) {
+        return recompute(changed.getUserId(), changed.getSymbol(), changed, changed);
+    }
+
+    /** Call after a trade was deleted. */
+    public Position recomputeAfterDelete(Stock deleted) {
+        return recompute(deleted.getUserId(), deleted.getSymbol(), deleted, null);
+    }
+
+    /** Call when an edit moved a trade to another symbol: the old timeline lost it from this point on. */
+    public Position recomputeAfterRemoval(String userId, String symbol, Stock removed) {
+        return recompute(userId, symbol, removed, null);
+    }
+
+    /** Replays the whole timeline, dropping every checkpoint (used by data migrations). */
+    public Position recomputeAll(String userId, String symbol) {
+        Stock beforeEverything = new Stock();
+        beforeEverything.setTimestamp(Long.MIN_VALUE);
+        return recompute(userId, symbol, beforeEverything, null);
+    }
+
+    private Position recompute(String userId, String symbol, Stock from, Stock override) {
+        if (userId == null || symbol == null) return new Position();
+
+        // Everything at or after the changed trade is stale
+        LedgerCheckpoint checkpoint = loadCheckpoint(userId, symbol);
+        int cp = lastCheckpointBefore(checkpoint, from);
+        truncate(checkpoint, cp + 1);
+
+        // Only the tail is read: everything before the checkpoint is already in it
+        List<Stock> trades = cp < 0
+                ? getSymbolTrades(userId, symbol)
+                : getSymbolTradesFrom(userId, symbol, checkpoint.getTimestamps().get(cp));
+        // The index is eventually consistent and may lag the write that triggered this replay:
+        // never trust it for the changed trade itself
+        if (override != null) {
+            // Use the caller's instance so it sees the recomputed gainLoss too
+            trades.removeIf(t -> Objects.equals(t.getStockId(), override.getStockId()));
+            trades.add(override);
+            trades.sort(CHRONOLOGICAL);
+        } else if (from.getStockId() != null) {
+            trades.removeIf(t -> Objects.equals(t.getStockId(), from.getStockId()));
+        }
+
+        if (cp < 0 && trades.isEmpty()) {
+            if (checkpoint.getCheckpointKey() != null && !checkpoint.getTimestamps().isEmpty()) {
+                checkpointRepository.delete(checkpoint);
+            }
+            return new Position();
+        }
+
+        Position position = positionAt(checkpoint, cp);
+        int start = firstTradeAfter(trades, checkpoint, cp);
+
+        List<Stock> changedSells = new ArrayList<>();
+        for (int i = start; i < trades.size(); i++) {
+            Stock t = trades.get(i);
+            int held = position.getQuantity();
+            long realized = position.apply(t);
+            if (updateDerived(t, held, position.getQuantity(), realized) || (t == override && "SELL".equalsIgnoreCase(t.getType()))) {
+                changedSells.add(t);
+            }
+            if ((i - start + 1) % checkpointInterval == 0) {
+                addCheckpoint(checkpoint, t, position);
+            }
+        }
+
+        if (!changedSells.isEmpty()) {
+            stockRepository.saveAll(changedSells);
+        }
+        metrics.observe("ledger_replayed_trades", trades.size() - start, MetricsRegistry.SIZE_BUCKETS);
+        checkpointRepository.save(checkpoint);
+
+        logger.debug("Ledger replay {}#{}: {} trades replayed after checkpoint #{}, {} SELLs / adjustments updated",
+                userId, symbol, trades.size() - start, cp, changedSells.size());
+        return position;
+    }
+
+    /**
+    * Writes the replay's values into the fields a trade derives from its position: realized P&L of a SELL or
+    * DIVIDEND, the shares a DIVIDEND was paid on and the shares a SPLIT added. Returns true if any changed.
+    */
+    static boolean updateDerived(Stock t, int heldBefore, int heldAfter, long realized) {
+        String type = t.getType();
+        boolean changed = false;
+        if (("SELL".equalsIgnoreCase(type) || "DIVIDEND".equalsIgnoreCase(type)) && t.getGainLossMicros() != realized) {
+            t.setGainLossMicros(realized);
+            changed = true;
+        }
+        if ("DIVIDEND".equalsIgnoreCase(type) && t.getQuantity() != heldBefore) {
+            t.setQuantity(heldBefore);
+            changed = true;
+        }
+        if ("SPLIT".equalsIgnoreCase(type) && t.getQuantity() != heldAfter - heldBefore) {
+            t.setQuantity(heldAfter - heldBefore);
+            changed = true;
+        }
+        return changed;
+    }
+
+    // --- Checkpoint helpers ---
+
+    private LedgerCheckpoint loadCheckpoint(String userId, String symbol) {
+        String key = LedgerCheckpoint.key(userId, symbol);
+        LedgerCheckpoint checkpoint = checkpointRepository.findById(key).orElseGet(() -> {
+            LedgerCheckpoint c = new LedgerCheckpoint();
+            c.setCheckpointKey(key);
+            c.setUserId(userId);
+            c.setSymbol(symbol.toUpperCase());
+            return c;
+        });
+        if (checkpoint.getCostBasisMicros().size() != checkpoint.getTimestamps().size()) {
+            // Written before cost bases were micros: replay from the first trade and rebuild
+            truncate(checkpoint, 0);
+        }
+        return checkpoint;
+    }
+
+    private Position positionAt(LedgerCheckpoint c, int index) {
+        if (index < 0) return new Position();
+        return new Position(c.getQuantities().get(index), c.getCostBasisMicros().get(index));
+    }
+
+    private void addCheckpoint(LedgerCheckpoint c, Stock t, Position position) {
+        c.getTimestamps().add(t.getTimestamp() != null ? t.getTimestamp() : 0);
+        c.getStockIds().add(t.getStockId());
+        c.getQuantities().add(position.getQuantity());
+        c.getCostBasisMicros().add(position.getCostBasisMicros());
+    }
+
+    private void truncate(LedgerCheckpoint c, int size) {
+        c.getTimestamps().subList(size, c.getTimestamps().size()).clear();
+        c.getStockIds().subList(size, c.getStockIds().size()).clear();
+        c.getQuantities().subList(size, c.getQuantities().size()).clear();
+        c.getCostBasisMicros().subList(size, c.getCostBasisMicros().size()).clear();
+    }
+
+    // Index of the newest checkpoint strictly older than the trade, or -1 (binary search)
+    private int lastCheckpointBefore(LedgerCheckpoint c, Stock trade) {
+        long ts = trade.getTimestamp() != null ? trade.getTimestamp() : 0;
+        int lo = 0, hi = c.getTimestamps().size() - 1, found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compareKey(c.getTimestamps().get(mid), c.getStockIds().get(mid), ts, trade.getStockId()) < 0) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    // Index of the first trade after checkpoint #index (binary search over the sorted trades)
+    private int firstTradeAfter(List<Stock> trades, LedgerCheckpoint c, int index) {
+        if (index < 0) return 0;
+        long cpTs = c.getTimestamps().get(index);
+        String cpId = c.getStockIds().get(index);
+
+        int lo = 0, hi = trades.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            Stock t = trades.get(mid);
+            long ts = t.getTimestamp() != null ? t.getTimestamp() : 0;
+            if (compareKey(ts, t.getStockId(), cpTs, cpId) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int compareKey(long ts1, String id1, long ts2, String id2) {
+        int c = Long.compare(ts1, ts2);
+        if (c != 0) return c;
+        return Comparator.nullsFirst(Comparator.<String>naturalOrder()).compare(id1, id2);
+    }
+}
@@ -0,0 +1,71 @@
+package com.test.service;
+
+import com.test.model.Stock;
+import com.test.repository.StockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+* One-off rewrite for the switch to micro-unit money (see Money). Every trade is saved again, which
+* snaps prices stored as doubles (150.24999999999997) to the micro grid, then every ledger is replayed
+* from its first trade so realized P&L and checkpoints are recomputed exactly.
+* Running it again changes nothing.
+*/
+@Service
+public class MoneyMigrationService {
+    private static final Logger logger = LoggerFactory.getLogger(MoneyMigrationService.class);
+
+    @Autowired private StockRepository stockRepository;
+    @Autowired private LedgerService ledgerService;
+
+    @Value("${migration.batch-size:25}")
+    private int batchSize;
+
+    public synchronized Map<String, Object> migrate() {
+        long started = System.currentTimeMillis();
+        Map<String, Set<String>> ledgers = new TreeMap<>();
+        List<Stock> batch = new ArrayList<>(batchSize);
+        long rows = 0;
+
+        // 1. Rewrite every row in the new representation
+        for (Stock s : stockRepository.findAll()) {
+            if (s.getUserId() != null && s.getSymbol() != null) {
+                ledgers.computeIfAbsent(s.getUserId(), k -> new TreeSet<>()).add(s.getSymbol().toUpperCase());
+            }
+            batch.add(s);
+            if (batch.size() >= batchSize) {
+                stockRepository.saveAll(batch);
+                rows += batch.size();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            stockRepository.saveAll(batch);
+            rows += batch.size();
+        }
+
+        // 2. Exact realized P&L and fresh checkpoints for every user + symbol
+        int replayed = 0;
+        for (Map.Entry<String, Set<String>> entry : ledgers.entrySet()) {
+            for (String symbol : entry.getValue()) {
+                ledgerService.recomputeAll(entry.getKey(), symbol);
+                replayed++;
+            }
+        }
+
+        long durationMs = System.currentTimeMillis() - started;
+        logger.info("Money migration: {} trades rewritten, {} ledgers replayed in {} ms", rows, replayed, durationMs);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("tradesRewritten", rows);
+        result.put("users", ledgers.size());
+        result.put("ledgersReplayed", replayed);
+        result.put("durationMs", durationMs);
+        return result;
+    }
+}
@@ -0,0 +1,165 @@
+package com.test.service;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+* Circular block bootstrap of historical daily returns, many paths in parallel.
+* A path strings together randomly placed runs of blockDays consecutive historical days, taking every
+* symbol's return of the same day, so correlations and short-term momentum survive the resampling.
+* All allocations are valued on the same paths (common random numbers), which makes their differences
+* far less noisy than independent runs. Paths are split across the pool; every task has its own
+* SplittableRandom split from the seed, so a seed gives the same outcomes whatever the thread timing.
+*/
+public final class MonteCarlo {
+
+    // Paths per leaf task
+    private static final int PATHS_PER_TASK = 256;
+
+    private MonteCarlo() {}
+
+    /** Per-path outcomes of one allocation, indexed by path: final return and max drawdown as fractions. */
+    public static final class Outcomes {
+        public final double[] finalReturns;
+        public final double[] maxDrawdowns;
+
+        Outcomes(int paths) {
+            finalReturns = new double[paths];
+            maxDrawdowns = new double[paths];
+        }
+    }
+
+    /**
+    * @param growth    day-major historical growth factors (1 + daily return): growth[t * symbols + i]
+    * @param weights   allocations to value, each over all symbols and summing to 1, bought once and held
+    * @param horizon   trading days per path
+    */
+    public static Outcomes[] simulate(double[] growth, int symbols, double[][] weights, int horizon,
+                                      int paths, int blockDays, long seed, ForkJoinPool pool) {
+        int days = growth.length / symbols;
+        if (days == 0) throw new IllegalArgumentException("No return history");
+        Outcomes[] outcomes = new Outcomes[weights.length];
+        for (int a = 0; a < weights.length; a++) {
+            outcomes[a] = new Outcomes(paths);
+        }
+        Job job = new Job(growth, symbols, days, weights, horizon, Math.max(1, Math.min(blockDays, days)), outcomes);
+        pool.invoke(new PathTask(job, 0, paths, new SplittableRandom(seed)));
+        return outcomes;
+    }
+
+    /** Nearest-rank percentile of an ascending array, p in [0, 1]. */
+    public static double percentile(double[] sorted, double p) {
+        if (sorted.length == 0) return Double.NaN;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    public static double[] sortedCopy(double[] values) {
+        double[] copy = values.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    // One day for one allocation: every holding grows by its return, returns the portfolio value.
+    // Four independent sums, since the JIT won't reorder a floating-point reduction on its own
+    private static double grow(double[] held, double[] growth, int base, int n) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            s0 += held[i] *= growth[base + i];
+            s1 += held[i + 1] *= growth[base + i + 1];
+            s2 += held[i + 2] *= growth[base + i + 2];
+            s3 += held[i + 3] *= growth[base + i + 3];
+        }
+        for (; i < n; i++) {
+            s0 += held[i] *= growth[base + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static final class Job {
+        final double[] growth;
+        final int symbols, days;
+        final double[][] weights;
+        final int horizon, blockDays;
+        final Outcomes[] outcomes;
+
+        Job(double[] growth, int symbols, int days, double[][] weights, int horizon, int blockDays, Outcomes[] outcomes) {
+            this.growth = growth;
+            this.symbols = symbols;
+            this.days = days;
+            this.weights = weights;
+            this.horizon = horizon;
+            this.blockDays = blockDays;
+            this.outcomes = outcomes;
+        }
+    }
+
+    private static final class PathTask extends RecursiveAction {
+        private final Job job;
+        private final int from, to;
+        private final SplittableRandom random;
+
+        PathTask(Job job, int from, int to, SplittableRandom random) {
+            this.job = job;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > PATHS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                // Split before forking, so the streams depend on the path range only
+                SplittableRandom leftRandom = random.split();
+                invokeAll(new PathTask(job, from, mid, leftRandom), new PathTask(job, mid, to, random));
+                return;
+            }
+
+            int k = job.symbols;
+            int allocations = job.weights.length;
+            double[] growth = job.growth;
+            // held[a][i] = money in symbol i under allocation a (starts at the weight, portfolio value 1)
+            double[][] held = new double[allocations][k];
+            double[] peak = new double[allocations];
+            double[] drawdown = new double[allocations];
+            double[] value = new double[allocations];
+
+            for (int p = from; p < to; p++) {
+                for (int a = 0; a < allocations; a++) {
+                    System.arraycopy(job.weights[a], 0, held[a], 0, k);
+                }
+                Arrays.fill(peak, 1.0);
+                Arrays.fill(drawdown, 0.0);
+                Arrays.fill(value, 1.0);
+
+                int day = 0;
+                while (day < job.horizon) {
+                    int t = random.nextInt(job.days);
+                    int run = Math.min(job.blockDays, job.horizon - day);
+                    for (int r = 0; r < run; r++, day++) {
+                        int base = t * k;
+                        for (int a = 0; a < allocations; a++) {
+                            double v = grow(held[a], growth, base, k);
+                            value[a] = v;
+                            if (v > peak[a]) {
+                                peak[a] = v;
+                            } else if (1 - v / peak[a] > drawdown[a]) {
+                                drawdown[a] = 1 - v / peak[a];
+                            }
+                        }
+                        if (++t == job.days) t = 0;
+                    }
+                }
+
+                for (int a = 0; a < allocations; a++) {
+                    job.outcomes[a].finalReturns[p] = value[a] - 1;
+                    job.outcomes[a].maxDrawdowns[p] = drawdown[a];
+                }
+            }
+        }
+    }
+}
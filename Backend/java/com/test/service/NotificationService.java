@@ -1,70 +1,103 @@
-package com.test.service;
- 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.test.model.Stock;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
-import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
- 
-import java.util.HashMap;
-import java.util.Map;
- 
-/**
-* Best-effort notification sender to API Gateway -> Lambda (SES).
-* Logs and swallows exceptions so main flow (DB writes) does not fail.
-*/
-@Service
-public class NotificationService {
-    private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
- 
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
- 
-    @Value("${trade.notification.url}")
-    private String tradeNotificationUrl;
- 
-    public NotificationService(RestTemplate restTemplate, ObjectMapper objectMapper) {
-        this.restTemplate = restTemplate;
-        this.objectMapper = objectMapper;
-    }
- 
-    public void notifyTrade(Stock trade, String email) {
-        if (trade == null || email == null || email.isBlank() || tradeNotificationUrl == null || tradeNotificationUrl.isBlank()) {
-            logger.debug("Notification skipped: missing trade/email/url");
-            return;
-        }
- 
-        try {
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("email", email);
-            payload.put("symbol", trade.getSymbol());
-            payload.put("type", trade.getType());
-            payload.put("quantity", trade.getQuantity());
-            payload.put("purchasePrice", trade.getPurchasePrice());
-            payload.put("currentPrice", trade.getCurrentPrice());
-            payload.put("gainLoss", trade.getGainLoss());
-            payload.put("tradeDate", trade.getTradeDate());
-            payload.put("timestamp", trade.getTimestamp());
-            payload.put("userId", trade.getUserId());
- 
-            String json = objectMapper.writeValueAsString(payload);
- 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<String> req = new HttpEntity<>(json, headers);
- 
-            ResponseEntity<String> resp = restTemplate.exchange(tradeNotificationUrl, HttpMethod.POST, req, String.class);
- 
-            if (!resp.getStatusCode().is2xxSuccessful()) {
-                logger.warn("Trade notification returned non-2xx: {} body={}", resp.getStatusCodeValue(), resp.getBody());
-            } else {
-                logger.info("Trade notification sent successfully. status={}, body={}", resp.getStatusCodeValue(), resp.getBody());
-            }
-        } catch (Exception e) {
-            logger.error("Failed to send trade notification: {}", e.getMessage(), e);
-        }
-    }
+package com.test.service;
+ 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.metrics.MetricsRegistry;
+import com.test.model.Money;
+import com.test.model.PriceAlert;
+import com.test.model.Stock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+ 
+import java.util.HashMap;
+import java.util.Map;
+ 
+/**
+* Best-effort notification sender to API Gateway -> Lambda (SES).
+* Logs and swallows exceptions so main flow (DB writes) does not fail.
+*/
+@Service
+public class NotificationService {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
+ 
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final MetricsRegistry metrics;
+ 
+    @Value("${trade.notification.url}")
+    private String tradeNotificationUrl;
+ 
+    public NotificationService(RestTemplate restTemplate, ObjectMapper objectMapper, MetricsRegistry metrics) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+    }
+ 
+    public void notifyTrade(Stock trade, String email) {
+        if (trade == null || email == null || email.isBlank() || tradeNotificationUrl == null || tradeNotificationUrl.isBlank()) {
+            logger.debug("Notification skipped: missing trade/email/url");
+            return;
+        }
+ 
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("email", email);
+        payload.put("symbol", trade.getSymbol());
+        payload.put("type", trade.getType());
+        payload.put("quantity", trade.getQuantity());
+        payload.put("purchasePrice", Money.toDouble(trade.getPurchasePriceMicros()));
+        payload.put("currentPrice", Money.toDouble(trade.getCurrentPriceMicros()));
+        payload.put("gainLoss", Money.toDouble(trade.getGainLossMicros()));
+        payload.put("tradeDate", trade.getTradeDate());
+        payload.put("timestamp", trade.getTimestamp());
+        payload.put("userId", trade.getUserId());
+        send(payload, "Trade");
+    }
+ 
+    /**
+    * Same endpoint as trade notifications; the Lambda tells them apart by type = "PRICE_ALERT".
+    */
+    public void notifyPriceAlert(PriceAlert alert, double price) {
+        if (alert == null || alert.getEmail() == null || alert.getEmail().isBlank() || tradeNotificationUrl == null || tradeNotificationUrl.isBlank()) {
+            logger.debug("Price alert notification skipped: missing alert/email/url");
+            return;
+        }
+ 
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("email", alert.getEmail());
+        payload.put("type", "PRICE_ALERT");
+        payload.put("symbol", alert.getSymbol());
+        payload.put("direction", alert.getDirection());
+        payload.put("targetPrice", alert.getTargetPrice());
+        payload.put("currentPrice", price);
+        payload.put("alertId", alert.getAlertId());
+        payload.put("timestamp", alert.getTriggeredAt());
+        payload.put("userId", alert.getUserId());
+        send(payload, "Price alert");
+    }
+ 
+    private void send(Map<String, Object> payload, String kind) {
+        try {
+            String json = objectMapper.writeValueAsString(payload);
+ 
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            HttpEntity<String> req = new HttpEntity<>(json, headers);
+ 
+            ResponseEntity<String> resp = metrics.time("notification_request",
+                    () -> restTemplate.exchange(tradeNotificationUrl, HttpMethod.POST, req, String.class),
+                    "kind", kind.toLowerCase().replace(' ', '_'));
+ 
+            if (!resp.getStatusCode().is2xxSuccessful()) {
+                metrics.increment("notification_non_2xx_total", "kind", kind.toLowerCase().replace(' ', '_'));
+                logger.warn("{} notification returned non-2xx: {} body={}", kind, resp.getStatusCodeValue(), resp.getBody());
+            } else {
+                logger.info("{} notification sent successfully. status={}, body={}", kind, resp.getStatusCodeValue(), resp.getBody());
+            }
+        } catch (Exception e) {
+            logger.error("Failed to send {} notification: {}", kind.toLowerCase(), e.getMessage(), e);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,236 @@
+package com.test.service;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ExpectedAttributeValue;
+import com.test.metrics.MetricsRegistry;
+import com.test.model.PriceAlert;
+import com.test.repository.PriceAlertRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+* "Notify me when AAPL crosses $200" alerts.
+* Each symbol keeps its active thresholds in two sorted price-level maps (ABOVE / BELOW),
+* so a price update only touches the levels it crossed: O(log n + k) instead of O(alerts).
+* Alerts are persisted in the PriceAlerts table and re-indexed on startup.
+* Every instance polls the alerts in its own book, so in cluster mode the same crossing is seen more than once.
+* ACTIVE -> TRIGGERED is a conditional write, and only the instance whose write succeeds notifies.
+* A book may also still hold an alert another instance deleted; that write fails too, so the alert stays deleted.
+*/
+@Service
+public class PriceAlertService {
+    private static final Logger logger = LoggerFactory.getLogger(PriceAlertService.class);
+
+    public static final String ABOVE = "ABOVE";
+    public static final String BELOW = "BELOW";
+    public static final String ACTIVE = "ACTIVE";
+    public static final String TRIGGERED = "TRIGGERED";
+
+    @Autowired private PriceAlertRepository priceAlertRepository;
+    @Autowired private DynamoDBMapper dynamoDBMapper;
+    @Autowired private NotificationService notificationService;
+    @Autowired private QuoteService quoteService;
+    @Autowired private MetricsRegistry metrics;
+
+    @Value("${alerts.poll.enabled:true}")
+    private boolean pollEnabled;
+
+    private final Map<String, SymbolBook> books = new ConcurrentHashMap<>();
+
+    // Persisting + notifying happens off the evaluation path
+    private final ExecutorService firingExecutor;
+
+    public PriceAlertService(@Value("${alerts.notify-threads:4}") int notifyThreads) {
+        this.firingExecutor = Executors.newFixedThreadPool(notifyThreads);
+    }
+
+    /** Thresholds of one symbol, grouped by price level. */
+    private static class SymbolBook {
+        final TreeMap<Double, List<PriceAlert>> above = new TreeMap<>();
+        final TreeMap<Double, List<PriceAlert>> below = new TreeMap<>();
+
+        TreeMap<Double, List<PriceAlert>> side(String direction) {
+            return ABOVE.equals(direction) ? above : below;
+        }
+
+        boolean isEmpty() {
+            return above.isEmpty() && below.isEmpty();
+        }
+    }
+
+    @PostConstruct
+    public void loadActiveAlerts() {
+        metrics.gauge("price_alerts_active", this::getActiveAlertCount);
+        try {
+            List<PriceAlert> active = priceAlertRepository.findByStatus(ACTIVE);
+            active.forEach(this::index);
+            logger.info("Loaded {} active price alerts for {} symbols", active.size(), books.size());
+        } catch (Exception e) {
+            logger.error("Could not load price alerts: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        firingExecutor.shutdown();
+    }
+
+    public PriceAlert createAlert(PriceAlert alert) {
+        alert.setSymbol(alert.getSymbol().toUpperCase());
+        alert.setDirection(alert.getDirection().toUpperCase());
+        alert.setStatus(ACTIVE);
+        alert.setCreatedAt(System.currentTimeMillis());
+        alert.setTriggeredAt(null);
+        alert.setTriggeredPrice(null);
+
+        PriceAlert saved = priceAlertRepository.save(alert);
+        index(saved);
+        return saved;
+    }
+
+    public List<PriceAlert> getAlerts(String userId) {
+        return priceAlertRepository.findByUserId(userId);
+    }
+
+    public void deleteAlert(PriceAlert alert) {
+        unindex(alert);
+        priceAlertRepository.delete(alert);
+    }
+
+    /**
+    * Fires every alert the new price crossed. Called by the poller below and by anything
+    * else that sees a fresh quote.
+    */
+    public void onPrice(String symbol, double price) {
+        if (symbol == null || price <= 0) return;
+        SymbolBook book = books.get(symbol.toUpperCase());
+        if (book == null) return;
+
+        long start = System.nanoTime();
+        List<PriceAlert> fired = null;
+        synchronized (book) {
+            // ABOVE alerts with target <= price, BELOW alerts with target >= price
+            fired = drain(book.above.headMap(price, true), fired);
+            fired = drain(book.below.tailMap(price, true), fired);
+        }
+        metrics.recordNanos("price_alert_evaluation_seconds", System.nanoTime() - start);
+
+        if (fired != null) {
+            for (PriceAlert alert : fired) {
+                firingExecutor.execute(() -> fire(alert, price));
+            }
+        }
+    }
+
+    private List<PriceAlert> drain(NavigableMap<Double, List<PriceAlert>> crossed, List<PriceAlert> into) {
+        if (crossed.isEmpty()) return into;
+        if (into == null) into = new ArrayList<>();
+        for (List<PriceAlert> level : crossed.values()) {
+            into.addAll(level);
+        }
+        crossed.clear();
+        return into;
+    }
+
+    private void fire(PriceAlert alert, double price) {
+        Map<String, ExpectedAttributeValue> expected = new HashMap<>();
+        expected.put("alertId", new ExpectedAttributeValue().withComparisonOperator(ComparisonOperator.NOT_NULL));
+        expected.put("status", new ExpectedAttributeValue()
+                .withComparisonOperator(ComparisonOperator.EQ)
+                .withAttributeValueList(new AttributeValue(ACTIVE)));
+        try {
+            alert.setStatus(TRIGGERED);
+            alert.setTriggeredAt(System.currentTimeMillis());
+            alert.setTriggeredPrice(price);
+            dynamoDBMapper.save(alert, new DynamoDBSaveExpression().withExpected(expected));
+        } catch (ConditionalCheckFailedException e) {
+            // Another instance fired it first, or it was deleted
+            metrics.increment("price_alerts_fired_total", "result", "skipped");
+            return;
+        } catch (Exception e) {
+            // Not known to have fired: back into the book, the next poll tries again
+            metrics.increment("price_alerts_fired_total", "result", "error");
+            logger.error("Failed to persist triggered alert {}: {}", alert.getAlertId(), e.getMessage(), e);
+            alert.setStatus(ACTIVE);
+            alert.setTriggeredAt(null);
+            alert.setTriggeredPrice(null);
+            index(alert);
+            return;
+        }
+        metrics.increment("price_alerts_fired_total", "result", "fired");
+        notificationService.notifyPriceAlert(alert, price);
+    }
+
+    // Poll one quote per symbol that has active alerts (shares the quote cache with the valuation endpoints)
+    @Scheduled(fixedDelayString = "${alerts.poll-ms:15000}", initialDelayString = "${alerts.poll-initial-delay-ms:15000}")
+    public void pollWatchedSymbols() {
+        if (!pollEnabled) return;
+        for (Map.Entry<String, SymbolBook> entry : books.entrySet()) {
+            String symbol = entry.getKey();
+            synchronized (entry.getValue()) {
+                // Books are kept after their last alert fires; no point quoting those
+                if (entry.getValue().isEmpty()) continue;
+            }
+            try {
+                Map<String, Object> quote = quoteService.getQuote(symbol);
+                if (quote != null && quote.get("c") != null) {
+                    onPrice(symbol, Double.parseDouble(quote.get("c").toString()));
+                }
+            } catch (Exception e) {
+                logger.warn("Alert poll failed for {}: {}", symbol, e.getMessage());
+            }
+        }
+    }
+
+    public int getActiveAlertCount() {
+        int count = 0;
+        for (SymbolBook book : books.values()) {
+            synchronized (book) {
+                for (List<PriceAlert> level : book.above.values()) count += level.size();
+                for (List<PriceAlert> level : book.below.values()) count += level.size();
+            }
+        }
+        return count;
+    }
+
+    // --- Index maintenance ---
+
+    private void index(PriceAlert alert) {
+        if (!ACTIVE.equals(alert.getStatus()) || alert.getSymbol() == null) return;
+        SymbolBook book = books.computeIfAbsent(alert.getSymbol().toUpperCase(), s -> new SymbolBook());
+        synchronized (book) {
+            book.side(alert.getDirection())
+                .computeIfAbsent(alert.getTargetPrice(), p -> new ArrayList<>(1))
+                .add(alert);
+        }
+    }
+
+    private void unindex(PriceAlert alert) {
+        if (alert.getSymbol() == null) return;
+        SymbolBook book = books.get(alert.getSymbol().toUpperCase());
+        if (book == null) return;
+        synchronized (book) {
+            TreeMap<Double, List<PriceAlert>> side = book.side(alert.getDirection());
+            List<PriceAlert> level = side.get(alert.getTargetPrice());
+            if (level != null) {
+                level.removeIf(a -> Objects.equals(a.getAlertId(), alert.getAlertId()));
+                if (level.isEmpty()) side.remove(alert.getTargetPrice());
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.test.service;
+
+import com.test.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+* The cluster leader's side of shared quotes: every cluster.publish-ms it quotes the union of held symbols
+* (from the SymbolHolders index) through the local QuoteService and writes the ones that changed to SharedPrices.
+* Only the lease holder publishes, so the provider sees one instance's traffic whatever the replica count.
+*/
+@Service
+public class QuotePublisher {
+    private static final Logger logger = LoggerFactory.getLogger(QuotePublisher.class);
+
+    @Autowired private ClusterLeaseService cluster;
+    @Autowired private QuoteService quoteService;
+    @Autowired private SharedPriceService sharedPrices;
+    @Autowired private HolderIndexService holderIndexService;
+    @Autowired private MetricsRegistry metrics;
+
+    @Value("${cluster.held-symbols-refresh-ms:60000}")
+    private long heldSymbolsRefreshMs;
+
+    // Always published, e.g. the benchmark and watch-list symbols
+    @Value("${cluster.publish.symbols:}")
+    private List<String> extraSymbols;
+
+    private volatile Set<String> heldSymbols = Collections.emptySet();
+    private volatile long heldSymbolsLoadedAt;
+
+    // Symbol -> fetchedAt of the quote last written, so unchanged quotes are not written again
+    private final Map<String, Long> published = new ConcurrentHashMap<>();
+
+    @Scheduled(fixedDelayString = "${cluster.publish-ms:10000}", initialDelayString = "${cluster.publish-initial-delay-ms:5000}")
+    public void publish() {
+        if (!cluster.isLeader()) {
+            // A new leader term republishes everything
+            published.clear();
+            return;
+        }
+        long start = System.nanoTime();
+        Set<String> symbols = new TreeSet<>(heldSymbols());
+        for (String symbol : extraSymbols) {
+            if (!symbol.isBlank()) symbols.add(symbol.trim().toUpperCase());
+        }
+
+        Map<String, QuoteService.CachedQuote> changed = new HashMap<>();
+        for (Map.Entry<String, QuoteService.CachedQuote> entry : quoteService.getQuotes(symbols).entrySet()) {
+            QuoteService.CachedQuote quote = entry.getValue();
+            if (quote == null) continue;
+            Long last = published.get(entry.getKey());
+            if (last == null || quote.getFetchedAt() > last) changed.put(entry.getKey(), quote);
+        }
+        int written = sharedPrices.publish(changed);
+        if (written == changed.size()) {
+            changed.forEach((symbol, quote) -> published.put(symbol, quote.getFetchedAt()));
+        }
+        published.keySet().retainAll(symbols);
+
+        metrics.observe("quote_publish_symbols", written, MetricsRegistry.SIZE_BUCKETS);
+        metrics.recordNanos("quote_publish_seconds", System.nanoTime() - start);
+        logger.debug("Published {} of {} symbols", written, symbols.size());
+    }
+
+    private Set<String> heldSymbols() {
+        if (System.currentTimeMillis() - heldSymbolsLoadedAt > heldSymbolsRefreshMs) {
+            try {
+                heldSymbols = holderIndexService.getHeldSymbols();
+                heldSymbolsLoadedAt = System.currentTimeMillis();
+            } catch (Exception e) {
+                // Keep publishing the last known set
+                logger.warn("Could not load held symbols: {}", e.getMessage());
+            }
+        }
+        return heldSymbols;
+    }
+}
@@ -0,0 +1,247 @@
+package com.test.service;
+
+import com.test.marketdata.MarketDataProvider;
+import com.test.metrics.MetricsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+* Quotes from the MarketDataProvider behind a short TTL cache (quotes.cache-ttl-ms), shared by every valuation path.
+* A failed fetch falls back to the last good quote, however old, before callers use their own fallbacks.
+* Batch lookups fetch their misses concurrently; concurrent misses of one symbol share a single provider call.
+*
+* In cluster mode a follower (see ClusterLeaseService) first reads misses from SharedPrices, which the leader keeps
+* current for every held symbol; only symbols nobody published recently (cluster.shared-max-age-ms) go to the
+* provider, and the answer is published for the other instances.
+*/
+@Service
+public class QuoteService {
+
+    @Autowired private MarketDataProvider marketData;
+    @Autowired private MetricsRegistry metrics;
+    @Autowired private ClusterLeaseService cluster;
+    @Autowired private SharedPriceService sharedPrices;
+
+    @Value("${quotes.cache-ttl-ms:15000}")
+    private long ttlMs;
+
+    @Value("${quotes.cache.max-entries:5000}")
+    private int maxEntries;
+
+    @Value("${quotes.batch.timeout-ms:5000}")
+    private long batchTimeoutMs;
+
+    @Value("${cluster.shared-max-age-ms:60000}")
+    private long sharedMaxAgeMs;
+
+    private final Map<String, CachedQuote> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<CachedQuote>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService fetchExecutor;
+
+    public QuoteService(@Value("${quotes.fetch-threads:8}") int fetchThreads) {
+        this.fetchExecutor = Executors.newFixedThreadPool(fetchThreads, r -> {
+            Thread t = new Thread(r, "quote-fetch");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        metrics.gauge("quote_cache_entries", cache::size);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    /**
+    * A quote as the provider returned it, plus when it was fetched.
+    * cachedAt is when this instance got it: the same as fetchedAt, except for quotes read from SharedPrices.
+    */
+    public static class CachedQuote {
+        private final Map<String, Object> quote;
+        private final long fetchedAt;
+        private final long cachedAt;
+
+        CachedQuote(Map<String, Object> quote, long fetchedAt) {
+            this(quote, fetchedAt, fetchedAt);
+        }
+
+        CachedQuote(Map<String, Object> quote, long fetchedAt, long cachedAt) {
+            this.quote = quote;
+            this.fetchedAt = fetchedAt;
+            this.cachedAt = cachedAt;
+        }
+
+        public Map<String, Object> getQuote() { return quote; }
+        public long getFetchedAt() { return fetchedAt; }
+        public long getAgeMs() { return System.currentTimeMillis() - fetchedAt; }
+
+        boolean isFresh(long ttlMs) {
+            return System.currentTimeMillis() - cachedAt <= ttlMs;
+        }
+    }
+
+    /** Finnhub-shaped quote ("c" = current price), from the cache when fresh. Empty map if unavailable. */
+    public Map<String, Object> getQuote(String symbol) {
+        String key = symbol.toUpperCase();
+        CachedQuote cached = cache.get(key);
+        if (cached != null && cached.isFresh(ttlMs)) {
+            metrics.increment("quote_cache_total", "result", "hit");
+            return cached.getQuote();
+        }
+        metrics.increment("quote_cache_total", "result", "miss");
+        if (cluster.isFollower()) {
+            CachedQuote shared = readShared(List.of(key)).get(key);
+            if (shared != null) return shared.getQuote();
+        }
+        return fetch(key);
+    }
+
+    /** Always asks the provider (e.g. to fill a trade price); the answer still refreshes the cache. */
+    public Map<String, Object> getFreshQuote(String symbol) {
+        return fetch(symbol.toUpperCase());
+    }
+
+    /**
+    * Quotes for many symbols at once, in request order (upper-cased, de-duplicated).
+    * Fresh cache entries are returned as is; the rest are fetched concurrently, bounded by quotes.batch.timeout-ms.
+    * A symbol maps to null when neither the provider nor the cache has a price for it.
+    */
+    public Map<String, CachedQuote> getQuotes(Collection<String> symbols) {
+        Map<String, CachedQuote> result = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String symbol : symbols) {
+            String key = symbol.toUpperCase();
+            if (result.containsKey(key)) continue;
+            CachedQuote cached = cache.get(key);
+            if (cached != null && cached.isFresh(ttlMs)) {
+                metrics.increment("quote_cache_total", "result", "hit");
+                result.put(key, cached);
+            } else {
+                metrics.increment("quote_cache_total", "result", "miss");
+                result.put(key, null); // keeps the request order
+                misses.add(key);
+            }
+        }
+
+        if (!misses.isEmpty() && cluster.isFollower()) {
+            // One batch read for all misses; only what nobody published recently goes to the provider
+            Map<String, CachedQuote> shared = readShared(misses);
+            result.putAll(shared);
+            misses.removeAll(shared.keySet());
+        }
+        Map<String, CompletableFuture<CachedQuote>> pending = new LinkedHashMap<>();
+        for (String key : misses) {
+            pending.put(key, fetchAsync(key));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchTimeoutMs);
+        for (Map.Entry<String, CompletableFuture<CachedQuote>> entry : pending.entrySet()) {
+            try {
+                result.put(entry.getKey(), entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.put(entry.getKey(), cache.get(entry.getKey()));
+            } catch (ExecutionException | TimeoutException e) {
+                // Too slow or failed: whatever we had, however old
+                result.put(entry.getKey(), cache.get(entry.getKey()));
+            }
+        }
+        return result;
+    }
+
+    /** Loads the given symbols into the cache (startup warm-up). */
+    public void prefetch(Collection<String> symbols) {
+        getQuotes(symbols.stream().filter(s -> s != null && !s.isBlank()).map(String::trim).toList());
+    }
+
+    /** Loads what other instances published to SharedPrices for the symbols, never calling the provider. */
+    public int prefetchShared(Collection<String> symbols) {
+        List<String> keys = symbols.stream().filter(s -> s != null && !s.isBlank()).map(s -> s.trim().toUpperCase()).toList();
+        return keys.isEmpty() ? 0 : readShared(keys).size();
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    public int getCachedSymbolCount() {
+        return cache.size();
+    }
+
+    // Single flight: a symbol already being fetched is not requested again
+    private CompletableFuture<CachedQuote> fetchAsync(String symbol) {
+        CompletableFuture<CachedQuote> created = new CompletableFuture<>();
+        CompletableFuture<CachedQuote> existing = inFlight.putIfAbsent(symbol, created);
+        if (existing != null) return existing;
+        try {
+            fetchExecutor.execute(() -> {
+                try {
+                    fetch(symbol);
+                    created.complete(cache.get(symbol));
+                } catch (Throwable e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(symbol, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(symbol, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    // Published quotes young enough to use, added to the local cache (fresh for another ttlMs from now)
+    private Map<String, CachedQuote> readShared(Collection<String> symbols) {
+        Map<String, CachedQuote> usable = new HashMap<>();
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, CachedQuote> entry : sharedPrices.read(symbols).entrySet()) {
+            CachedQuote shared = entry.getValue();
+            // Too old: the leader is gone or no longer publishes this symbol
+            if (shared.getAgeMs() > sharedMaxAgeMs) continue;
+            CachedQuote local = new CachedQuote(shared.getQuote(), shared.getFetchedAt(), now);
+            put(entry.getKey(), local);
+            usable.put(entry.getKey(), local);
+            metrics.increment("quote_cache_total", "result", "shared");
+        }
+        return usable;
+    }
+
+    private Map<String, Object> fetch(String symbol) {
+        Map<String, Object> quote = marketData.getQuote(symbol);
+        if (quote != null && quote.get("c") != null) {
+            CachedQuote fetched = new CachedQuote(quote, System.currentTimeMillis());
+            put(symbol, fetched);
+            if (cluster.isFollower()) {
+                // Not held by anyone, or the leader is behind: let the other instances use this one
+                sharedPrices.publish(Map.of(symbol, fetched));
+            }
+            return quote;
+        }
+        // Provider down or throttled: the last good quote beats the callers' fallbacks
+        CachedQuote stale = cache.get(symbol);
+        if (stale != null) {
+            metrics.increment("quote_cache_total", "result", "stale");
+            return stale.getQuote();
+        }
+        return quote;
+    }
+
+    private void put(String symbol, CachedQuote quote) {
+        if (cache.size() >= maxEntries && !cache.containsKey(symbol)) {
+            cache.values().removeIf(q -> !q.isFresh(ttlMs));
+            if (cache.size() >= maxEntries) return;
+        }
+        cache.put(symbol, quote);
+    }
+}
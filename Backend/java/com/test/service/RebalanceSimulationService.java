@@ -0,0 +1,202 @@
+package com.test.service;
+
+import com.test.metrics.MetricsRegistry;
+import com.test.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+* "What if I rebalance to X": the current holdings and a target allocation, both bought and held over
+* the horizon, on the same Monte Carlo paths bootstrapped from the cached daily closes (see MonteCarlo).
+* Returns percentile outcomes of both and how often the target ends ahead.
+*/
+@Service
+public class RebalanceSimulationService {
+    private static final Logger logger = LoggerFactory.getLogger(RebalanceSimulationService.class);
+
+    private static final double[] PERCENTILES = {0.05, 0.25, 0.50, 0.75, 0.95};
+    private static final int MIN_OBSERVATIONS = 20;
+
+    @Autowired private RiskAnalyticsService riskAnalyticsService;
+    @Autowired private CandleService candleService;
+    @Autowired private MetricsRegistry metrics;
+
+    @Value("${risk.benchmark-symbol:SPY}")
+    private String benchmarkSymbol;
+
+    @Value("${simulation.block-days:5}")
+    private int blockDays;
+
+    @Value("${simulation.seed:42}")
+    private long defaultSeed;
+
+    // Starting amount when the user holds nothing yet
+    @Value("${simulation.default-amount:10000}")
+    private double defaultAmount;
+
+    private final ForkJoinPool pool;
+
+    public RebalanceSimulationService(@Value("${simulation.parallelism:0}") int parallelism) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+    * @param target symbol -> weight (fractions or percentages; normalized to sum to 1)
+    * @throws IllegalArgumentException when a target symbol has no price history
+    */
+    public Map<String, Object> simulate(User user, Map<String, Double> target, int horizonDays, int paths, Long seed) {
+        long started = System.nanoTime();
+        TreeMap<String, Integer> holdings = riskAnalyticsService.currentHoldings(user.getUserId());
+
+        TreeMap<String, Double> targetWeights = new TreeMap<>();
+        target.forEach((symbol, weight) -> {
+            if (weight != null && weight > 0) targetWeights.merge(symbol.trim().toUpperCase(), weight, Double::sum);
+        });
+
+        // 1. Daily closes of everything held or targeted, on one calendar
+        TreeSet<String> universe = new TreeSet<>(holdings.keySet());
+        universe.addAll(targetWeights.keySet());
+        List<String> wanted = new ArrayList<>(universe);
+        wanted.add(benchmarkSymbol.toUpperCase());
+        Map<String, CandleService.DailySeries> series = candleService.getDailyCloses(wanted);
+
+        List<String> noHistory = new ArrayList<>();
+        for (String symbol : targetWeights.keySet()) {
+            if (series.get(symbol).isEmpty()) noHistory.add(symbol);
+        }
+        if (!noHistory.isEmpty()) {
+            throw new IllegalArgumentException("No price history for " + String.join(", ", noHistory));
+        }
+        List<String> symbols = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String symbol : universe) {
+            if (series.get(symbol).isEmpty()) missing.add(symbol);
+            else symbols.add(symbol);
+        }
+
+        CandleService.DailySeries benchmark = series.get(benchmarkSymbol.toUpperCase());
+        long[] calendar = !benchmark.isEmpty() ? benchmark.getDays() : RiskAnalyticsService.unionOfDays(symbols, series);
+        int k = symbols.size();
+        int days = calendar.length - 1;
+        if (days < MIN_OBSERVATIONS) {
+            throw new IllegalArgumentException("Not enough price history to simulate (" + Math.max(0, days) + " days)");
+        }
+
+        // 2. Day-major growth factors, current weights from the last close, target weights
+        double[] growth = new double[days * k];
+        double[] currentValues = new double[k];
+        double[] targetVector = new double[k];
+        double currentTotal = 0, targetSum = 0;
+        for (int i = 0; i < k; i++) {
+            String symbol = symbols.get(i);
+            double[] closes = RiskAnalyticsService.align(series.get(symbol), calendar);
+            double[] returns = RiskMath.returns(closes);
+            for (int t = 0; t < days; t++) {
+                growth[t * k + i] = 1 + returns[t];
+            }
+            currentValues[i] = holdings.getOrDefault(symbol, 0) * closes[closes.length - 1];
+            currentTotal += currentValues[i];
+            targetVector[i] = targetWeights.getOrDefault(symbol, 0.0);
+            targetSum += targetVector[i];
+        }
+        for (int i = 0; i < k; i++) {
+            targetVector[i] /= targetSum;
+        }
+
+        boolean hasCurrent = currentTotal > 0;
+        double startValue = hasCurrent ? currentTotal : defaultAmount;
+        double[][] allocations;
+        if (hasCurrent) {
+            double[] currentVector = new double[k];
+            for (int i = 0; i < k; i++) currentVector[i] = currentValues[i] / currentTotal;
+            allocations = new double[][] {currentVector, targetVector};
+        } else {
+            allocations = new double[][] {targetVector};
+        }
+
+        // 3. Paths
+        long simulationStart = System.nanoTime();
+        long usedSeed = seed != null ? seed : defaultSeed;
+        MonteCarlo.Outcomes[] outcomes = MonteCarlo.simulate(growth, k, allocations, horizonDays, paths, blockDays, usedSeed, pool);
+        long simulationNanos = System.nanoTime() - simulationStart;
+        metrics.recordNanos("rebalance_simulation_seconds", simulationNanos);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("asOf", LocalDate.now(ZoneOffset.UTC).toString());
+        result.put("horizonDays", horizonDays);
+        result.put("paths", paths);
+        result.put("blockDays", blockDays);
+        result.put("seed", usedSeed);
+        result.put("observations", days);
+        result.put("startValue", startValue);
+        result.put("missingData", missing);
+        result.put("current", hasCurrent ? summarize(symbols, allocations[0], outcomes[0], startValue) : null);
+        MonteCarlo.Outcomes targetOutcomes = outcomes[outcomes.length - 1];
+        result.put("target", summarize(symbols, targetVector, targetOutcomes, startValue));
+
+        if (hasCurrent) {
+            // Same paths for both, so this is a paired comparison
+            int ahead = 0;
+            for (int p = 0; p < paths; p++) {
+                if (targetOutcomes.finalReturns[p] > outcomes[0].finalReturns[p]) ahead++;
+            }
+            result.put("targetAheadProbability", (double) ahead / paths);
+        }
+        result.put("durationMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        logger.debug("Rebalance simulation for {}: {} symbols x {} days history, {} paths x {} days in {} ms",
+                user.getUserId(), k, days, paths, horizonDays, TimeUnit.NANOSECONDS.toMillis(simulationNanos));
+        return result;
+    }
+
+    private static Map<String, Object> summarize(List<String> symbols, double[] weights, MonteCarlo.Outcomes outcomes, double startValue) {
+        Map<String, Double> allocation = new LinkedHashMap<>();
+        for (int i = 0; i < symbols.size(); i++) {
+            if (weights[i] > 0) allocation.put(symbols.get(i), weights[i]);
+        }
+
+        double[] returns = MonteCarlo.sortedCopy(outcomes.finalReturns);
+        double[] drawdowns = MonteCarlo.sortedCopy(outcomes.maxDrawdowns);
+        double sum = 0;
+        int losses = 0;
+        for (double r : returns) {
+            sum += r;
+            if (r < 0) losses++;
+        }
+
+        Map<String, Double> returnPercentiles = new LinkedHashMap<>();
+        Map<String, Double> valuePercentiles = new LinkedHashMap<>();
+        Map<String, Double> drawdownPercentiles = new LinkedHashMap<>();
+        for (double p : PERCENTILES) {
+            String key = "p" + Math.round(p * 100);
+            double r = MonteCarlo.percentile(returns, p);
+            returnPercentiles.put(key, r);
+            valuePercentiles.put(key, startValue * (1 + r));
+            drawdownPercentiles.put(key, MonteCarlo.percentile(drawdowns, p));
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("allocation", allocation);
+        summary.put("expectedReturn", returns.length > 0 ? sum / returns.length : 0);
+        summary.put("probabilityOfLoss", returns.length > 0 ? (double) losses / returns.length : 0);
+        summary.put("returnPercentiles", returnPercentiles);
+        summary.put("valuePercentiles", valuePercentiles);
+        summary.put("maxDrawdownPercentiles", drawdownPercentiles);
+        return summary;
+    }
+}
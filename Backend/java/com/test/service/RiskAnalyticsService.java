@@ -0,0 +1,225 @@
+package com.test.service;
+
+import com.test.metrics.MetricsRegistry;
+import com.test.model.Stock;
+import com.test.model.User;
+import com.test.repository.StockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+* Portfolio risk from daily closes: annualized volatility, beta against risk.benchmark-symbol,
+* historical VaR / CVaR, max drawdown and the correlation matrix of the holdings.
+* Current holdings are weighted by their value at the last close.
+* Results are cached per user for the day and recomputed when the holdings change.
+*/
+@Service
+public class RiskAnalyticsService {
+    private static final Logger logger = LoggerFactory.getLogger(RiskAnalyticsService.class);
+
+    // Upper bound of annualized volatility per User.riskAppetite (values used by the registration form)
+    private static final Map<String, Double> APPETITE_MAX_VOLATILITY = Map.of(
+            "low", 0.12,
+            "medium", 0.20,
+            "high", 0.35);
+
+    @Autowired private StockRepository stockRepository;
+    @Autowired private CandleService candleService;
+    @Autowired private MetricsRegistry metrics;
+
+    @Value("${risk.benchmark-symbol:SPY}")
+    private String benchmarkSymbol;
+
+    private final ForkJoinPool pool;
+    private final Map<String, CachedResult> cache = new ConcurrentHashMap<>();
+
+    public RiskAnalyticsService(@Value("${risk.parallelism:0}") int parallelism) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private static final class CachedResult {
+        final LocalDate day;
+        final String holdingsKey;
+        final Map<String, Object> result;
+
+        CachedResult(LocalDate day, String holdingsKey, Map<String, Object> result) {
+            this.day = day;
+            this.holdingsKey = holdingsKey;
+            this.result = result;
+        }
+    }
+
+    public Map<String, Object> getRisk(User user) {
+        TreeMap<String, Integer> holdings = currentHoldings(user.getUserId());
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        String holdingsKey = holdings.toString();
+
+        CachedResult cached = cache.get(user.getUserId());
+        if (cached != null && cached.day.equals(today) && cached.holdingsKey.equals(holdingsKey)) {
+            metrics.increment("risk_cache_total", "result", "hit");
+            return cached.result;
+        }
+        metrics.increment("risk_cache_total", "result", "miss");
+
+        long start = System.nanoTime();
+        Map<String, Object> result = compute(user, holdings, today);
+        metrics.recordNanos("risk_compute_seconds", System.nanoTime() - start);
+        cache.put(user.getUserId(), new CachedResult(today, holdingsKey, result));
+        return result;
+    }
+
+    // Symbol -> shares still held, by the same average-cost replay as everywhere else
+    public TreeMap<String, Integer> currentHoldings(String userId) {
+        Map<String, List<Stock>> bySymbol = new HashMap<>();
+        for (Stock s : stockRepository.findByUserId(userId)) {
+            if (s.getSymbol() == null) continue;
+            bySymbol.computeIfAbsent(s.getSymbol().toUpperCase(), k -> new ArrayList<>()).add(s);
+        }
+        TreeMap<String, Integer> holdings = new TreeMap<>();
+        bySymbol.forEach((symbol, trades) -> {
+            trades.sort(LedgerService.CHRONOLOGICAL);
+            LedgerService.Position position = new LedgerService.Position();
+            trades.forEach(position::apply);
+            if (position.getQuantity() > 0) holdings.put(symbol, position.getQuantity());
+        });
+        return holdings;
+    }
+
+    private Map<String, Object> compute(User user, TreeMap<String, Integer> holdings, LocalDate today) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("asOf", today.toString());
+        result.put("benchmark", benchmarkSymbol);
+        String appetite = user.getRiskAppetite() != null ? user.getRiskAppetite().toLowerCase() : null;
+        result.put("riskAppetite", appetite);
+
+        if (holdings.isEmpty()) {
+            result.put("holdings", Collections.emptyList());
+            return result;
+        }
+
+        List<String> wanted = new ArrayList<>(holdings.keySet());
+        wanted.add(benchmarkSymbol.toUpperCase());
+        Map<String, CandleService.DailySeries> series = candleService.getDailyCloses(wanted);
+        CandleService.DailySeries benchmark = series.get(benchmarkSymbol.toUpperCase());
+
+        List<String> symbols = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String symbol : holdings.keySet()) {
+            if (series.get(symbol).isEmpty()) missing.add(symbol);
+            else symbols.add(symbol);
+        }
+        result.put("missingData", missing);
+        if (symbols.isEmpty()) {
+            result.put("holdings", Collections.emptyList());
+            return result;
+        }
+
+        // 1. One calendar for everyone (the benchmark's trading days), closes carried forward over gaps
+        long[] calendar = !benchmark.isEmpty() ? benchmark.getDays() : unionOfDays(symbols, series);
+        int k = symbols.size();
+        double[][] returns = new double[k][];
+        double[] values = new double[k];
+        double totalValue = 0;
+        for (int i = 0; i < k; i++) {
+            CandleService.DailySeries s = series.get(symbols.get(i));
+            returns[i] = RiskMath.returns(align(s, calendar));
+            values[i] = holdings.get(symbols.get(i)) * s.getCloses()[s.getCloses().length - 1];
+            totalValue += values[i];
+        }
+        double[] weights = new double[k];
+        for (int i = 0; i < k; i++) {
+            weights[i] = totalValue > 0 ? values[i] / totalValue : 1.0 / k;
+        }
+        double[] benchmarkReturns = !benchmark.isEmpty() ? RiskMath.returns(benchmark.getCloses()) : null;
+
+        // 2. Portfolio level
+        double[] portfolio = RiskMath.weightedReturns(returns, weights);
+        double volatility = RiskMath.annualizedVolatility(portfolio);
+        double[] var95 = RiskMath.historicalVaR(portfolio, 0.95);
+        double[] var99 = RiskMath.historicalVaR(portfolio, 0.99);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("value", totalValue);
+        summary.put("volatility", volatility);
+        summary.put("beta", benchmarkReturns != null ? RiskMath.beta(portfolio, benchmarkReturns) : null);
+        summary.put("var95", var95[0]);
+        summary.put("cvar95", var95[1]);
+        summary.put("var99", var99[0]);
+        summary.put("cvar99", var99[1]);
+        summary.put("var95Amount", var95[0] * totalValue);
+        summary.put("cvar95Amount", var95[1] * totalValue);
+        summary.put("maxDrawdown", RiskMath.maxDrawdown(portfolio));
+        result.put("observations", portfolio.length);
+        result.put("portfolio", summary);
+
+        Double maxVolatility = appetite != null ? APPETITE_MAX_VOLATILITY.get(appetite) : null;
+        result.put("appetiteMaxVolatility", maxVolatility);
+        result.put("withinAppetite", maxVolatility != null ? volatility <= maxVolatility : null);
+
+        // 3. Per holding
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < k; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("symbol", symbols.get(i));
+            row.put("quantity", holdings.get(symbols.get(i)));
+            row.put("weight", weights[i]);
+            row.put("volatility", RiskMath.annualizedVolatility(returns[i]));
+            row.put("beta", benchmarkReturns != null ? RiskMath.beta(returns[i], benchmarkReturns) : null);
+            row.put("maxDrawdown", RiskMath.maxDrawdown(returns[i]));
+            rows.add(row);
+        }
+        result.put("holdings", rows);
+
+        // 4. Correlation matrix, pairs split across the fork-join pool
+        long start = System.nanoTime();
+        double[][] matrix = RiskMath.correlationMatrix(returns, pool);
+        Map<String, Object> correlation = new LinkedHashMap<>();
+        correlation.put("symbols", symbols);
+        correlation.put("matrix", matrix);
+        result.put("correlation", correlation);
+
+        logger.debug("Risk for {}: {} symbols x {} days, correlation in {} us", user.getUserId(), k, portfolio.length,
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        return result;
+    }
+
+    // Closes on each calendar day; before a symbol's first close its first close is used (zero return)
+    static double[] align(CandleService.DailySeries s, long[] calendar) {
+        long[] days = s.getDays();
+        double[] closes = s.getCloses();
+        double[] aligned = new double[calendar.length];
+        int j = 0;
+        double last = closes[0];
+        for (int i = 0; i < calendar.length; i++) {
+            while (j < days.length && days[j] <= calendar[i]) {
+                last = closes[j++];
+            }
+            aligned[i] = last;
+        }
+        return aligned;
+    }
+
+    static long[] unionOfDays(List<String> symbols, Map<String, CandleService.DailySeries> series) {
+        TreeSet<Long> days = new TreeSet<>();
+        for (String symbol : symbols) {
+            for (long day : series.get(symbol).getDays()) days.add(day);
+        }
+        return days.stream().mapToLong(Long::longValue).toArray();
+    }
+}
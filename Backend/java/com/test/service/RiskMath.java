@@ -0,0 +1,173 @@
+package com.test.service;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+* Risk statistics over primitive daily return series. No boxing, no allocation in the inner loops.
+* Returns are simple daily returns (c[t] / c[t-1] - 1); losses (VaR, CVaR, drawdown) are positive fractions.
+*/
+public final class RiskMath {
+
+    public static final int TRADING_DAYS = 252;
+
+    // Rows per correlation task; below this the matrix is filled sequentially
+    private static final int CORRELATION_ROWS_THRESHOLD = 4;
+
+    private RiskMath() {}
+
+    public static double[] returns(double[] closes) {
+        if (closes.length < 2) return new double[0];
+        double[] r = new double[closes.length - 1];
+        for (int i = 1; i < closes.length; i++) {
+            r[i - 1] = closes[i - 1] > 0 ? closes[i] / closes[i - 1] - 1 : 0;
+        }
+        return r;
+    }
+
+    public static double mean(double[] x) {
+        if (x.length == 0) return 0;
+        double sum = 0;
+        for (double v : x) sum += v;
+        return sum / x.length;
+    }
+
+    /** Sample covariance. */
+    public static double covariance(double[] a, double[] b) {
+        int n = Math.min(a.length, b.length);
+        if (n < 2) return 0;
+        double ma = 0, mb = 0;
+        for (int i = 0; i < n; i++) {
+            ma += a[i];
+            mb += b[i];
+        }
+        ma /= n;
+        mb /= n;
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += (a[i] - ma) * (b[i] - mb);
+        }
+        return sum / (n - 1);
+    }
+
+    public static double annualizedVolatility(double[] returns) {
+        return Math.sqrt(covariance(returns, returns) * TRADING_DAYS);
+    }
+
+    public static double beta(double[] returns, double[] benchmarkReturns) {
+        double variance = covariance(benchmarkReturns, benchmarkReturns);
+        return variance > 0 ? covariance(returns, benchmarkReturns) / variance : 0;
+    }
+
+    /** Historical one-day VaR and CVaR (expected shortfall) at the given confidence, e.g. 0.95: {var, cvar}. */
+    public static double[] historicalVaR(double[] returns, double confidence) {
+        if (returns.length == 0) return new double[] {0, 0};
+        double[] sorted = returns.clone();
+        Arrays.sort(sorted);
+        // Number of observations in the loss tail, at least one
+        int tail = Math.max(1, (int) Math.floor(sorted.length * (1 - confidence)));
+        double var = -sorted[tail - 1];
+        double sum = 0;
+        for (int i = 0; i < tail; i++) sum += sorted[i];
+        return new double[] {Math.max(0, var), Math.max(0, -sum / tail)};
+    }
+
+    /** Largest peak-to-trough fall of the compounded series. */
+    public static double maxDrawdown(double[] returns) {
+        double value = 1, peak = 1, maxDrawdown = 0;
+        for (double r : returns) {
+            value *= 1 + r;
+            if (value > peak) peak = value;
+            else maxDrawdown = Math.max(maxDrawdown, (peak - value) / peak);
+        }
+        return maxDrawdown;
+    }
+
+    /** Sum of weights[i] * returns[i][t] per day t. All series must have the same length. */
+    public static double[] weightedReturns(double[][] returns, double[] weights) {
+        int n = returns.length == 0 ? 0 : returns[0].length;
+        double[] portfolio = new double[n];
+        for (int i = 0; i < returns.length; i++) {
+            double w = weights[i];
+            double[] r = returns[i];
+            for (int t = 0; t < n; t++) {
+                portfolio[t] += w * r[t];
+            }
+        }
+        return portfolio;
+    }
+
+    /**
+    * Pearson correlation of every pair of series. Each series is standardized once
+    * (mean 0, norm 1), so every pair is a single dot product; rows of the upper triangle
+    * are split across the pool.
+    */
+    public static double[][] correlationMatrix(double[][] returns, ForkJoinPool pool) {
+        int k = returns.length;
+        double[][] z = new double[k][];
+        for (int i = 0; i < k; i++) {
+            z[i] = standardize(returns[i]);
+        }
+        double[][] matrix = new double[k][k];
+        if (k > 0) {
+            pool.invoke(new CorrelationTask(z, matrix, 0, k));
+        }
+        return matrix;
+    }
+
+    private static double[] standardize(double[] x) {
+        double m = mean(x);
+        double[] z = new double[x.length];
+        double norm = 0;
+        for (int i = 0; i < x.length; i++) {
+            z[i] = x[i] - m;
+            norm += z[i] * z[i];
+        }
+        norm = Math.sqrt(norm);
+        if (norm > 0) {
+            for (int i = 0; i < z.length; i++) z[i] /= norm;
+        }
+        return z;
+    }
+
+    private static final class CorrelationTask extends RecursiveAction {
+        private final double[][] z;
+        private final double[][] matrix;
+        private final int fromRow, toRow;
+
+        CorrelationTask(double[][] z, double[][] matrix, int fromRow, int toRow) {
+            this.z = z;
+            this.matrix = matrix;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow > CORRELATION_ROWS_THRESHOLD) {
+                int mid = (fromRow + toRow) >>> 1;
+                invokeAll(new CorrelationTask(z, matrix, fromRow, mid), new CorrelationTask(z, matrix, mid, toRow));
+                return;
+            }
+            int n = z.length == 0 ? 0 : z[0].length;
+            for (int i = fromRow; i < toRow; i++) {
+                double[] a = z[i];
+                boolean constant = isZero(a);
+                matrix[i][i] = constant ? 0 : 1;
+                for (int j = i + 1; j < z.length; j++) {
+                    double[] b = z[j];
+                    double dot = 0;
+                    for (int t = 0; t < n; t++) dot += a[t] * b[t];
+                    matrix[i][j] = dot;
+                    matrix[j][i] = dot;
+                }
+            }
+        }
+
+        private static boolean isZero(double[] x) {
+            for (double v : x) if (v != 0) return false;
+            return true;
+        }
+    }
+}
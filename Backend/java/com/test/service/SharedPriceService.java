@@ -0,0 +1,96 @@
+package com.test.service;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.metrics.MetricsRegistry;
+import com.test.model.SharedPrice;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+* Reads and writes the SharedPrices table, the cluster's common quote cache.
+* Batch reads and writes go through the mapper's batch calls (100 keys / 25 items per request).
+* Failures are logged and counted, never thrown: callers fall back to the provider.
+*/
+@Service
+public class SharedPriceService {
+    private static final Logger logger = LoggerFactory.getLogger(SharedPriceService.class);
+
+    private static final TypeReference<Map<String, Object>> QUOTE_TYPE = new TypeReference<>() {};
+
+    @Autowired private DynamoDBMapper dynamoDBMapper;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private ClusterLeaseService cluster;
+    @Autowired private MetricsRegistry metrics;
+
+    @Value("${cluster.shared-prices.ttl-hours:24}")
+    private long ttlHours;
+
+    /** Published quotes of the given (upper-case) symbols; symbols never published are missing from the map. */
+    public Map<String, QuoteService.CachedQuote> read(Collection<String> symbols) {
+        Map<String, QuoteService.CachedQuote> quotes = new HashMap<>();
+        if (symbols.isEmpty()) return quotes;
+        List<SharedPrice> keys = new ArrayList<>(symbols.size());
+        for (String symbol : symbols) {
+            SharedPrice key = new SharedPrice();
+            key.setSymbol(symbol);
+            keys.add(key);
+        }
+        try {
+            for (List<Object> rows : dynamoDBMapper.batchLoad(keys).values()) {
+                for (Object row : rows) {
+                    SharedPrice price = (SharedPrice) row;
+                    if (price.getQuote() == null || price.getFetchedAt() == null) continue;
+                    quotes.put(price.getSymbol(), new QuoteService.CachedQuote(
+                            objectMapper.readValue(price.getQuote(), QUOTE_TYPE), price.getFetchedAt()));
+                }
+            }
+        } catch (Exception e) {
+            metrics.increment("shared_price_errors_total", "op", "read");
+            logger.warn("Shared price read failed for {} symbols: {}", symbols.size(), e.getMessage());
+        }
+        metrics.increment("shared_price_reads_total");
+        return quotes;
+    }
+
+    /** Writes the quotes (symbol -> quote as fetched); returns how many were written. */
+    public int publish(Map<String, QuoteService.CachedQuote> quotes) {
+        if (quotes.isEmpty()) return 0;
+        long expiresAt = System.currentTimeMillis() / 1000 + TimeUnit.HOURS.toSeconds(ttlHours);
+        List<SharedPrice> rows = new ArrayList<>(quotes.size());
+        for (Map.Entry<String, QuoteService.CachedQuote> entry : quotes.entrySet()) {
+            try {
+                SharedPrice row = new SharedPrice();
+                row.setSymbol(entry.getKey());
+                row.setQuote(objectMapper.writeValueAsString(entry.getValue().getQuote()));
+                row.setFetchedAt(entry.getValue().getFetchedAt());
+                row.setPublishedBy(cluster.getNodeId());
+                row.setExpiresAt(expiresAt);
+                rows.add(row);
+            } catch (Exception e) {
+                logger.warn("Could not serialize quote of {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        try {
+            int failed = 0;
+            for (DynamoDBMapper.FailedBatch batch : dynamoDBMapper.batchSave(rows)) {
+                failed += batch.getUnprocessedItems().values().stream().mapToInt(List::size).sum();
+                logger.warn("Shared price batch write failed: {}", batch.getException().getMessage());
+            }
+            metrics.increment("shared_price_writes_total");
+            if (failed > 0) metrics.increment("shared_price_errors_total", "op", "write");
+            return rows.size() - failed;
+        } catch (Exception e) {
+            metrics.increment("shared_price_errors_total", "op", "write");
+            logger.warn("Shared price write failed for {} symbols: {}", rows.size(), e.getMessage());
+            return 0;
+        }
+    }
+}
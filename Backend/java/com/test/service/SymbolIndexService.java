@@ -0,0 +1,202 @@
+package com.test.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.marketdata.MarketDataProvider;
+import com.test.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+* Ticker / company-name autocomplete over the exchange symbol list, entirely in memory.
+* The index is two sorted arrays (symbols, and name words -> symbol) searched with a binary
+* search for the prefix's lower bound, so a keystroke costs O(log n + k) and no market-data call.
+* Loaded from a local snapshot at startup, refreshed from the MarketDataProvider in the background and swapped atomically.
+*/
+@Service
+public class SymbolIndexService {
+    private static final Logger logger = LoggerFactory.getLogger(SymbolIndexService.class);
+
+    @Autowired private MarketDataProvider marketData;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private MetricsRegistry metrics;
+
+    @Value("${symbols.exchange:US}")
+    private String exchange;
+
+    @Value("${symbols.snapshot-file:./data/symbols-US.json}")
+    private String snapshotFile;
+
+    @Value("${symbols.refresh.enabled:true}")
+    private boolean refreshEnabled;
+
+    private volatile Index index = Index.EMPTY;
+
+    /** Immutable snapshot; replaced as a whole on refresh. */
+    private static final class Index {
+        static final Index EMPTY = new Index(new String[0], new String[0], new String[0], new int[0]);
+
+        final String[] symbols;      // sorted, upper case
+        final String[] descriptions; // aligned with symbols
+        final String[] nameWords;    // sorted, lower case words of the descriptions
+        final int[] nameRefs;        // nameWords[i] belongs to symbols[nameRefs[i]]
+
+        Index(String[] symbols, String[] descriptions, String[] nameWords, int[] nameRefs) {
+            this.symbols = symbols;
+            this.descriptions = descriptions;
+            this.nameWords = nameWords;
+            this.nameRefs = nameRefs;
+        }
+    }
+
+    @PostConstruct
+    public void loadSnapshot() {
+        metrics.gauge("symbol_index_entries", () -> index.symbols.length);
+        Path path = Paths.get(snapshotFile);
+        if (!Files.exists(path)) {
+            logger.info("No symbol snapshot at {}, waiting for the first refresh", path.toAbsolutePath());
+            return;
+        }
+        try {
+            List<Map<String, Object>> rows = objectMapper.readValue(path.toFile(), new TypeReference<List<Map<String, Object>>>() {});
+            index = build(rows);
+            logger.info("Symbol index: {} symbols from snapshot {}", index.symbols.length, path);
+        } catch (Exception e) {
+            logger.error("Could not read symbol snapshot {}: {}", path, e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${symbols.refresh-ms:86400000}", initialDelayString = "${symbols.refresh-initial-delay-ms:10000}")
+    public void refresh() {
+        if (!refreshEnabled) return;
+        List<Map<String, Object>> rows = marketData.getSymbols(exchange);
+        if (rows.isEmpty()) {
+            logger.warn("Symbol refresh for {} returned nothing, keeping {} indexed symbols", exchange, index.symbols.length);
+            return;
+        }
+        index = build(rows);
+        metrics.increment("symbol_index_refresh_total");
+        logger.info("Symbol index: {} symbols refreshed from {}", index.symbols.length, marketData.name());
+        writeSnapshot(index);
+    }
+
+    /** Symbols whose ticker starts with the query first, then symbols with a name word starting with it. */
+    public List<Map<String, String>> search(String query, int limit) {
+        Index idx = index;
+        List<Map<String, String>> result = new ArrayList<>(limit);
+        if (query == null || query.isBlank() || limit <= 0) return result;
+
+        String upper = query.trim().toUpperCase(Locale.ROOT);
+        for (int i = lowerBound(idx.symbols, upper); i < idx.symbols.length && result.size() < limit; i++) {
+            if (!idx.symbols[i].startsWith(upper)) break;
+            result.add(entry(idx, i));
+        }
+
+        if (result.size() < limit) {
+            String lower = query.trim().toLowerCase(Locale.ROOT);
+            Set<Integer> seen = new HashSet<>();
+            for (int i = lowerBound(idx.nameWords, lower); i < idx.nameWords.length && result.size() < limit; i++) {
+                if (!idx.nameWords[i].startsWith(lower)) break;
+                int ref = idx.nameRefs[i];
+                if (!idx.symbols[ref].startsWith(upper) && seen.add(ref)) {
+                    result.add(entry(idx, ref));
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Known ticker? Always true while the index is empty (fail open rather than block trading). */
+    public boolean isKnown(String symbol) {
+        Index idx = index;
+        if (idx.symbols.length == 0) return true;
+        return symbol != null && Arrays.binarySearch(idx.symbols, symbol.toUpperCase(Locale.ROOT)) >= 0;
+    }
+
+    public int size() {
+        return index.symbols.length;
+    }
+
+    // --- Index building ---
+
+    private static Index build(List<Map<String, Object>> rows) {
+        TreeMap<String, String> bySymbol = new TreeMap<>();
+        for (Map<String, Object> row : rows) {
+            Object symbol = row.get("symbol");
+            if (symbol == null || symbol.toString().isBlank()) continue;
+            Object description = row.get("description");
+            bySymbol.put(symbol.toString().toUpperCase(Locale.ROOT), description != null ? description.toString() : "");
+        }
+
+        String[] symbols = bySymbol.keySet().toArray(new String[0]);
+        String[] descriptions = bySymbol.values().toArray(new String[0]);
+
+        // (word, symbol index) pairs, sorted by word
+        List<String> words = new ArrayList<>();
+        List<Integer> refs = new ArrayList<>();
+        for (int i = 0; i < descriptions.length; i++) {
+            for (String word : descriptions[i].toLowerCase(Locale.ROOT).split("[^a-z0-9]+")) {
+                if (word.length() < 2) continue;
+                words.add(word);
+                refs.add(i);
+            }
+        }
+        Integer[] order = new Integer[words.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparing(words::get));
+
+        String[] nameWords = new String[order.length];
+        int[] nameRefs = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            nameWords[i] = words.get(order[i]);
+            nameRefs[i] = refs.get(order[i]);
+        }
+        return new Index(symbols, descriptions, nameWords, nameRefs);
+    }
+
+    private static int lowerBound(String[] sorted, String key) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid].compareTo(key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static Map<String, String> entry(Index idx, int i) {
+        Map<String, String> entry = new LinkedHashMap<>();
+        entry.put("symbol", idx.symbols[i]);
+        entry.put("description", idx.descriptions[i]);
+        return entry;
+    }
+
+    // Only what the index needs (symbol + description), in Finnhub's row shape
+    private void writeSnapshot(Index idx) {
+        List<Map<String, String>> rows = new ArrayList<>(idx.symbols.length);
+        for (int i = 0; i < idx.symbols.length; i++) {
+            rows.add(entry(idx, i));
+        }
+        Path path = Paths.get(snapshotFile);
+        try {
+            Path dir = path.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, "symbols", ".tmp");
+            objectMapper.writeValue(tmp.toFile(), rows);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            logger.warn("Could not write symbol snapshot {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.test.service;
+
+import com.test.metrics.MetricsRegistry;
+import com.test.model.Money;
+import com.test.model.Stock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+* Values a ledger at current prices: one replay per symbol and one batched quote lookup for every open position.
+* /api/stocks, /api/portfolio/summary and /api/dashboard all go through valuate, so they show the same numbers.
+* A held symbol without a quote (not cached and the provider failed or timed out) is valued at its last trade price.
+*/
+@Service
+public class ValuationService {
+
+    @Autowired private QuoteService quoteService;
+    @Autowired private MetricsRegistry metrics;
+
+    /** Open positions at current prices plus the totals the summary cards show, in micro-units (see Money). */
+    public static class Valuation {
+        private final List<Stock> holdings = new ArrayList<>();
+        private final Map<String, Long> symbolValues = new HashMap<>();
+        private long totalCurrentValue;
+        private long totalInvestment;
+        private long totalRealizedPnL;
+
+        /** One row per open position, sorted by symbol; purchasePrice is the average cost. */
+        public List<Stock> getHoldings() { return holdings; }
+        public long getTotalCurrentValue() { return totalCurrentValue; }
+        public long getTotalInvestment() { return totalInvestment; }
+        public long getTotalRealizedPnL() { return totalRealizedPnL; }
+
+        /** The summary cards; "totalGainLoss" is unrealized only, realized P&L is "realizedGain". */
+        public Map<String, Object> summary() {
+            long totalGainLoss = totalCurrentValue - totalInvestment;
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("totalPortfolioValue", Money.toDouble(totalCurrentValue));
+            summary.put("totalInvestment", Money.toDouble(totalInvestment));
+            summary.put("totalGainLoss", Money.toDouble(totalGainLoss));
+            summary.put("totalGainLossPercentage", totalInvestment > 0
+                    ? ((double) totalGainLoss / totalInvestment) * 100 : 0.0);
+            summary.put("realizedGain", Money.toDouble(totalRealizedPnL));
+            return summary;
+        }
+
+        public Map<String, Double> allocation() {
+            return ValuationService.allocation(symbolValues, totalCurrentValue);
+        }
+    }
+
+    /** endpoint only labels the quote_fallback_total metric. */
+    public Valuation valuate(List<Stock> ledger, String endpoint) {
+        Map<String, List<Stock>> grouped = new HashMap<>();
+        for (Stock s : ledger) {
+            if (s.getSymbol() == null) continue;
+            grouped.computeIfAbsent(s.getSymbol(), k -> new ArrayList<>()).add(s);
+        }
+
+        // 1. One replay per symbol (a CLOSED row must follow the trades it replaced)
+        Valuation valuation = new Valuation();
+        Map<String, LedgerService.Position> open = new TreeMap<>();
+        Map<String, List<Stock>> openTrades = new HashMap<>();
+        for (Map.Entry<String, List<Stock>> entry : grouped.entrySet()) {
+            List<Stock> trades = entry.getValue();
+            trades.sort(LedgerService.CHRONOLOGICAL);
+
+            LedgerService.Position position = new LedgerService.Position();
+            long symbolRealizedPnL = 0;
+            for (Stock t : trades) {
+                if ("SELL".equalsIgnoreCase(t.getType()) || "DIVIDEND".equalsIgnoreCase(t.getType())) {
+                    symbolRealizedPnL += t.getGainLossMicros();
+                } else if (LedgerArchiveService.CLOSED.equalsIgnoreCase(t.getType())) {
+                    // Archived stretch: its total already includes everything before it
+                    symbolRealizedPnL = t.getGainLossMicros();
+                }
+                position.apply(t);
+            }
+            valuation.totalRealizedPnL += symbolRealizedPnL;
+            if (position.getQuantity() > 0) {
+                open.put(entry.getKey(), position);
+                openTrades.put(entry.getKey(), trades);
+            }
+        }
+
+        // 2. One batched lookup for every held symbol (cache hits are free, misses are fetched concurrently)
+        Map<String, QuoteService.CachedQuote> quotes = Map.of();
+        if (!open.isEmpty()) {
+            try {
+                quotes = quoteService.getQuotes(open.keySet());
+            } catch (Exception e) {
+                // Every symbol falls back below
+            }
+        }
+
+        for (Map.Entry<String, LedgerService.Position> entry : open.entrySet()) {
+            String symbol = entry.getKey();
+            LedgerService.Position position = entry.getValue();
+
+            QuoteService.CachedQuote cached = quotes.get(symbol.toUpperCase());
+            Object price = cached != null && cached.getQuote() != null ? cached.getQuote().get("c") : null;
+            long currentPrice;
+            if (price != null) {
+                currentPrice = Money.ofDouble(Double.parseDouble(price.toString()));
+            } else {
+                metrics.increment("quote_fallback_total", "endpoint", endpoint, "fallback", "last_trade_price");
+                currentPrice = LedgerService.lastTradePriceMicros(openTrades.get(symbol));
+            }
+
+            long currentValue = Money.times(currentPrice, position.getQuantity());
+            valuation.totalCurrentValue += currentValue;
+            valuation.totalInvestment += position.getCostBasisMicros();
+            valuation.symbolValues.put(symbol, currentValue);
+
+            Stock holding = new Stock();
+            holding.setSymbol(symbol);
+            holding.setQuantity(position.getQuantity());
+            holding.setCurrentPriceMicros(currentPrice);
+            holding.setPurchasePriceMicros(position.getAverageCostMicros());
+            holding.setGainLossMicros(currentValue - position.getCostBasisMicros());
+            holding.setStockId(UUID.randomUUID().toString()); // Temp ID for frontend
+            valuation.holdings.add(holding);
+        }
+        return valuation;
+    }
+
+    /** Percent of the current value per symbol, largest first. */
+    public static Map<String, Double> allocation(Map<String, Long> values, long totalValue) {
+        Map<String, Double> percentages = new LinkedHashMap<>();
+        if (totalValue == 0) return percentages;
+        values.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(e -> percentages.put(e.getKey(), ((double) e.getValue() / totalValue) * 100));
+        return percentages;
+    }
+}
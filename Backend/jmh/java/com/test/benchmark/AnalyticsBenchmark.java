@@ -0,0 +1,41 @@
+package com.test.benchmark;
+
+import com.test.controller.AnalyticsController;
+import com.test.marketdata.FinnhubMarketDataProvider;
+import com.test.metrics.MetricsRegistry;
+import com.test.service.SymbolIndexService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/** Chart point building in AnalyticsController.getStockChart() over stubbed candles. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class AnalyticsBenchmark {
+
+    // 30 = what the endpoint asks for today; larger sizes show how it scales with longer windows
+    @Param({"30", "365", "1825"})
+    public int candleDays;
+
+    private AnalyticsController analyticsController;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        analyticsController = new AnalyticsController();
+        BenchmarkFixtures.inject(analyticsController, "marketData",
+                new FinnhubMarketDataProvider(new StubFinnhubClient(BenchmarkFixtures.symbols(1), candleDays, 7)));
+        BenchmarkFixtures.inject(analyticsController, "metrics", new MetricsRegistry());
+        // An empty symbol index knows every symbol
+        BenchmarkFixtures.inject(analyticsController, "symbolIndexService", new SymbolIndexService());
+    }
+
+    @Benchmark
+    public ResponseEntity<?> chart() {
+        return analyticsController.getStockChart("S0000");
+    }
+}
@@ -0,0 +1,87 @@
+package com.test.benchmark;
+
+import com.test.model.Money;
+import com.test.model.Stock;
+import com.test.model.User;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/** Deterministic users, ledgers and wiring shared by all benchmarks. */
+public final class BenchmarkFixtures {
+
+    public static final String USER_ID = "bench-user";
+    public static final String EMAIL = "bench@example.com";
+
+    private BenchmarkFixtures() {}
+
+    public static User user() {
+        User user = new User();
+        user.setUserId(USER_ID);
+        user.setEmail(EMAIL);
+        user.setUsername("bench");
+        return user;
+    }
+
+    public static List<String> symbols(int count) {
+        List<String> symbols = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            symbols.add(String.format("S%04d", i));
+        }
+        return symbols;
+    }
+
+    /**
+    * Ledger of {@code size} trades over {@code symbols}: ~70% BUYs, SELLs never exceed
+    * what is held, timestamps strictly increasing like real appends.
+    */
+    public static List<Stock> ledger(int size, List<String> symbols, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] held = new int[symbols.size()];
+        List<Stock> trades = new ArrayList<>(size);
+        long timestamp = 1_600_000_000_000L;
+
+        for (int i = 0; i < size; i++) {
+            int s = random.nextInt(symbols.size());
+            boolean sell = held[s] > 0 && random.nextInt(10) < 3;
+            int quantity = sell ? 1 + random.nextInt(held[s]) : 1 + random.nextInt(100);
+            held[s] += sell ? -quantity : quantity;
+            timestamp += 60_000 + random.nextInt(86_400_000);
+
+            Stock t = new Stock();
+            t.setStockId(UUID.nameUUIDFromBytes(("trade-" + seed + "-" + i).getBytes()).toString());
+            t.setUserId(USER_ID);
+            t.setSymbol(symbols.get(s));
+            t.setType(sell ? "SELL" : "BUY");
+            t.setQuantity(quantity);
+            t.setPurchasePriceMicros(Money.ofDouble(Math.round((20 + random.nextDouble() * 480) * 100.0) / 100.0));
+            t.setCurrentPriceMicros(t.getPurchasePriceMicros());
+            t.setTimestamp(timestamp);
+            t.setTradeDate(Instant.ofEpochMilli(timestamp).atZone(ZoneOffset.UTC).toLocalDate().toString());
+            trades.add(t);
+        }
+        return trades;
+    }
+
+    /** Makes getAuthenticatedUser() work on every JMH worker thread. */
+    public static void authenticate() {
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(EMAIL, null, Collections.emptyList()));
+    }
+
+    /** Sets an @Autowired / @Value field the way Spring would. */
+    public static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot inject " + fieldName + " into " + target.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.test.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+* Runs the backend benchmarks with the GC profiler on, so every result also reports
+* gc.alloc.rate.norm (bytes allocated per operation).
+*
+* Usage: BenchmarkRunner [include-regex] [result-file.json]
+*/
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "com.test.benchmark.*")
+                .addProfiler(GCProfiler.class)
+                .shouldFailOnError(true);
+
+        if (args.length > 1) {
+            options.result(args[1]).resultFormat(ResultFormatType.JSON);
+        }
+        new Runner(options.build()).run();
+    }
+}
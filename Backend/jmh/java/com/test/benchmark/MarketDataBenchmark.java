@@ -0,0 +1,54 @@
+package com.test.benchmark;
+
+import com.test.marketdata.GbmSimulator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+* Seeded GBM simulator: raw tick generation (reported per tick, so 1 / score = ticks per second)
+* and quote lookups with a clock moving forward one second per call, as a live poller would see it.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MarketDataBenchmark {
+
+    private static final int TICKS = 1_000_000;
+
+    @Param({"10", "500"})
+    public int symbolCount;
+
+    private GbmSimulator simulator;
+    private List<String> symbols;
+    private long start;
+    private long clock;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        simulator = new GbmSimulator(42, 0.07, 0.3, LocalDate.of(2015, 1, 1), 1000);
+        symbols = BenchmarkFixtures.symbols(symbolCount);
+        // A Wednesday, 14:30 UTC: inside a trading day
+        start = LocalDate.of(2024, 6, 12).toEpochDay() * GbmSimulator.DAY_MS + 52_200_000L;
+        clock = start;
+        symbols.forEach(s -> simulator.priceAt(s, start));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public long emitTicks(Blackhole bh) {
+        return simulator.emit(symbols, start, TICKS, (symbol, time, price) -> bh.consume(price));
+    }
+
+    @Benchmark
+    public double quote() {
+        clock += 1000;
+        return simulator.priceAt(symbols.get((int) (clock / 1000 % symbolCount)), clock);
+    }
+}
@@ -0,0 +1,125 @@
+package com.test.benchmark;
+
+import com.test.model.Money;
+import com.test.model.Stock;
+import com.test.service.LedgerService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+* Average-cost replay of the same ledgers with double money (the previous Stock representation,
+* kept here as the baseline) and with micro-unit longs through LedgerService.Position.
+* Run with the GC profiler (BenchmarkRunner): both should show ~0 B/op.
+* mulDiv times the SELL arithmetic alone, so a change to Money shows up without the replay's noise.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MoneyBenchmark {
+
+    @Param({"1000", "100000"})
+    public int ledgerSize;
+
+    @Param({"50"})
+    public int symbolCount;
+
+    // Same trades twice: as Stocks (micros) and as the old double layout
+    private Stock[][] ledgers;
+    private DoubleTrade[][] doubleLedgers;
+
+    // (basis, sold, held) triples: mostly ordinary positions, every 8th one too large for the double estimate
+    private long[] mulDivOperands;
+
+    private static final class DoubleTrade {
+        final String type;
+        final int quantity;
+        final double price;
+
+        DoubleTrade(Stock t) {
+            this.type = t.getType();
+            this.quantity = t.getQuantity();
+            this.price = Money.toDouble(t.getPurchasePriceMicros());
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Map<String, List<Stock>> bySymbol = new TreeMap<>();
+        for (Stock t : BenchmarkFixtures.ledger(ledgerSize, BenchmarkFixtures.symbols(symbolCount), 42)) {
+            bySymbol.computeIfAbsent(t.getSymbol(), k -> new ArrayList<>()).add(t);
+        }
+        ledgers = new Stock[bySymbol.size()][];
+        doubleLedgers = new DoubleTrade[bySymbol.size()][];
+        int i = 0;
+        for (List<Stock> trades : bySymbol.values()) {
+            trades.sort(LedgerService.CHRONOLOGICAL);
+            ledgers[i] = trades.toArray(new Stock[0]);
+            doubleLedgers[i] = trades.stream().map(DoubleTrade::new).toArray(DoubleTrade[]::new);
+            i++;
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        mulDivOperands = new long[3 * 1024];
+        for (int j = 0; j < mulDivOperands.length; j += 3) {
+            long held = 1 + random.nextInt(1000);
+            mulDivOperands[j] = j % 24 == 0
+                    ? random.nextLong(1L << 50, 1L << 52)
+                    : Money.ofDouble(random.nextDouble() * 100_000);
+            mulDivOperands[j + 1] = 1 + random.nextLong(held);
+            mulDivOperands[j + 2] = held;
+        }
+    }
+
+    /** The replay as it was before Money: avgCost = costBasis / quantity, realized = (price - avgCost) * qty. */
+    @Benchmark
+    public double doubleReplay() {
+        double checksum = 0;
+        for (DoubleTrade[] trades : doubleLedgers) {
+            int quantity = 0;
+            double costBasis = 0, realized = 0;
+            for (DoubleTrade t : trades) {
+                if ("BUY".equalsIgnoreCase(t.type)) {
+                    quantity += t.quantity;
+                    costBasis += t.quantity * t.price;
+                } else if ("SELL".equalsIgnoreCase(t.type)) {
+                    double avgCost = quantity > 0 ? costBasis / quantity : 0;
+                    if (quantity > 0) {
+                        quantity -= t.quantity;
+                        costBasis -= t.quantity * avgCost;
+                    }
+                    realized += (t.price - avgCost) * t.quantity;
+                }
+            }
+            checksum += costBasis + realized;
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public long microsReplay() {
+        long checksum = 0;
+        for (Stock[] trades : ledgers) {
+            LedgerService.Position position = new LedgerService.Position();
+            long realized = 0;
+            for (Stock t : trades) {
+                realized += position.apply(t);
+            }
+            checksum += position.getCostBasisMicros() + realized;
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public long mulDiv() {
+        long checksum = 0;
+        for (int j = 0; j < mulDivOperands.length; j += 3) {
+            checksum += Money.mulDiv(mulDivOperands[j], mulDivOperands[j + 1], mulDivOperands[j + 2]);
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,120 @@
+package com.test.benchmark;
+
+import com.test.controller.PortfolioController;
+import com.test.controller.PortfolioSummaryController;
+import com.test.marketdata.FinnhubMarketDataProvider;
+import com.test.metrics.MetricsRegistry;
+import com.test.model.Money;
+import com.test.model.Stock;
+import com.test.service.ClusterLeaseService;
+import com.test.service.DashboardService;
+import com.test.service.QuoteService;
+import com.test.service.ValuationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+* Ledger replay + response shaping of the two portfolio controllers and the composite dashboard, against in-memory
+* repositories and a stubbed FinnhubClient behind the real quote cache (no network, no DynamoDB).
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class PortfolioBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int ledgerSize;
+
+    @Param({"5", "50", "500"})
+    public int symbolCount;
+
+    private PortfolioController portfolioController;
+    private PortfolioSummaryController summaryController;
+    private DashboardService dashboardService;
+
+    private Map<String, Long> symbolValues;
+    private long totalValue;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        List<String> symbols = BenchmarkFixtures.symbols(symbolCount);
+        List<Stock> ledger = BenchmarkFixtures.ledger(ledgerSize, symbols, 42);
+
+        StubStockRepository stockRepository = new StubStockRepository(ledger);
+        StubUserRepository userRepository = new StubUserRepository(BenchmarkFixtures.user());
+        StubFinnhubClient finnhubClient = new StubFinnhubClient(symbols, 30, 7);
+        MetricsRegistry metrics = new MetricsRegistry();
+
+        QuoteService quoteService = new QuoteService(1);
+        BenchmarkFixtures.inject(quoteService, "marketData", new FinnhubMarketDataProvider(finnhubClient));
+        BenchmarkFixtures.inject(quoteService, "metrics", metrics);
+        BenchmarkFixtures.inject(quoteService, "ttlMs", 15_000L);
+        BenchmarkFixtures.inject(quoteService, "maxEntries", 5_000);
+        // cluster.enabled defaults to false: single-instance quote path
+        BenchmarkFixtures.inject(quoteService, "cluster", new ClusterLeaseService());
+
+        // The replay and pricing all three endpoints share
+        ValuationService valuationService = new ValuationService();
+        BenchmarkFixtures.inject(valuationService, "quoteService", quoteService);
+        BenchmarkFixtures.inject(valuationService, "metrics", metrics);
+
+        portfolioController = new PortfolioController();
+        BenchmarkFixtures.inject(portfolioController, "stockRepository", stockRepository);
+        BenchmarkFixtures.inject(portfolioController, "userRepository", userRepository);
+        BenchmarkFixtures.inject(portfolioController, "valuationService", valuationService);
+        BenchmarkFixtures.inject(portfolioController, "metrics", metrics);
+
+        summaryController = new PortfolioSummaryController();
+        BenchmarkFixtures.inject(summaryController, "stockRepository", stockRepository);
+        BenchmarkFixtures.inject(summaryController, "userRepository", userRepository);
+        BenchmarkFixtures.inject(summaryController, "valuationService", valuationService);
+        BenchmarkFixtures.inject(summaryController, "metrics", metrics);
+
+        // History needs the archive table, so the dashboard is measured without it
+        dashboardService = new DashboardService();
+        BenchmarkFixtures.inject(dashboardService, "stockRepository", stockRepository);
+        BenchmarkFixtures.inject(dashboardService, "valuationService", valuationService);
+        BenchmarkFixtures.inject(dashboardService, "metrics", metrics);
+
+        BenchmarkFixtures.authenticate();
+
+        SplittableRandom random = new SplittableRandom(11);
+        symbolValues = new HashMap<>();
+        for (String symbol : symbols) {
+            long value = Money.ofDouble(random.nextDouble() * 10_000);
+            symbolValues.put(symbol, value);
+            totalValue += value;
+        }
+    }
+
+    @Benchmark
+    public List<Stock> holdings() {
+        return portfolioController.getMyStocks();
+    }
+
+    @Benchmark
+    public Map<String, Object> summary() {
+        return summaryController.getPortfolioSummary();
+    }
+
+    // What summary() + holdings() each do, once
+    @Benchmark
+    public Map<String, Object> dashboard() {
+        return dashboardService.build(BenchmarkFixtures.USER_ID,
+                Set.of(DashboardService.SUMMARY, DashboardService.HOLDINGS, DashboardService.ALLOCATION), 20);
+    }
+
+    @Benchmark
+    public Map<String, Double> sortedHoldings() {
+        return ValuationService.allocation(symbolValues, totalValue);
+    }
+}
@@ -0,0 +1,54 @@
+package com.test.benchmark;
+
+import com.test.service.RiskMath;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/** Correlation matrix and VaR over synthetic daily return series (5 years = 1260 trading days). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class RiskBenchmark {
+
+    @Param({"10", "100", "500"})
+    public int symbolCount;
+
+    @Param({"252", "1260"})
+    public int days;
+
+    private double[][] returns;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        returns = new double[symbolCount][days];
+        for (double[] series : returns) {
+            for (int t = 0; t < days; t++) {
+                series[t] = (random.nextDouble() - 0.5) * 0.04;
+            }
+        }
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public double[][] correlationMatrix() {
+        return RiskMath.correlationMatrix(returns, pool);
+    }
+
+    @Benchmark
+    public double[] historicalVaR() {
+        return RiskMath.historicalVaR(returns[0], 0.99);
+    }
+}
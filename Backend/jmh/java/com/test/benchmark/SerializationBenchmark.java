@@ -0,0 +1,37 @@
+package com.test.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.model.Stock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Jackson serialization of Stock lists, i.e. the /history and holdings response bodies. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class SerializationBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int ledgerSize;
+
+    @Param({"5", "50", "500"})
+    public int symbolCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<Stock> ledger;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ledger = BenchmarkFixtures.ledger(ledgerSize, BenchmarkFixtures.symbols(symbolCount), 42);
+    }
+
+    @Benchmark
+    public byte[] stockList() throws Exception {
+        return objectMapper.writeValueAsBytes(ledger);
+    }
+}
@@ -0,0 +1,58 @@
+package com.test.benchmark;
+
+import com.test.service.MonteCarlo;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/** Rebalancing what-if: current vs target allocation over bootstrapped paths (5 years of history, 1-year horizon). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class SimulationBenchmark {
+
+    @Param({"10", "50"})
+    public int symbolCount;
+
+    @Param({"20000"})
+    public int paths;
+
+    private static final int HISTORY_DAYS = 1260;
+    private static final int HORIZON_DAYS = 252;
+
+    private double[] growth;
+    private double[][] weights;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        growth = new double[HISTORY_DAYS * symbolCount];
+        for (int i = 0; i < growth.length; i++) {
+            growth[i] = 1 + (random.nextDouble() - 0.5) * 0.04;
+        }
+        double[] current = new double[symbolCount];
+        double[] target = new double[symbolCount];
+        for (int i = 0; i < symbolCount; i++) {
+            current[i] = i < symbolCount / 2 ? 2.0 / symbolCount : 0;
+            target[i] = 1.0 / symbolCount;
+        }
+        weights = new double[][] {current, target};
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public MonteCarlo.Outcomes[] rebalanceWhatIf() {
+        return MonteCarlo.simulate(growth, symbolCount, weights, HORIZON_DAYS, paths, 5, 42, pool);
+    }
+}
@@ -0,0 +1,51 @@
+package com.test.benchmark;
+
+import com.test.client.FinnhubClient;
+
+import java.util.*;
+
+/**
+* Offline FinnhubClient: deterministic quotes and daily candles, no network.
+* Responses are built once and shared, so the benchmarks measure our code, not the stub.
+*/
+public class StubFinnhubClient extends FinnhubClient {
+
+    private final Map<String, Map<String, Object>> quotes = new HashMap<>();
+    private final Map<String, Object> candles;
+
+    public StubFinnhubClient(List<String> symbols, int candleDays, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (String symbol : symbols) {
+            Map<String, Object> quote = new HashMap<>();
+            quote.put("c", 50 + random.nextDouble() * 400);
+            quotes.put(symbol, quote);
+        }
+
+        List<Double> closes = new ArrayList<>(candleDays);
+        List<Long> timestamps = new ArrayList<>(candleDays);
+        long day = 24L * 60 * 60;
+        long start = 1_700_000_000L;
+        double price = 150;
+        for (int i = 0; i < candleDays; i++) {
+            price *= 1 + (random.nextDouble() - 0.5) * 0.04;
+            closes.add(Math.round(price * 100.0) / 100.0);
+            timestamps.add(start + i * day);
+        }
+        Map<String, Object> c = new HashMap<>();
+        c.put("s", "ok");
+        c.put("c", closes);
+        c.put("t", timestamps);
+        this.candles = c;
+    }
+
+    @Override
+    public Map<String, Object> getQuote(String symbol, String token) {
+        Map<String, Object> quote = quotes.get(symbol);
+        return quote != null ? quote : Collections.emptyMap();
+    }
+
+    @Override
+    public Map<String, Object> getCandles(String symbol, String resolution, String from, String to, String token) {
+        return candles;
+    }
+}
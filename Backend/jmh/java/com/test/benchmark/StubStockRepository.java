@@ -0,0 +1,45 @@
+package com.test.benchmark;
+
+import com.test.model.Stock;
+import com.test.repository.StockRepository;
+
+import java.util.*;
+
+/** Read-only in-memory StockRepository holding one generated ledger. */
+public class StubStockRepository implements StockRepository {
+
+    private final List<Stock> ledger;
+    private final Map<String, List<Stock>> bySymbol = new HashMap<>();
+
+    public StubStockRepository(List<Stock> ledger) {
+        this.ledger = Collections.unmodifiableList(ledger);
+        for (Stock s : ledger) {
+            bySymbol.computeIfAbsent(s.getSymbol().toUpperCase(), k -> new ArrayList<>()).add(s);
+        }
+        bySymbol.values().forEach(trades -> trades.sort(Comparator.comparing(Stock::getTimestamp)));
+    }
+
+    @Override public List<Stock> findByUserId(String userId) { return ledger; }
+    // Every trade belongs to the one benchmark user, so the symbol part of the key is enough
+    @Override public List<Stock> findByUserSymbol(String userSymbol) {
+        return bySymbol.getOrDefault(userSymbol.substring(userSymbol.lastIndexOf('#') + 1), List.of());
+    }
+    @Override public List<Stock> findByUserSymbolAndTimestampGreaterThanEqual(String userSymbol, Long timestamp) {
+        return findByUserSymbol(userSymbol).stream().filter(s -> s.getTimestamp() >= timestamp).toList();
+    }
+
+    @Override public <S extends Stock> S save(S entity) { return entity; }
+    @Override public <S extends Stock> Iterable<S> saveAll(Iterable<S> entities) { return entities; }
+    @Override public Optional<Stock> findById(String id) {
+        return ledger.stream().filter(s -> s.getStockId().equals(id)).findFirst();
+    }
+    @Override public boolean existsById(String id) { return findById(id).isPresent(); }
+    @Override public Iterable<Stock> findAll() { return ledger; }
+    @Override public Iterable<Stock> findAllById(Iterable<String> ids) { throw new UnsupportedOperationException(); }
+    @Override public long count() { return ledger.size(); }
+    @Override public void deleteById(String id) { throw new UnsupportedOperationException(); }
+    @Override public void delete(Stock entity) { throw new UnsupportedOperationException(); }
+    @Override public void deleteAllById(Iterable<? extends String> ids) { throw new UnsupportedOperationException(); }
+    @Override public void deleteAll(Iterable<? extends Stock> entities) { throw new UnsupportedOperationException(); }
+    @Override public void deleteAll() { throw new UnsupportedOperationException(); }
+}
@@ -0,0 +1,35 @@
+package com.test.benchmark;
+
+import com.test.model.User;
+import com.test.repository.UserRepository;
+
+import java.util.*;
+
+/** Single-user in-memory UserRepository for the benchmarks. */
+public class StubUserRepository implements UserRepository {
+
+    private final User user;
+
+    public StubUserRepository(User user) {
+        this.user = user;
+    }
+
+    @Override public Optional<User> findByEmail(String email) {
+        return user.getEmail().equals(email) ? Optional.of(user) : Optional.empty();
+    }
+
+    @Override public <S extends User> S save(S entity) { return entity; }
+    @Override public <S extends User> Iterable<S> saveAll(Iterable<S> entities) { return entities; }
+    @Override public Optional<User> findById(String id) {
+        return user.getUserId().equals(id) ? Optional.of(user) : Optional.empty();
+    }
+    @Override public boolean existsById(String id) { return user.getUserId().equals(id); }
+    @Override public Iterable<User> findAll() { return List.of(user); }
+    @Override public Iterable<User> findAllById(Iterable<String> ids) { return List.of(user); }
+    @Override public long count() { return 1; }
+    @Override public void deleteById(String id) { throw new UnsupportedOperationException(); }
+    @Override public void delete(User entity) { throw new UnsupportedOperationException(); }
+    @Override public void deleteAllById(Iterable<? extends String> ids) { throw new UnsupportedOperationException(); }
+    @Override public void deleteAll(Iterable<? extends User> entities) { throw new UnsupportedOperationException(); }
+    @Override public void deleteAll() { throw new UnsupportedOperationException(); }
+}
@@ -0,0 +1,128 @@
+package com.test.loadtest;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.test.metrics.MetricsRegistry;
+import com.test.service.ClusterLeaseService;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+* Leader election against DynamoDB Local, with real ClusterLeaseService instances on short leases:
+* checks that there is never more than one leader, that a crashed leader (stops renewing) is replaced once its
+* lease expires, and that a released lease is taken over on the next heartbeat. Run DynamoDbLocalSetup first.
+*
+* Usage: ClusterLeaseCheck [endpoint=http://localhost:8000] [region=us-east-1] [nodes=3] [lease.ms=2000] [renew.ms=500]
+* Exits with 1 if a check fails.
+*/
+public class ClusterLeaseCheck {
+
+    private static final long POLL_MS = 20;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> config = new HashMap<>();
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            if (kv.length == 2) config.put(kv[0], kv[1]);
+        }
+        String endpoint = config.getOrDefault("endpoint", "http://localhost:8000");
+        String region = config.getOrDefault("region", "us-east-1");
+        int nodeCount = Integer.parseInt(config.getOrDefault("nodes", "3"));
+        long leaseMs = Long.parseLong(config.getOrDefault("lease.ms", "2000"));
+        long renewMs = Long.parseLong(config.getOrDefault("renew.ms", "500"));
+
+        AmazonDynamoDB client = AmazonDynamoDBClientBuilder.standard()
+                .withEndpointConfiguration(new EndpointConfiguration(endpoint, region))
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials("local", "local")))
+                .build();
+        DynamoDBMapper mapper = new DynamoDBMapper(client);
+        MetricsRegistry metrics = new MetricsRegistry();
+
+        List<ClusterLeaseService> nodes = new ArrayList<>();
+        List<ScheduledFuture<?>> heartbeats = new ArrayList<>();
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(nodeCount + 1);
+        for (int i = 0; i < nodeCount; i++) {
+            ClusterLeaseService node = new ClusterLeaseService();
+            set(node, "dynamoDBMapper", mapper);
+            set(node, "metrics", metrics);
+            set(node, "enabled", true);
+            set(node, "configuredNodeId", "check-node-" + i);
+            set(node, "leaseMs", leaseMs);
+            set(node, "clockSkewMs", Math.min(200, leaseMs / 10));
+            node.init();
+            nodes.add(node);
+            heartbeats.add(scheduler.scheduleWithFixedDelay(node::heartbeat, 0, renewMs, TimeUnit.MILLISECONDS));
+        }
+
+        // Counts every moment with two leaders, crashed nodes included (they think they lead until their lease runs out)
+        AtomicInteger overlaps = new AtomicInteger();
+        scheduler.scheduleAtFixedRate(() -> {
+            if (nodes.stream().filter(ClusterLeaseService::isLeader).count() > 1) overlaps.incrementAndGet();
+        }, 0, POLL_MS, TimeUnit.MILLISECONDS);
+
+        boolean ok = true;
+        long limit = leaseMs + 2 * renewMs + 1000;
+
+        // 1. Someone takes the lease (a lease left by an earlier run has to expire first)
+        long start = System.currentTimeMillis();
+        int leader = awaitLeader(nodes, -1, leaseMs + limit);
+        ok &= report("election", leader >= 0, System.currentTimeMillis() - start, leaseMs + limit);
+        if (leader < 0) {
+            scheduler.shutdownNow();
+            System.exit(1);
+        }
+
+        // 2. The leader crashes: it stops renewing without releasing, another takes over after the expiry
+        heartbeats.get(leader).cancel(false);
+        start = System.currentTimeMillis();
+        int next = awaitLeader(nodes, leader, limit);
+        ok &= report("crash failover", next >= 0, System.currentTimeMillis() - start, limit);
+
+        // 3. Graceful shutdown: the lease is deleted, the next heartbeat of another node takes it
+        if (next >= 0 && nodeCount > 2) {
+            heartbeats.get(next).cancel(false);
+            nodes.get(next).release();
+            start = System.currentTimeMillis();
+            int after = awaitLeader(nodes, next, renewMs + 1000);
+            ok &= report("graceful handover", after >= 0 && after != leader, System.currentTimeMillis() - start, renewMs + 1000);
+        }
+
+        ok &= report("single leader", overlaps.get() == 0, overlaps.get(), 0);
+        scheduler.shutdownNow();
+        nodes.forEach(ClusterLeaseService::release);
+        System.exit(ok ? 0 : 1);
+    }
+
+    // Index of the first node other than `except` that leads within timeoutMs, or -1
+    private static int awaitLeader(List<ClusterLeaseService> nodes, int except, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (System.currentTimeMillis() < deadline) {
+            for (int i = 0; i < nodes.size(); i++) {
+                if (i != except && nodes.get(i).isLeader()) return i;
+            }
+            Thread.sleep(POLL_MS);
+        }
+        return -1;
+    }
+
+    private static boolean report(String check, boolean passed, long value, long limit) {
+        System.out.printf("%-18s %s  (%d, limit %d)%n", check, passed ? "OK  " : "FAIL", value, limit);
+        return passed;
+    }
+
+    private static void set(Object target, String fieldName, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,64 @@
+package com.test.loadtest;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.CreateTableRequest;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndex;
+import com.amazonaws.services.dynamodbv2.model.Projection;
+import com.amazonaws.services.dynamodbv2.model.ProjectionType;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughput;
+import com.amazonaws.services.dynamodbv2.util.TableUtils;
+import com.test.model.*;
+
+import java.util.List;
+
+/**
+* Creates every backend table (with its GSIs) in DynamoDB Local, derived from the model annotations.
+* Start DynamoDB Local first, e.g. docker run -p 8000:8000 amazon/dynamodb-local
+*
+* Usage: DynamoDbLocalSetup [endpoint=http://localhost:8000] [region=us-east-1]
+*/
+public class DynamoDbLocalSetup {
+
+    // Every @DynamoDBTable in com.test.model
+    static final List<Class<?>> TABLES = List.of(
+            User.class,
+            Stock.class,
+            IdempotencyRecord.class,
+            LedgerCheckpoint.class,
+            LedgerArchive.class,
+            PriceAlert.class,
+            SymbolHolder.class,
+            CorporateAction.class,
+            ClusterLease.class,
+            SharedPrice.class);
+
+    public static void main(String[] args) throws InterruptedException {
+        String endpoint = args.length > 0 ? args[0] : "http://localhost:8000";
+        String region = args.length > 1 ? args[1] : "us-east-1";
+
+        AmazonDynamoDB client = AmazonDynamoDBClientBuilder.standard()
+                .withEndpointConfiguration(new EndpointConfiguration(endpoint, region))
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials("local", "local")))
+                .build();
+        DynamoDBMapper mapper = new DynamoDBMapper(client);
+
+        // DynamoDB Local ignores capacity, but the API still requires it
+        ProvisionedThroughput throughput = new ProvisionedThroughput(1000L, 1000L);
+        for (Class<?> table : TABLES) {
+            CreateTableRequest request = mapper.generateCreateTableRequest(table).withProvisionedThroughput(throughput);
+            if (request.getGlobalSecondaryIndexes() != null) {
+                for (GlobalSecondaryIndex gsi : request.getGlobalSecondaryIndexes()) {
+                    gsi.withProvisionedThroughput(throughput).withProjection(new Projection().withProjectionType(ProjectionType.ALL));
+                }
+            }
+            boolean created = TableUtils.createTableIfNotExists(client, request);
+            TableUtils.waitUntilActive(client, request.getTableName());
+            System.out.println((created ? "Created " : "Exists  ") + request.getTableName());
+        }
+    }
+}
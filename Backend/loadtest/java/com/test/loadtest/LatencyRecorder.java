@@ -0,0 +1,44 @@
+package com.test.loadtest;
+
+import java.util.Arrays;
+
+/** Collects raw latencies (nanoseconds) for one endpoint; percentiles are computed once at the end. */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1 << 16];
+    private int size;
+    private long errors;
+
+    public synchronized void record(long nanos, boolean ok) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+        if (!ok) errors++;
+    }
+
+    public synchronized Snapshot snapshot() {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        return new Snapshot(sorted, errors);
+    }
+
+    public static class Snapshot {
+        private final long[] sorted;
+        private final long errors;
+
+        Snapshot(long[] sorted, long errors) {
+            this.sorted = sorted;
+            this.errors = errors;
+        }
+
+        public int count() { return sorted.length; }
+        public long errors() { return errors; }
+
+        public double percentileMillis(double p) {
+            if (sorted.length == 0) return 0;
+            int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+        }
+    }
+}
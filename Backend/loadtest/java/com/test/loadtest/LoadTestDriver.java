@@ -0,0 +1,214 @@
+package com.test.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+* Closed-loop load generator for a running backend (usually started with the "loadtest" profile,
+* pointed at DynamoDB Local and {@link StubServer}).
+* Registers and seeds users, then mixes login / holdings / summary / history / dashboard / trade / chart traffic and
+* reports throughput and p50/p99/p999 per endpoint.
+*
+* Usage: LoadTestDriver [baseUrl=http://localhost:8080] [users=20] [concurrency=32] [duration=60]
+*                       [warmup=10] [mix=login:5,holdings:30,summary:30,trade:15,chart:20]
+*                       [symbols=AAPL,MSFT,GOOGL,AMZN,NVDA,TSLA,META,JPM] [seedTrades=20]
+*/
+public class LoadTestDriver {
+
+    private static final String PASSWORD = "LoadTest#1";
+
+    private final String baseUrl;
+    private final int users;
+    private final int concurrency;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final int seedTrades;
+    private final List<String> symbols;
+    private final String[] ops;
+    private final int[] cumulativeWeights;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Map<String, LatencyRecorder> recorders = new ConcurrentHashMap<>();
+    private final List<String> authHeaders = new ArrayList<>();
+    private final List<String> emails = new ArrayList<>();
+
+    public LoadTestDriver(Map<String, String> config) {
+        baseUrl = config.getOrDefault("baseUrl", "http://localhost:8080");
+        users = Integer.parseInt(config.getOrDefault("users", "20"));
+        concurrency = Integer.parseInt(config.getOrDefault("concurrency", "32"));
+        durationSeconds = Integer.parseInt(config.getOrDefault("duration", "60"));
+        warmupSeconds = Integer.parseInt(config.getOrDefault("warmup", "10"));
+        seedTrades = Integer.parseInt(config.getOrDefault("seedTrades", "20"));
+        symbols = Arrays.asList(config.getOrDefault("symbols", "AAPL,MSFT,GOOGL,AMZN,NVDA,TSLA,META,JPM").split(","));
+
+        String[] entries = config.getOrDefault("mix", "login:5,holdings:30,summary:30,trade:15,chart:20").split(",");
+        ops = new String[entries.length];
+        cumulativeWeights = new int[entries.length];
+        int total = 0;
+        for (int i = 0; i < entries.length; i++) {
+            String[] kv = entries[i].split(":");
+            ops[i] = kv[0];
+            total += Integer.parseInt(kv[1]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> config = new HashMap<>();
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            if (kv.length == 2) config.put(kv[0], kv[1]);
+        }
+        new LoadTestDriver(config).run();
+    }
+
+    public void run() throws Exception {
+        setupUsers();
+
+        AtomicBoolean recording = new AtomicBoolean(false);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                while (running.get()) {
+                    runOne(recording.get());
+                }
+            });
+        }
+
+        System.out.printf("Warming up for %ds...%n", warmupSeconds);
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        recording.set(true);
+        long started = System.nanoTime();
+        System.out.printf("Measuring for %ds with %d workers...%n", durationSeconds, concurrency);
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        running.set(false);
+        double elapsed = (System.nanoTime() - started) / 1e9;
+
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+        report(elapsed);
+    }
+
+    // --- Setup ---
+
+    private void setupUsers() throws Exception {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        for (int i = 0; i < users; i++) {
+            String email = "loadtest-" + runId + "-" + i + "@example.com";
+            String body = "{\"email\":\"" + email + "\",\"username\":\"lt" + i + "\",\"password\":\"" + PASSWORD + "\"}";
+            HttpResponse<String> response = send(post("/api/auth/register", null, body));
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Registration failed for " + email + ": " + response.body());
+            }
+            String auth = "Basic " + Base64.getEncoder().encodeToString((email + ":" + PASSWORD).getBytes(StandardCharsets.UTF_8));
+            emails.add(email);
+            authHeaders.add(auth);
+
+            for (int t = 0; t < seedTrades; t++) {
+                send(post("/api/stocks", auth, buyBody(symbols.get(t % symbols.size()))));
+            }
+        }
+        System.out.printf("Registered %d users with %d seed trades each%n", users, seedTrades);
+    }
+
+    // --- Traffic ---
+
+    private void runOne(boolean record) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int user = random.nextInt(users);
+        String auth = authHeaders.get(user);
+        String symbol = symbols.get(random.nextInt(symbols.size()));
+        String op = pickOp(random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]));
+
+        HttpRequest request = switch (op) {
+            case "login" -> post("/api/auth/login", null,
+                    "{\"email\":\"" + emails.get(user) + "\",\"password\":\"" + PASSWORD + "\"}");
+            case "holdings" -> get("/api/stocks", auth);
+            case "summary" -> get("/api/portfolio/summary", auth);
+            case "history" -> get("/api/stocks/history", auth);
+            case "dashboard" -> get("/api/dashboard", auth);
+            case "chart" -> get("/api/analytics/chart/" + symbol, auth);
+            case "trade" -> random.nextInt(5) == 0
+                    ? post("/api/stocks/sell-by-symbol", auth, "{\"symbol\":\"" + symbol + "\",\"quantity\":1,\"sellPrice\":100}")
+                    : post("/api/stocks", auth, buyBody(symbol));
+            default -> throw new IllegalArgumentException("Unknown op in mix: " + op);
+        };
+
+        long start = System.nanoTime();
+        boolean ok;
+        try {
+            int status = send(request).statusCode();
+            // A SELL of a symbol the user has run out of is a valid 400, not a failure of the system
+            ok = status < 400 || (status == 400 && "trade".equals(op));
+        } catch (Exception e) {
+            ok = false;
+        }
+        if (record) {
+            recorders.computeIfAbsent(op, k -> new LatencyRecorder()).record(System.nanoTime() - start, ok);
+        }
+    }
+
+    private String pickOp(int roll) {
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) return ops[i];
+        }
+        return ops[ops.length - 1];
+    }
+
+    private String buyBody(String symbol) {
+        // purchasePrice 0 -> the backend fetches the price (from the Finnhub stub)
+        return "{\"symbol\":\"" + symbol + "\",\"quantity\":" + (1 + ThreadLocalRandom.current().nextInt(10)) + ",\"purchasePrice\":0}";
+    }
+
+    // --- Reporting ---
+
+    private void report(double elapsedSeconds) {
+        System.out.println();
+        System.out.printf("%-10s %9s %8s %10s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms");
+        long total = 0;
+        for (String op : new TreeSet<>(recorders.keySet())) {
+            LatencyRecorder.Snapshot s = recorders.get(op).snapshot();
+            total += s.count();
+            System.out.printf("%-10s %9d %8d %10.1f %9.1f %9.1f %9.1f%n", op, s.count(), s.errors(),
+                    s.count() / elapsedSeconds, s.percentileMillis(50), s.percentileMillis(99), s.percentileMillis(99.9));
+        }
+        System.out.printf("%-10s %9d %8s %10.1f%n", "total", total, "", total / elapsedSeconds);
+    }
+
+    // --- HTTP helpers ---
+
+    private HttpRequest get(String path, String auth) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET();
+        if (auth != null) builder.header("Authorization", auth);
+        return builder.build();
+    }
+
+    private HttpRequest post(String path, String auth, String json) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (auth != null) builder.header("Authorization", auth);
+        return builder.build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
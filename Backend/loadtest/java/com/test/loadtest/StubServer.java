@@ -0,0 +1,145 @@
+package com.test.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+* Local stand-ins for every external HTTP dependency, with configurable latency:
+*   GET  /api/v1/quote        Finnhub quote    (finnhub.api.url=http://localhost:PORT/api/v1)
+*   GET  /api/v1/stock/candle Finnhub candles
+*   POST /gemini              Gemini generateContent (gemini.api.url=http://localhost:PORT/gemini)
+*   POST /notify              notification Lambda    (trade.notification.url=http://localhost:PORT/notify)
+*
+* Usage: StubServer [port=8089] [quote.latency=30] [candle.latency=80] [gemini.latency=1200]
+*                   [notify.latency=50] [jitter=0.2] [error.rate=0]
+* Latencies are milliseconds; jitter is +/- fraction of the latency; error.rate returns 500s.
+*/
+public class StubServer {
+
+    private final Map<String, String> config;
+
+    public StubServer(Map<String, String> config) {
+        this.config = config;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> config = new HashMap<>();
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            if (kv.length == 2) config.put(kv[0], kv[1]);
+        }
+        new StubServer(config).start();
+    }
+
+    public HttpServer start() throws IOException {
+        int port = Integer.parseInt(config.getOrDefault("port", "8089"));
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.setExecutor(Executors.newCachedThreadPool());
+
+        server.createContext("/api/v1/quote", ex -> respond(ex, "quote", quoteJson(query(ex.getRequestURI()).get("symbol"))));
+        server.createContext("/api/v1/stock/candle", ex -> respond(ex, "candle", candleJson(query(ex.getRequestURI()))));
+        server.createContext("/gemini", ex -> respond(ex, "gemini",
+                geminiJson(new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8))));
+        server.createContext("/notify", ex -> respond(ex, "notify", "{\"status\":\"queued\"}"));
+
+        server.start();
+        System.out.println("Stub server listening on http://localhost:" + port + " with " + config);
+        return server;
+    }
+
+    private void respond(HttpExchange ex, String stub, String body) throws IOException {
+        try {
+            ex.getRequestBody().readAllBytes();
+            sleep(stub);
+
+            boolean fail = ThreadLocalRandom.current().nextDouble() < Double.parseDouble(config.getOrDefault("error.rate", "0"));
+            byte[] bytes = (fail ? "{\"error\":\"stub failure\"}" : body).getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", "application/json");
+            ex.sendResponseHeaders(fail ? 500 : 200, bytes.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            ex.close();
+        }
+    }
+
+    private void sleep(String stub) {
+        long defaultLatency = switch (stub) {
+            case "quote" -> 30;
+            case "candle" -> 80;
+            case "gemini" -> 1200;
+            default -> 50;
+        };
+        long latency = Long.parseLong(config.getOrDefault(stub + ".latency", String.valueOf(defaultLatency)));
+        double jitter = Double.parseDouble(config.getOrDefault("jitter", "0.2"));
+        long actual = Math.max(0, Math.round(latency * (1 + (ThreadLocalRandom.current().nextDouble() * 2 - 1) * jitter)));
+        try {
+            Thread.sleep(actual);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Stable per-symbol price with a little noise, so holdings/summary values look realistic
+    private static String quoteJson(String symbol) {
+        double base = 20 + Math.abs((symbol == null ? "X" : symbol).hashCode() % 480);
+        double price = Math.round(base * (1 + (ThreadLocalRandom.current().nextDouble() - 0.5) * 0.01) * 100.0) / 100.0;
+        return "{\"c\":" + price + ",\"h\":" + price + ",\"l\":" + price + ",\"o\":" + price + ",\"pc\":" + base + ",\"t\":" + System.currentTimeMillis() / 1000 + "}";
+    }
+
+    private static String candleJson(Map<String, String> query) {
+        long from = Long.parseLong(query.getOrDefault("from", String.valueOf(System.currentTimeMillis() / 1000 - 30 * 86400)));
+        long to = Long.parseLong(query.getOrDefault("to", String.valueOf(System.currentTimeMillis() / 1000)));
+        StringBuilder closes = new StringBuilder();
+        StringBuilder times = new StringBuilder();
+        double price = 150;
+        for (long t = from; t <= to; t += 86400) {
+            price *= 1 + (ThreadLocalRandom.current().nextDouble() - 0.5) * 0.04;
+            if (closes.length() > 0) {
+                closes.append(',');
+                times.append(',');
+            }
+            closes.append(Math.round(price * 100.0) / 100.0);
+            times.append(t);
+        }
+        return "{\"s\":\"ok\",\"c\":[" + closes + "],\"t\":[" + times + "]}";
+    }
+
+    private static String geminiJson(String request) {
+        String text = "{\\\"positive\\\": [\\\"Stub positive 1\\\", \\\"Stub positive 2\\\", \\\"Stub positive 3\\\"], "
+                + "\\\"negative\\\": [\\\"Stub negative 1\\\", \\\"Stub negative 2\\\", \\\"Stub negative 3\\\"]}";
+        // Portfolio prompt ("Analyze each of these stock tickers: A, B. ..."): the same analysis keyed by every ticker
+        int list = request.indexOf("these stock tickers: ");
+        if (list >= 0) {
+            int start = list + "these stock tickers: ".length();
+            StringBuilder keyed = new StringBuilder("{");
+            for (String symbol : request.substring(start, request.indexOf(". Respond", start)).split(", ")) {
+                if (keyed.length() > 1) keyed.append(", ");
+                keyed.append("\\\"").append(symbol).append("\\\": ").append(text);
+            }
+            text = keyed.append("}").toString();
+        }
+        return "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + text + "\"}]}}]}";
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> params = new HashMap<>();
+        if (uri.getRawQuery() == null) return params;
+        for (String pair : uri.getRawQuery().split("&")) {
+            String[] kv = pair.split("=", 2);
+            params.put(kv[0], kv.length > 1 ? kv[1] : "");
+        }
+        return params;
+    }
+}
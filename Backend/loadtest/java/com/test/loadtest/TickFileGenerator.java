@@ -0,0 +1,52 @@
+package com.test.loadtest;
+
+import com.test.marketdata.GbmSimulator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+* Writes a tick file for the replay provider (market-data.provider=replay) from the seeded GBM simulator:
+* one "epochMillis,SYMBOL,price" line per symbol every tickMs, for `days` days ending yesterday (UTC).
+* Same arguments, same file.
+*
+* Usage: TickFileGenerator [file=./data/ticks.csv] [symbols=AAPL,MSFT,NVDA] [days=30] [tickMs=60000] [seed=42]
+*/
+public class TickFileGenerator {
+
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(args.length > 0 ? args[0] : "./data/ticks.csv");
+        List<String> symbols = Arrays.asList((args.length > 1 ? args[1] : "AAPL,MSFT,NVDA").toUpperCase().split(","));
+        int days = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        long tickMs = args.length > 3 ? Long.parseLong(args[3]) : 60_000;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42;
+
+        GbmSimulator simulator = new GbmSimulator(seed, 0.07, 0.3, LocalDate.of(2015, 1, 1), tickMs);
+        long today = LocalDate.now(ZoneOffset.UTC).toEpochDay();
+        long ticks = 0;
+
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("# epochMillis,symbol,price - GBM seed " + seed + "\n");
+            for (long day = today - days; day < today; day++) {
+                if (!GbmSimulator.isTradingDay(day)) continue;
+                for (long t = day * GbmSimulator.DAY_MS; t < (day + 1) * GbmSimulator.DAY_MS; t += tickMs) {
+                    for (String symbol : symbols) {
+                        double price = Math.round(simulator.priceAt(symbol, t) * 100.0) / 100.0;
+                        out.write(t + "," + symbol + "," + price + "\n");
+                        ticks++;
+                    }
+                }
+            }
+        }
+        System.out.println("Wrote " + ticks + " ticks for " + symbols.size() + " symbols to " + file.toAbsolutePath());
+    }
+}
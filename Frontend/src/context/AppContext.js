@@ -134,13 +134,14 @@ export const AppProvider = ({ children }) => {
   // Fetches Portfolio Summary (for the Dashboard Cards)
   const fetchPortfolio = async () => {
     try {
-      const response = await axios.get('/api/portfolio/summary');
-      setPortfolio(response.data);
-      
-      // The summary endpoint also returns 'stocks', so we can update both
-      if (response.data && response.data.stocks) {
-        setStocks(response.data.stocks);
-      }
+      // One request for cards, holdings and allocation: the ledger is replayed and priced once
+      const response = await axios.get('/api/dashboard', {
+        params: { fields: 'summary,holdings,allocation' }
+      });
+      const { summary, holdings, allocation } = response.data;
+      // Same shape as /api/portfolio/summary, which the dashboard components read
+      setPortfolio({ ...summary, stocks: holdings, topHoldings: allocation });
+      setStocks(holdings || []);
       setError(null);
     } catch (err) {
       console.warn("Fetch Portfolio Error:", err);
@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import axios from 'axios';
 import { useApp } from '../context/AppContext';
 import { 
@@ -15,6 +15,7 @@ const Analytics = () => {
   const [news, setNews] = useState({ positive: [], negative: [] });
   const [loadingChart, setLoadingChart] = useState(false);
   const [loadingNews, setLoadingNews] = useState(false);
+  const portfolioNews = useRef(null);
 
   const COLORS = ['#6366f1', '#8b5cf6', '#ec4899', '#f43f5e', '#10b981', '#3b82f6'];
 
@@ -22,6 +23,9 @@ const Analytics = () => {
     if (stocks.length > 0 && !selectedSymbol) {
       setSelectedSymbol(stocks[0].symbol);
     }
+    if (stocks.length > 0) {
+      prefetchPortfolioNews();
+    }
   }, [stocks]);
 
   useEffect(() => {
@@ -43,12 +47,38 @@ const Analytics = () => {
     }
   };
 
+  // One request for every holding not cached today (the backend batches them into one or two AI calls)
+  const prefetchPortfolioNews = () => {
+    const today = new Date().toDateString();
+    const missing = stocks.some(s => {
+      const cached = localStorage.getItem(`ai_cache_${s.symbol}`);
+      return !cached || JSON.parse(cached).date !== today;
+    });
+    if (!missing || portfolioNews.current) return;
+
+    portfolioNews.current = axios.get('/api/analytics/news')
+      .then(res => {
+        Object.entries(res.data.analyses || {}).forEach(([symbol, data]) => {
+          // Fallbacks are left out, so the symbol is asked for again
+          if (data.positive?.[0] === 'Data unavailable') return;
+          localStorage.setItem(`ai_cache_${symbol}`, JSON.stringify({ date: today, data }));
+        });
+      })
+      .catch(err => console.error("Portfolio AI Error", err))
+      .finally(() => { portfolioNews.current = null; });
+  };
+
   // --- MODIFIED: AI Fetch with "Next Day" Caching Logic ---
   const fetchAiNews = async (symbol) => {
     setLoadingNews(true);
     const cacheKey = `ai_cache_${symbol}`;
     const today = new Date().toDateString(); // e.g. "Fri Nov 28 2025"
 
+    // A portfolio request in flight is about to fill the cache
+    if (portfolioNews.current) {
+      await portfolioNews.current;
+    }
+
     // 1. CHECK CACHE
     const cachedData = localStorage.getItem(cacheKey);
     if (cachedData) {